@@ -34,6 +34,9 @@ import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -54,6 +57,8 @@ public final class FileUtils {
     private static final Logger LOG = LoggerFactory.getLogger(FileUtils.class);
 
     private static final String MD5 = "MD5";
+    private static final String SHA_256 = "SHA-256";
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
 
     private static final String WIN_DRIVE_LETTER_COLON_WILDCHAR = "WINDOWS_VERY_SPECIFIC_DOUBLEDOT";
 
@@ -358,6 +363,23 @@ public final class FileUtils {
 
     }
 
+    /**
+     * Moves a completely written file to its target, replacing an existing target.
+     * The move is atomic where the file system supports it, so readers of the target
+     * see either the previous or the new file but never a partially written one.
+     *
+     * @param source the completely written file, usually a temporary file next to the target
+     * @param target the file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    public static void moveInPlace(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * This will return a lock to the file specified.
      *
@@ -441,4 +463,34 @@ public final class FileUtils {
 
         return md5.digest();
     }
+
+    /**
+     * Computes the SHA-256 digest of the file while reading it in chunks.
+     *
+     * @param file the file to digest
+     * @return the digest as lower case hex string
+     * @throws IOException if the file cannot be read or SHA-256 is not available
+     */
+    public static String getFileSHA256Sum(final File file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Digest algorithm " + SHA_256 + " is not available", e);
+        }
+
+        final byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        final StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
 }
@@ -3,9 +3,14 @@ package net.adoptopenjdk.icedteaweb.io;
 import net.adoptopenjdk.icedteaweb.Assert;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
@@ -19,6 +24,8 @@ import static net.adoptopenjdk.icedteaweb.StringUtils.splitIntoMultipleLines;
  */
 public class IOUtils {
 
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
     /**
      * Converts a byte array into a Base64 string.
      *
@@ -102,6 +109,40 @@ public class IOUtils {
         outputStream.flush();
     }
 
+    /**
+     * Copies the content of an input stream into a file using {@link FileChannel#transferFrom}.
+     * If the expected size is known the file is extended to this size before copying such that
+     * the file system can reserve the space at once. In the end the file is truncated to the
+     * number of bytes actually copied.
+     *
+     * @param inputStream  the source to read from, it is not closed
+     * @param file         the file to write to, an existing content is replaced
+     * @param expectedSize the expected number of bytes or a non-positive value if unknown
+     * @return the number of bytes copied
+     * @throws IOException if reading from the stream or writing to the file failed
+     */
+    public static long copy(final InputStream inputStream, final File file, final long expectedSize) throws IOException {
+        Assert.requireNonNull(inputStream, "inputStream");
+        Assert.requireNonNull(file, "file");
+
+        final ReadableByteChannel source = Channels.newChannel(inputStream);
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(Math.max(expectedSize, 0));
+            final FileChannel target = raf.getChannel();
+
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                position += transferred;
+            }
+
+            if (target.size() > position) {
+                target.truncate(position);
+            }
+            return position;
+        }
+    }
+
     /**
      * Reads the content of an input stream into a byte array.
      *
@@ -7,6 +7,16 @@ package net.adoptopenjdk.icedteaweb.logging;
  */
 public interface Logger {
 
+    /**
+     * Whether messages at the {@code DEBUG} level are logged. Callers which build expensive
+     * arguments for a debug message can check this first.
+     *
+     * @return true if messages at the {@code DEBUG} level are logged
+     */
+    default boolean isDebugEnabled() {
+        return true;
+    }
+
     /**
      * Log a message at the {@code DEBUG} level.
      *
@@ -14,6 +24,34 @@ public interface Logger {
      */
     void debug(String msg);
 
+    /**
+     * Log a message at the {@code DEBUG} level.
+     * Replace {@code {}} with the given argument
+     *
+     * @param msg the message to be logged
+     * @param arg the argument for replacement
+     */
+    default void debug(String msg, Object arg) {
+        if (isDebugEnabled()) {
+            // an array passed as the only argument holds the arguments, as it did for the varargs method
+            debug(msg, arg instanceof Object[] ? (Object[]) arg : new Object[]{arg});
+        }
+    }
+
+    /**
+     * Log a message at the {@code DEBUG} level.
+     * Replace {@code {}} with the given arguments
+     *
+     * @param msg  the message to be logged
+     * @param arg1 the first argument for replacement
+     * @param arg2 the second argument for replacement
+     */
+    default void debug(String msg, Object arg1, Object arg2) {
+        if (isDebugEnabled()) {
+            debug(msg, new Object[]{arg1, arg2});
+        }
+    }
+
     /**
      * Log a message at the {@code DEBUG} level.
      * Replace {@code {}} with the given arguments
@@ -40,6 +40,11 @@ class SystemOutLoggerFactory implements LoggerFactoryImpl {
             this.forClass = forClass.getName();
         }
 
+        @Override
+        public boolean isDebugEnabled() {
+            return true;
+        }
+
         @Override
         public void debug(final String msg) {
             log(DEBUG, msg, null);
@@ -89,4 +89,27 @@ public class FileUtilsTest {
         assertTrue(testParent.isDirectory());
         assertFalse(testChild.exists());
     }
+
+    @Test
+    public void testGetFileSHA256Sum() throws Exception {
+        final File file = File.createTempFile("itw_test_sha256", ".txt");
+        file.deleteOnExit();
+        FileUtils.saveFileUtf8("abc", file);
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", FileUtils.getFileSHA256Sum(file));
+    }
+
+    @Test
+    public void testMoveInPlaceReplacesTarget() throws Exception {
+        final File target = File.createTempFile("itw_test_move", ".txt");
+        final File source = File.createTempFile("itw_test_move", ".tmp", target.getParentFile());
+        target.deleteOnExit();
+        source.deleteOnExit();
+        FileUtils.saveFileUtf8("old", target);
+        FileUtils.saveFileUtf8("new", source);
+
+        FileUtils.moveInPlace(source, target);
+
+        assertFalse(source.exists());
+        assertEquals("new", FileUtils.loadFileAsUtf8String(target));
+    }
 }
@@ -61,4 +61,77 @@ public class BaseLoggerTest {
 
         assertThat(BaseLogger.doExpand(message, args), is("This is a message with the arguments ONE and {}."));
     }
+
+    @Test
+    public void testLoggerImplementingOnlyVarargsMethodsExpandsDebugMessages() {
+        final VarargsOnlyLogger logger = new VarargsOnlyLogger();
+
+        logger.debug("One argument {}", "ONE");
+        assertThat(logger.lastDebugMessage, is("One argument ONE"));
+
+        logger.debug("Two arguments {} and {}", "ONE", 2);
+        assertThat(logger.lastDebugMessage, is("Two arguments ONE and 2"));
+
+        logger.debug("Array as only argument {} and {}", (Object) new Object[]{"ONE", 2});
+        assertThat(logger.lastDebugMessage, is("Array as only argument ONE and 2"));
+    }
+
+    /**
+     * A logger written against the interface before it had the debug methods with one and two arguments.
+     */
+    private static class VarargsOnlyLogger extends BaseLogger {
+
+        private String lastDebugMessage;
+
+        @Override
+        public void debug(final String msg) {
+            lastDebugMessage = msg;
+        }
+
+        @Override
+        public void debug(final String msg, final Object... arguments) {
+            lastDebugMessage = expand(msg, arguments);
+        }
+
+        @Override
+        public void debug(final String msg, final Throwable t) {
+            lastDebugMessage = msg;
+        }
+
+        @Override
+        public void info(final String msg) {
+        }
+
+        @Override
+        public void info(final String msg, final Object... arguments) {
+        }
+
+        @Override
+        public void info(final String msg, final Throwable t) {
+        }
+
+        @Override
+        public void warn(final String msg) {
+        }
+
+        @Override
+        public void warn(final String msg, final Object... arguments) {
+        }
+
+        @Override
+        public void warn(final String msg, final Throwable t) {
+        }
+
+        @Override
+        public void error(final String msg) {
+        }
+
+        @Override
+        public void error(final String msg, final Object... arguments) {
+        }
+
+        @Override
+        public void error(final String msg, final Throwable t) {
+        }
+    }
 }
@@ -25,7 +25,7 @@ import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.runtime.classloader.JNLPClassLoader;
 import net.sourceforge.jnlp.util.ClasspathMatcher;
-import net.sourceforge.jnlp.util.JarFile;
+import net.sourceforge.jnlp.util.JarScan;
 
 import java.io.File;
 import java.io.IOException;
@@ -291,13 +291,9 @@ public class ManifestAttributesReader {
         final File file = tracker.getCacheFile(location);
 
         if (file != null) {
-            try (JarFile mainJar = new JarFile(file)) {
-                final Manifest manifest = mainJar.getManifest();
-                if (manifest == null || manifest.getMainAttributes() == null) {
-                    //yes, jars without manifest exists
-                    return null;
-                }
-                return manifest.getMainAttributes().getValue(name);
+            try {
+                //yes, jars without manifest exists
+                return JarScan.of(file).getMainAttribute(name);
             } catch (IOException ioe) {
                 return null;
             }
@@ -34,6 +34,7 @@ package net.adoptopenjdk.icedteaweb.resources;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -57,6 +58,10 @@ public class DaemonThreadPoolProvider {
         return Executors.newSingleThreadExecutor(new DaemonThreadFactory());
     }
 
+    public static ScheduledExecutorService createSingletonScheduledDaemonThreadPool() {
+        return Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+    }
+
     /**
      * This is copypasted default factory from java.util.concurrent.Executors.
      * The only difference is, that it creates daemon threads.
@@ -1,11 +1,16 @@
 package net.adoptopenjdk.icedteaweb.resources;
 
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +22,8 @@ import java.util.stream.Collectors;
  */
 public class PrioritizedParallelExecutor {
 
+    private static final Logger LOG = LoggerFactory.getLogger(PrioritizedParallelExecutor.class);
+
     private static final String LIST_PREFIX = "\n   - ";
 
     private final ExecutorService executor;
@@ -46,23 +53,12 @@ public class PrioritizedParallelExecutor {
             throw new IllegalArgumentException("No callables");
         }
 
-        final CompletableFuture<V> futureResult = new CompletableFuture<>();
-        final List<Exception> exceptions = new ArrayList<>();
-        for (Callable<V> next : callables) {
-            try {
-                futureResult.complete(executor.submit(next).get());
-                return futureResult;
-            } catch (Exception e) {
-                exceptions.add(e);
-                // continue with next callable
-            }
-        }
-
-        futureResult.completeExceptionally(getFailureReason(exceptions));
-        return futureResult;
+        final PrioritizedRace<V> race = new PrioritizedRace<>(callables.size());
+        race.start(executor, callables);
+        return race.result;
     }
 
-    private Exception getFailureReason(List<Exception> exceptions) {
+    private static Exception getFailureReason(List<Exception> exceptions) {
         if (exceptions.size() == 1) {
             return exceptions.get(0);
         } else {
@@ -71,4 +67,147 @@ public class PrioritizedParallelExecutor {
         }
     }
 
+    /**
+     * State of a single execution of {@link #getSuccessfulResultWithHighestPriority(List)}.
+     * All candidates are started at once. The candidate at index {@code i} wins as soon as it succeeded and all
+     * candidates with an index lower than {@code i} have failed. Every candidate with an index higher than a
+     * successful candidate can no longer win and is therefore canceled right away.
+     */
+    private static class PrioritizedRace<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private final int size;
+        private final Future<?>[] futures;
+        private final Object[] values;
+        private final Exception[] failures;
+        private final boolean[] succeeded;
+        private final long[] durations;
+        private final long startTime = System.nanoTime();
+
+        private int lowestSuccessfulIndex;
+
+        PrioritizedRace(final int size) {
+            this.size = size;
+            this.futures = new Future<?>[size];
+            this.values = new Object[size];
+            this.failures = new Exception[size];
+            this.succeeded = new boolean[size];
+            this.durations = new long[size];
+            this.lowestSuccessfulIndex = size;
+        }
+
+        synchronized void start(final ExecutorService executor, final List<Callable<V>> callables) {
+            result.whenComplete((v, t) -> {
+                if (result.isCancelled()) {
+                    cancelCandidatesFrom(0);
+                }
+            });
+
+            for (int i = 0; i < size; i++) {
+                final int index = i;
+                final Callable<V> callable = callables.get(i);
+                if (index > lowestSuccessfulIndex || result.isDone()) {
+                    // a candidate with higher priority already succeeded - no need to start this one
+                    break;
+                }
+                futures[index] = executor.submit(() -> runCandidate(index, callable));
+            }
+        }
+
+        private void runCandidate(final int index, final Callable<V> callable) {
+            final long candidateStart = System.nanoTime();
+            try {
+                final V value = callable.call();
+                onSuccess(index, value, System.nanoTime() - candidateStart);
+            } catch (Exception e) {
+                onFailure(index, e, System.nanoTime() - candidateStart);
+            }
+        }
+
+        private synchronized void onSuccess(final int index, final V value, final long duration) {
+            durations[index] = duration;
+            values[index] = value;
+            succeeded[index] = true;
+            LOG.debug("Candidate {} of {} succeeded after {} ms", index + 1, size, toMillis(duration));
+
+            if (index < lowestSuccessfulIndex) {
+                lowestSuccessfulIndex = index;
+                cancelCandidatesFrom(index + 1);
+            }
+            evaluate();
+        }
+
+        private synchronized void onFailure(final int index, final Exception exception, final long duration) {
+            durations[index] = duration;
+            failures[index] = unwrap(exception);
+            LOG.debug("Candidate {} of {} failed after {} ms: {}", index + 1, size, toMillis(duration), exception.getMessage());
+            evaluate();
+        }
+
+        /**
+         * Completes the result if the winner is known. This is the case if the candidate with the highest priority
+         * which has not failed has succeeded or if all candidates have failed.
+         */
+        @SuppressWarnings("unchecked")
+        private void evaluate() {
+            if (result.isDone()) {
+                return;
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (succeeded[i]) {
+                    logTimings(i);
+                    result.complete((V) values[i]);
+                    return;
+                }
+                if (failures[i] == null) {
+                    // candidate with higher priority is still running
+                    return;
+                }
+            }
+
+            logTimings(-1);
+            final List<Exception> exceptions = new ArrayList<>(size);
+            for (Exception failure : failures) {
+                exceptions.add(failure);
+            }
+            result.completeExceptionally(getFailureReason(exceptions));
+        }
+
+        private synchronized void cancelCandidatesFrom(final int firstIndex) {
+            for (int i = firstIndex; i < size; i++) {
+                final Future<?> future = futures[i];
+                if (future != null && !future.isDone()) {
+                    LOG.debug("Canceling candidate {} of {} as it can no longer win", i + 1, size);
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private void logTimings(final int winner) {
+            final long elapsed = System.nanoTime() - startTime;
+            long sequential = 0;
+            for (int i = 0; i < size && (winner < 0 || i <= winner); i++) {
+                sequential += durations[i];
+            }
+            if (winner < 0) {
+                LOG.debug("All {} candidates failed after {} ms", size, toMillis(elapsed));
+            } else {
+                LOG.debug("Candidate {} of {} won after {} ms, sequential execution would have taken at least {} ms",
+                        winner + 1, size, toMillis(elapsed), toMillis(sequential));
+            }
+        }
+
+        private static Exception unwrap(final Exception exception) {
+            if (exception instanceof ExecutionException && exception.getCause() instanceof Exception) {
+                return (Exception) exception.getCause();
+            }
+            return exception;
+        }
+
+        private static long toMillis(final long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
 }
@@ -0,0 +1,279 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.os.OsUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.BINARY_CACHE_INDEX_FILE_NAME;
+
+/**
+ * Compact binary index format which avoids parsing text when loading large indexes.
+ * <p>
+ * The file starts with a header (magic bytes and format version) followed by any number of blocks.
+ * Every append and every compaction writes exactly one self-contained block:
+ * <pre>
+ *     int     number of strings
+ *     int     number of records
+ *     strings (int length, UTF-8 bytes) - ids, locations and versions used by the records of this block
+ *     records fixed size of 24 bytes:
+ *             byte  action type
+ *             byte  access count (3 bytes, big-endian, saturated) - 0 in access records written before the
+ *                   accesses have been counted, which stand for a single access
+ *             int   index of the id in the string table
+ *             int   index of the location in the string table or -1
+ *             int   index of the version in the string table or -1
+ *             long  last access time or -1
+ * </pre>
+ * A block which has not been written completely (e.g. because the process was killed) is ignored
+ * and not counted as consumed.
+ * <p>
+ * The file is memory mapped for reading. On Windows a mapped file cannot be truncated as long as
+ * the mapping is alive, therefore the file is read into the heap instead.
+ */
+class BinaryCacheIndexFormat implements CacheIndexFormat {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryCacheIndexFormat.class);
+
+    private static final byte[] MAGIC = {'I', 'T', 'W', 'I', 'D', 'X'};
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 2;
+
+    private static final int BLOCK_HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 24;
+    private static final int NO_STRING = -1;
+    private static final int MAX_ACCESS_COUNT = 0xFFFFFF;
+
+    private static final byte TYPE_ADD = 1;
+    private static final byte TYPE_REMOVE = 2;
+    private static final byte TYPE_ACCESS = 3;
+
+    @Override
+    public String getFileName() {
+        return BINARY_CACHE_INDEX_FILE_NAME;
+    }
+
+    @Override
+    public long read(final File file, final long offset, final Consumer<CacheAction> consumer) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            final long available = channel.size() - offset;
+            if (available <= 0) {
+                return offset;
+            }
+            if (available > Integer.MAX_VALUE) {
+                throw new IOException("Cache index " + file + " is too large: " + channel.size() + " bytes");
+            }
+            buffer = mapOrRead(channel, offset, (int) available);
+        }
+
+        if (offset == 0 && !hasValidHeader(buffer)) {
+            LOG.warn("Ignoring cache index {} as it is not a binary cache index of version {}", file, VERSION);
+            return 0;
+        }
+
+        int consumed = buffer.position();
+        while (buffer.remaining() >= BLOCK_HEADER_SIZE) {
+            if (!readBlock(buffer, consumer)) {
+                LOG.debug("Ignoring incomplete block at the end of the cache index {}", file);
+                break;
+            }
+            consumed = buffer.position();
+        }
+        return offset + consumed;
+    }
+
+    @Override
+    public void append(final File file, final List<CacheAction> actions) throws IOException {
+        final boolean needsHeader = file.length() == 0;
+        final byte[] block = encode(actions, needsHeader);
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(block);
+            out.flush();
+        }
+    }
+
+    @Override
+    public void write(final File file, final List<CacheAction> actions) throws IOException {
+        final byte[] content = encode(actions, true);
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+            out.flush();
+        }
+    }
+
+    private static ByteBuffer mapOrRead(final FileChannel channel, final long offset, final int size) throws IOException {
+        if (!OsUtil.isWindows()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+            // keep on reading
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static boolean hasValidHeader(final ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        final byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        return Arrays.equals(MAGIC, magic) && buffer.getShort() == VERSION;
+    }
+
+    /**
+     * @return {@code false} if the block is incomplete or corrupt
+     */
+    private static boolean readBlock(final ByteBuffer buffer, final Consumer<CacheAction> consumer) {
+        final int stringCount = buffer.getInt();
+        final int recordCount = buffer.getInt();
+        if (stringCount < 0 || recordCount < 0) {
+            return false;
+        }
+
+        final String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            if (buffer.remaining() < 4) {
+                return false;
+            }
+            final int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() < length) {
+                return false;
+            }
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, UTF_8);
+        }
+
+        if (buffer.remaining() < (long) recordCount * RECORD_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < recordCount; i++) {
+            final byte type = buffer.get();
+            final int accessCount = (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF);
+            final int id = buffer.getInt();
+            final int location = buffer.getInt();
+            final int version = buffer.getInt();
+            final long lastAccessed = buffer.getLong();
+            consumer.accept(decode(type, string(strings, id), string(strings, location), string(strings, version), lastAccessed, accessCount));
+        }
+        return true;
+    }
+
+    private static String string(final String[] strings, final int index) {
+        return index >= 0 && index < strings.length ? strings[index] : null;
+    }
+
+    private static CacheAction decode(final byte type, final String id, final String location, final String version, final long lastAccessed, final int accessCount) {
+        if (id == null || id.isEmpty()) {
+            return CacheAction.DO_NOTHING;
+        }
+        try {
+            switch (type) {
+                case TYPE_ADD:
+                    final VersionId versionId = version == null ? null : VersionId.fromString(version);
+                    final CacheKey key = new CacheKey(new URL(location), versionId);
+                    return CacheAction.createAddActionFor(new CacheIndexEntry(id, lastAccessed, key, accessCount));
+                case TYPE_REMOVE:
+                    return CacheAction.createRemoveActionFor(id);
+                case TYPE_ACCESS:
+                    return CacheAction.createAccessActionFor(id, lastAccessed, Math.max(1, accessCount));
+                default:
+                    LOG.debug("Encountered unknown action type {} in the cache index", type);
+                    return CacheAction.DO_NOTHING;
+            }
+        } catch (Exception e) {
+            LOG.debug("Exception while decoding entry {} of the cache index: {}", id, e.getMessage());
+            return CacheAction.DO_NOTHING;
+        }
+    }
+
+    private static byte[] encode(final List<CacheAction> actions, final boolean withHeader) throws IOException {
+        final Map<String, Integer> stringTable = new LinkedHashMap<>();
+        final ByteArrayOutputStream records = new ByteArrayOutputStream(actions.size() * RECORD_SIZE);
+        final DataOutputStream recordOut = new DataOutputStream(records);
+
+        int recordCount = 0;
+        for (CacheAction action : actions) {
+            final CacheIndexEntry entry = action.getEntry();
+            final byte type;
+            int location = NO_STRING;
+            int version = NO_STRING;
+            switch (action.getType()) {
+                case ADD:
+                    type = TYPE_ADD;
+                    location = indexOf(stringTable, entry.getResourceHref().toString());
+                    if (entry.getCacheKey().getVersion() != null) {
+                        version = indexOf(stringTable, entry.getCacheKey().getVersion().toString());
+                    }
+                    break;
+                case REMOVE:
+                    type = TYPE_REMOVE;
+                    break;
+                case UPDATE_ACCESS_TIME:
+                    type = TYPE_ACCESS;
+                    break;
+                default:
+                    continue;
+            }
+
+            final int accessCount = Math.min(MAX_ACCESS_COUNT, Math.max(0, entry.getAccessCount()));
+            recordOut.writeByte(type);
+            recordOut.writeByte(accessCount >>> 16);
+            recordOut.writeShort(accessCount);
+            recordOut.writeInt(indexOf(stringTable, entry.getId()));
+            recordOut.writeInt(location);
+            recordOut.writeInt(version);
+            recordOut.writeLong(entry.getLastAccessed());
+            recordCount++;
+        }
+        recordOut.flush();
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream(HEADER_SIZE + BLOCK_HEADER_SIZE + records.size() + stringTable.size() * 64);
+        final DataOutputStream out = new DataOutputStream(result);
+        if (withHeader) {
+            out.write(MAGIC);
+            out.writeShort(VERSION);
+        }
+        out.writeInt(stringTable.size());
+        out.writeInt(recordCount);
+        for (String s : stringTable.keySet()) {
+            final byte[] bytes = s.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        records.writeTo(out);
+        out.flush();
+        return result.toByteArray();
+    }
+
+    private static int indexOf(final Map<String, Integer> stringTable, final String s) {
+        return stringTable.computeIfAbsent(s, k -> stringTable.size());
+    }
+
+    @Override
+    public String toString() {
+        return "binary";
+    }
+}
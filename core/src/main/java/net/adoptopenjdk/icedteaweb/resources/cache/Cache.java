@@ -66,9 +66,56 @@ public class Cache {
         return CacheImpl.getInstance().getCacheFile(key);
     }
 
-    public static File addToCache(DownloadInfo infoFromRemote, InputStream unpackedStream) throws IOException {
+    /**
+     * Returns the file for data derived from a cached file, e.g. the signers of a cached jar.
+     * Derived files are kept when the cache is cleaned and are deleted together with the cache entry.
+     *
+     * @param cacheFile the cached file
+     * @param suffix    the suffix appended to the name of the cached file, starting with a dot
+     * @return the derived file, it may not exist
+     */
+    public static File getDerivedFile(final File cacheFile, final String suffix) {
+        return CacheImpl.getDerivedFile(cacheFile, suffix);
+    }
+
+    /**
+     * Writes the content of the stream into the cache.
+     *
+     * @param infoFromRemote the information about the downloaded resource
+     * @param unpackedStream the content to store in the cache
+     * @param expectedSize   the size of the content if it is stored as received from the server,
+     *                       a non-positive value if the size is unknown or the content has been unpacked
+     * @return the file location in the cache
+     * @throws IOException if the content could not be written into the cache
+     */
+    public static File addToCache(DownloadInfo infoFromRemote, InputStream unpackedStream, long expectedSize) throws IOException {
         assertLocationIsCacheable(infoFromRemote.getCacheKey().getLocation());
-        return CacheImpl.getInstance().addToCache(infoFromRemote, unpackedStream);
+        return CacheImpl.getInstance().addToCache(infoFromRemote, unpackedStream, expectedSize);
+    }
+
+    /**
+     * Moves a completely downloaded staging file into the cache.
+     *
+     * @param infoFromRemote the information about the downloaded resource
+     * @param stagedFile     the staging file, see {@link #createStagingFile()}
+     * @return the file location in the cache
+     * @throws IOException if the staging file could not be moved into the cache
+     */
+    public static File addToCache(DownloadInfo infoFromRemote, File stagedFile) throws IOException {
+        assertLocationIsCacheable(infoFromRemote.getCacheKey().getLocation());
+        return CacheImpl.getInstance().addToCache(infoFromRemote, stagedFile);
+    }
+
+    /**
+     * Creates a new temporary file on the same file system as the cache.
+     * Content can be downloaded into this file and later be moved into the cache
+     * by calling {@link #addToCache(DownloadInfo, File)}.
+     *
+     * @return a new empty staging file
+     * @throws IOException if the file could not be created
+     */
+    public static File createStagingFile() throws IOException {
+        return CacheImpl.getInstance().createStagingFile();
     }
 
     /**
@@ -24,19 +24,27 @@ class CacheAction {
     private static final String LOCATION_PREFIX = "l=";
     private static final String VERSION_PREFIX = "v=";
     private static final String ACCESS_TIME_PREFIX = "a=";
+    private static final String ACCESS_COUNT_PREFIX = "c=";
 
-    static final CacheAction DO_NOTHING = new CacheAction(NOOP, null, null, -1);
+    static final CacheAction DO_NOTHING = new CacheAction(NOOP, null, null, -1, 0);
 
     static CacheAction createAddActionFor(final CacheIndexEntry entry) {
-        return new CacheAction(ADD, entry.getId(), entry.getCacheKey(), entry.getLastAccessed());
+        return new CacheAction(ADD, entry.getId(), entry.getCacheKey(), entry.getLastAccessed(), entry.getAccessCount());
     }
 
     static CacheAction createAccessActionFor(final String id, final long lastAccessed) {
-        return new CacheAction(UPDATE_ACCESS_TIME, id, null, lastAccessed);
+        return createAccessActionFor(id, lastAccessed, 1);
+    }
+
+    /**
+     * @param accesses the number of accesses, the last one at the given time
+     */
+    static CacheAction createAccessActionFor(final String id, final long lastAccessed, final int accesses) {
+        return new CacheAction(UPDATE_ACCESS_TIME, id, null, lastAccessed, accesses);
     }
 
     static CacheAction createRemoveActionFor(final String id) {
-        return new CacheAction(REMOVE, id, null, -1);
+        return new CacheAction(REMOVE, id, null, -1, 0);
     }
 
     static CacheAction parse(final String line) {
@@ -56,6 +64,7 @@ class CacheAction {
             URL location = null;
             VersionId version = null;
             long access = -1;
+            int count = -1;
 
             final String[] parts = line.split(DELIMITER);
             final int numParts = parts.length;
@@ -102,15 +111,23 @@ class CacheAction {
                         logger.debug("Exception while extracting access time {}", e.getMessage());
                         return DO_NOTHING;
                     }
+                } else if (part.startsWith(ACCESS_COUNT_PREFIX)) {
+                    try {
+                        count = Integer.parseInt(part.substring(2));
+                    } catch (Exception e) {
+                        logger.debug("Exception while extracting access count {}", e.getMessage());
+                        return DO_NOTHING;
+                    }
                 }
             }
             if (access > -1 && !isBlank(id)) {
                 if (location != null) {
                     final CacheKey key = new CacheKey(location, version);
-                    return createAddActionFor(new CacheIndexEntry(id, access, key));
+                    return createAddActionFor(new CacheIndexEntry(id, access, key, Math.max(0, count)));
                 }
                 if (version == null) {
-                    return createAccessActionFor(id, access);
+                    // lines written before the accesses have been counted stand for a single access
+                    return createAccessActionFor(id, access, count < 0 ? 1 : count);
                 }
             }
         }
@@ -128,9 +145,17 @@ class CacheAction {
     private final ActionType type;
     private final CacheIndexEntry entry;
 
-    private CacheAction(final ActionType type, final String id, final CacheKey key, final long lastAccessed) {
+    private CacheAction(final ActionType type, final String id, final CacheKey key, final long lastAccessed, final int accessCount) {
         this.type = type;
-        this.entry = new CacheIndexEntry(id, lastAccessed, key);
+        this.entry = new CacheIndexEntry(id, lastAccessed, key, accessCount);
+    }
+
+    ActionType getType() {
+        return type;
+    }
+
+    CacheIndexEntry getEntry() {
+        return entry;
     }
 
     boolean applyTo(CacheIndexEntries entries) {
@@ -140,7 +165,7 @@ class CacheAction {
             case REMOVE:
                 return entries.removeEntry(entry);
             case UPDATE_ACCESS_TIME:
-                return entries.markAccessed(entry, entry.getLastAccessed());
+                return entries.markAccessed(entry, entry.getLastAccessed(), entry.getAccessCount());
             default:
                 return false;
         }
@@ -151,21 +176,25 @@ class CacheAction {
             case ADD:
                 final CacheKey key = entry.getCacheKey();
                 final String version = key.getVersion() == null ? null : VERSION_PREFIX + escapeDelimiter(key.getVersion());
+                final String addedCount = entry.getAccessCount() == 0 ? null : ACCESS_COUNT_PREFIX + entry.getAccessCount();
                 return Stream.of(
                                 ID_PREFIX + entry.getId(),
                                 LOCATION_PREFIX + escapeDelimiter(key.getLocation()),
                                 version,
-                                ACCESS_TIME_PREFIX + entry.getLastAccessed()
+                                ACCESS_TIME_PREFIX + entry.getLastAccessed(),
+                                addedCount
                         )
                         .filter(Objects::nonNull)
                         .collect(Collectors.joining(DELIMITER, DELIMITER, DELIMITER));
             case REMOVE:
                 return "!" + entry.getId() + "!";
             case UPDATE_ACCESS_TIME:
+                final String accessCount = entry.getAccessCount() == 1 ? null : ACCESS_COUNT_PREFIX + entry.getAccessCount();
                 return Stream.of(
                         ID_PREFIX + entry.getId(),
-                        ACCESS_TIME_PREFIX + entry.getLastAccessed()
-                ).collect(Collectors.joining(DELIMITER, DELIMITER, DELIMITER));
+                        ACCESS_TIME_PREFIX + entry.getLastAccessed(),
+                        accessCount
+                ).filter(Objects::nonNull).collect(Collectors.joining(DELIMITER, DELIMITER, DELIMITER));
             default:
                 throw new IllegalStateException("Cannot serialize action of type " + type);
         }
@@ -0,0 +1,64 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
+
+import java.io.File;
+
+/**
+ * Hands out the directories for new cache entries.
+ * <p>
+ * The directories are numbered slots laid out in two levels: slot {@code n} is the directory
+ * {@code n / 250} / {@code n % 250}. The first level is not limited, thus the number of cache
+ * entries is not limited either.
+ * <p>
+ * Instead of probing all directories from the start, the allocator continues where the last
+ * allocation ended and skips the slots which are used by an entry of the index. Only when the
+ * allocated slots are sparse compared to the number of entries the search starts over
+ * to reuse the slots of removed entries.
+ * <p>
+ * Must only be called while holding the lock of the index.
+ */
+class CacheDirAllocator {
+
+    static final int SLOTS_PER_DIR = 250;
+
+    private final InfrastructureFileDescriptor rootDir;
+
+    /**
+     * the slot where the search for a free slot starts
+     */
+    private long nextSlot = 0;
+
+    CacheDirAllocator(InfrastructureFileDescriptor rootDir) {
+        this.rootDir = rootDir;
+    }
+
+    File allocate(CacheIndex idx) {
+        if (nextSlot > 2L * idx.size() + SLOTS_PER_DIR) {
+            // more than half of the slots below are free - reuse them
+            nextSlot = 0;
+        }
+
+        while (true) {
+            final long slot = nextSlot++;
+            final String entryId = entryIdOf(slot);
+            if (idx.containsId(entryId)) {
+                continue;
+            }
+
+            final File dir = new File(rootDir.getFullPath(), entryId);
+            if (dir.exists()) {
+                // left over from an entry which is no longer in the index
+                continue;
+            }
+            if (dir.mkdirs()) {
+                return dir;
+            }
+            throw new RuntimeException("Cannot create directory " + dir);
+        }
+    }
+
+    static String entryIdOf(long slot) {
+        return (slot / SLOTS_PER_DIR) + File.separator + (slot % SLOTS_PER_DIR);
+    }
+}
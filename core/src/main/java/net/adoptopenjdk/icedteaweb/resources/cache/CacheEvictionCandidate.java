@@ -0,0 +1,40 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+/**
+ * A cache entry together with the information needed by a {@link CacheEvictionPolicy}.
+ */
+class CacheEvictionCandidate {
+
+    private final CacheIndexEntry entry;
+    private final long size;
+
+    CacheEvictionCandidate(CacheIndexEntry entry, long size) {
+        this.entry = entry;
+        this.size = size;
+    }
+
+    CacheIndexEntry getEntry() {
+        return entry;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    int getAccessCount() {
+        return entry.getAccessCount();
+    }
+
+    long getLastAccessed() {
+        return entry.getLastAccessed();
+    }
+
+    String getDomain() {
+        return entry.getDomain();
+    }
+
+    @Override
+    public String toString() {
+        return entry.getResourceHref() + " (" + size + " bytes, " + entry.getAccessCount() + " accesses)";
+    }
+}
@@ -0,0 +1,59 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import java.util.Comparator;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.comparingLong;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.CACHE_EVICTION_POLICY_LFU;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.CACHE_EVICTION_POLICY_SIZE_WEIGHTED;
+
+/**
+ * Decides which cache entries are evicted first when the cache has grown too large.
+ */
+interface CacheEvictionPolicy {
+
+    /**
+     * Evicts the entry which has not been accessed for the longest time first.
+     */
+    CacheEvictionPolicy LEAST_RECENTLY_USED = now -> comparingLong(CacheEvictionCandidate::getLastAccessed);
+
+    /**
+     * Evicts the entry with the fewest accesses recorded in the index first.
+     * Entries with the same number of accesses are evicted in least recently used order.
+     */
+    CacheEvictionPolicy LEAST_FREQUENTLY_USED = now -> comparingInt(CacheEvictionCandidate::getAccessCount)
+            .thenComparing(LEAST_RECENTLY_USED.evictionOrder(now));
+
+    /**
+     * Evicts large entries which have not been accessed for a long time first.
+     * The weight of an entry is its size multiplied by the time since its last access.
+     */
+    CacheEvictionPolicy SIZE_WEIGHTED = now -> comparingDouble((CacheEvictionCandidate c) -> -weight(c, now))
+            .thenComparing(LEAST_RECENTLY_USED.evictionOrder(now));
+
+    /**
+     * @param configuredPolicy the value of the deployment property for the eviction policy
+     * @return the policy matching the configured value - defaults to {@link #LEAST_RECENTLY_USED}
+     */
+    static CacheEvictionPolicy fromConfiguration(final String configuredPolicy) {
+        if (CACHE_EVICTION_POLICY_LFU.equalsIgnoreCase(configuredPolicy)) {
+            return LEAST_FREQUENTLY_USED;
+        }
+        if (CACHE_EVICTION_POLICY_SIZE_WEIGHTED.equalsIgnoreCase(configuredPolicy)) {
+            return SIZE_WEIGHTED;
+        }
+        return LEAST_RECENTLY_USED;
+    }
+
+    static double weight(final CacheEvictionCandidate candidate, final long now) {
+        final long age = Math.max(1, now - candidate.getLastAccessed());
+        return (double) candidate.getSize() * age;
+    }
+
+    /**
+     * @param now the current time in milliseconds
+     * @return a comparator which sorts the candidate to evict first to the front
+     */
+    Comparator<CacheEvictionCandidate> evictionOrder(long now);
+}
@@ -0,0 +1,351 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createSingletonDaemonThreadPool;
+
+/**
+ * Keeps track of the total size of the cache and evicts entries in the background
+ * as soon as the size exceeds the high-water mark.
+ * <p>
+ * The size of an entry includes the files derived from its cache file and is kept in memory. The total
+ * size is updated incrementally when entries are added to or removed from the cache by this JVM. As derived
+ * files are written after an entry has been added, every eviction run determines the sizes of the entries
+ * used by this JVM again. Changes done by other JVMs are picked up whenever an eviction run compares the
+ * tracked entries with the index, which determines the sizes of the entries not tracked yet.
+ * <p>
+ * An eviction run removes entries in the order given by the {@link CacheEvictionPolicy} until
+ * the cache size is below the low-water mark and no domain exceeds its quota. Entries which have
+ * been used by this JVM or have been accessed recently (and thus may be used by another JVM)
+ * are never evicted in the background. Like cleaning the cache, an eviction run only deletes entries
+ * while no other JVM is running javaws. Otherwise the entries are evicted when the cache is cleaned on exit.
+ */
+class CacheEvictor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheEvictor.class);
+
+    /**
+     * entries accessed within this period may be in use by another JVM.
+     */
+    private static final long RECENT_ACCESS_PROTECTION = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * no eviction is scheduled within this period after an eviction run has not been allowed to delete entries.
+     */
+    private static final long REFUSED_EVICTION_BACKOFF = TimeUnit.MINUTES.toMillis(1);
+
+    private final CacheIndexHolder cacheIndex;
+    private final ToLongFunction<CacheIndexEntry> entrySize;
+    private final Consumer<CacheIndexEntry> fileDeleter;
+    private final BooleanSupplier deletionAllowed;
+
+    private final CacheEvictionPolicy policy;
+    private final long highWaterMark;
+    private final long lowWaterMark;
+    private final long domainQuota;
+
+    private final Map<String, TrackedEntry> trackedById = new ConcurrentHashMap<>();
+    private final Map<String, Long> sizeByDomain = new ConcurrentHashMap<>();
+    private final AtomicLong totalSize = new AtomicLong();
+    private final Set<String> usedIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+    private final AtomicLong evictedEntries = new AtomicLong();
+    private final AtomicLong evictedBytes = new AtomicLong();
+    private volatile boolean initialized = false;
+    private volatile long evictionRefusedAt;
+
+    private ExecutorService executor;
+
+    /**
+     * @param maxSize       maximum size of the cache in bytes - negative for unlimited
+     * @param highWaterMark percentage of the maximum size which triggers an eviction
+     * @param lowWaterMark  percentage of the maximum size an eviction reduces the cache to
+     * @param domainQuota   maximum size of all entries of a single domain in bytes - negative for unlimited
+     * @param deletionAllowed tells whether entries may be deleted now, i.e. no other JVM is using the cache
+     */
+    CacheEvictor(final CacheIndexHolder cacheIndex, final ToLongFunction<CacheIndexEntry> entrySize, final Consumer<CacheIndexEntry> fileDeleter,
+                 final BooleanSupplier deletionAllowed, final CacheEvictionPolicy policy, final long maxSize, final int highWaterMark, final int lowWaterMark, final long domainQuota) {
+        this.cacheIndex = cacheIndex;
+        this.entrySize = entrySize;
+        this.fileDeleter = fileDeleter;
+        this.deletionAllowed = deletionAllowed;
+        this.policy = policy;
+        this.highWaterMark = maxSize < 0 ? -1 : maxSize * highWaterMark / 100;
+        this.lowWaterMark = maxSize < 0 ? -1 : maxSize * Math.min(lowWaterMark, highWaterMark) / 100;
+        this.domainQuota = domainQuota;
+    }
+
+    CacheEvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    long getDomainQuota() {
+        return domainQuota;
+    }
+
+    /**
+     * Remembers that the entry is used by this JVM.
+     */
+    void recordAccess(final CacheIndexEntry entry) {
+        usedIds.add(entry.getId());
+    }
+
+    void entryAdded(final CacheIndexEntry entry, final long size) {
+        recordAccess(entry);
+        track(entry, size);
+        scheduleEvictionIfRequired(entry.getDomain());
+    }
+
+    void entryRemoved(final CacheIndexEntry entry) {
+        untrack(entry.getId());
+        usedIds.remove(entry.getId());
+    }
+
+    void cleared() {
+        trackedById.clear();
+        sizeByDomain.clear();
+        totalSize.set(0);
+    }
+
+    long getTotalSize() {
+        return totalSize.get();
+    }
+
+    long getEvictedEntryCount() {
+        return evictedEntries.get();
+    }
+
+    long getEvictedBytes() {
+        return evictedBytes.get();
+    }
+
+    boolean isUsed(final CacheIndexEntry entry) {
+        return usedIds.contains(entry.getId());
+    }
+
+    /**
+     * Compares the tracked entries with the index and evicts entries if the cache is too large.
+     *
+     * @return the evicted entries
+     */
+    List<CacheIndexEntry> evict() {
+        // derived files of the used entries may have been written since they have been tracked
+        for (String id : usedIds) {
+            final TrackedEntry tracked = trackedById.get(id);
+            if (tracked != null) {
+                track(tracked.entry, entrySize.applyAsLong(tracked.entry));
+            }
+        }
+        initialized = true;
+
+        final long now = System.currentTimeMillis();
+        final List<CacheIndexEntry> victims = cacheIndex.getSynchronized(idx -> {
+            final List<CacheIndexEntry> entries = idx.getAllEntries();
+            synchronizeWithIndex(entries);
+            if (!isEvictionRequired()) {
+                return Collections.<CacheIndexEntry>emptyList();
+            }
+            if (!deletionAllowed.getAsBoolean()) {
+                LOG.debug("Entries are not evicted while other instances of javaws are running");
+                evictionRefusedAt = now;
+                return Collections.<CacheIndexEntry>emptyList();
+            }
+
+            final List<CacheEvictionCandidate> candidates = entries.stream()
+                    .map(entry -> new CacheEvictionCandidate(entry, sizeOf(entry)))
+                    .collect(Collectors.toList());
+            final List<CacheIndexEntry> result = selectVictims(candidates, policy, lowWaterMark, domainQuota, c -> isInUse(c, now), now).stream()
+                    .map(CacheEvictionCandidate::getEntry)
+                    .collect(Collectors.toList());
+            result.forEach(idx::removeEntry);
+            return result;
+        });
+
+        long freed = 0;
+        for (CacheIndexEntry victim : victims) {
+            freed += sizeOf(victim);
+            entryRemoved(victim);
+            fileDeleter.accept(victim);
+        }
+
+        if (!victims.isEmpty()) {
+            evictedEntries.addAndGet(victims.size());
+            evictedBytes.addAndGet(freed);
+            LOG.debug("Evicted {} entries ({} bytes) from the cache - the cache now has a size of {} bytes", victims.size(), freed, totalSize.get());
+        }
+        return victims;
+    }
+
+    /**
+     * Selects the entries to evict such that the remaining entries do not exceed the target size and the domain quota.
+     * The entries are considered in reverse eviction order and kept as long as they fit.
+     *
+     * @param candidates  all entries of the cache
+     * @param targetSize  the maximum size of the remaining entries - negative for unlimited
+     * @param domainQuota the maximum size of the remaining entries of a single domain - negative for unlimited
+     * @param isProtected entries which must not be evicted, their size counts against the limits nonetheless
+     * @return the entries to evict in eviction order
+     */
+    static List<CacheEvictionCandidate> selectVictims(final List<CacheEvictionCandidate> candidates, final CacheEvictionPolicy policy,
+                                                      final long targetSize, final long domainQuota,
+                                                      final Predicate<CacheEvictionCandidate> isProtected, final long now) {
+        long keptSize = 0;
+        final Map<String, Long> keptSizeByDomain = new HashMap<>();
+        final List<CacheEvictionCandidate> evictable = new ArrayList<>();
+        for (CacheEvictionCandidate candidate : candidates) {
+            if (isProtected.test(candidate)) {
+                keptSize += candidate.getSize();
+                keptSizeByDomain.merge(domainOf(candidate), candidate.getSize(), Long::sum);
+            } else {
+                evictable.add(candidate);
+            }
+        }
+
+        evictable.sort(policy.evictionOrder(now).reversed());
+
+        final List<CacheEvictionCandidate> victims = new ArrayList<>();
+        for (CacheEvictionCandidate candidate : evictable) {
+            final long size = candidate.getSize();
+            final long domainSize = keptSizeByDomain.getOrDefault(domainOf(candidate), 0L);
+            final boolean fitsTotal = targetSize < 0 || keptSize + size <= targetSize;
+            final boolean fitsDomain = domainQuota < 0 || domainSize + size <= domainQuota;
+            if (fitsTotal && fitsDomain) {
+                keptSize += size;
+                keptSizeByDomain.put(domainOf(candidate), domainSize + size);
+            } else {
+                victims.add(candidate);
+            }
+        }
+
+        Collections.reverse(victims);
+        return victims;
+    }
+
+    private boolean isInUse(final CacheEvictionCandidate candidate, final long now) {
+        return usedIds.contains(candidate.getEntry().getId())
+                || now - candidate.getLastAccessed() < RECENT_ACCESS_PROTECTION;
+    }
+
+    private boolean isEvictionRequired() {
+        if (highWaterMark >= 0 && totalSize.get() > highWaterMark) {
+            return true;
+        }
+        return domainQuota >= 0 && sizeByDomain.values().stream().anyMatch(size -> size > domainQuota);
+    }
+
+    private void scheduleEvictionIfRequired(final String domain) {
+        if (highWaterMark < 0 && domainQuota < 0) {
+            return;
+        }
+
+        final boolean aboveHighWaterMark = highWaterMark >= 0 && totalSize.get() > highWaterMark;
+        final boolean aboveDomainQuota = domainQuota >= 0 && sizeByDomain.getOrDefault(domainKey(domain), 0L) > domainQuota;
+        if (initialized && !aboveHighWaterMark && !aboveDomainQuota) {
+            return;
+        }
+        if (System.currentTimeMillis() - evictionRefusedAt < REFUSED_EVICTION_BACKOFF) {
+            return;
+        }
+
+        if (evictionScheduled.compareAndSet(false, true)) {
+            getExecutor().execute(() -> {
+                evictionScheduled.set(false);
+                try {
+                    evict();
+                } catch (Exception e) {
+                    LOG.error("Failed to evict entries from the cache", e);
+                }
+            });
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = createSingletonDaemonThreadPool();
+        }
+        return executor;
+    }
+
+    private void synchronizeWithIndex(final List<CacheIndexEntry> entries) {
+        final Set<String> idsInIndex = new HashSet<>();
+        for (CacheIndexEntry entry : entries) {
+            idsInIndex.add(entry.getId());
+            if (!trackedById.containsKey(entry.getId())) {
+                track(entry, entrySize.applyAsLong(entry));
+            }
+        }
+
+        if (trackedById.size() > idsInIndex.size()) {
+            // entries removed by another JVM
+            for (String id : new ArrayList<>(trackedById.keySet())) {
+                if (!idsInIndex.contains(id)) {
+                    untrack(id);
+                }
+            }
+        }
+    }
+
+    private long sizeOf(final CacheIndexEntry entry) {
+        final TrackedEntry tracked = trackedById.get(entry.getId());
+        return tracked == null ? 0 : tracked.size;
+    }
+
+    private void track(final CacheIndexEntry entry, final long size) {
+        final String domain = domainKey(entry.getDomain());
+        final TrackedEntry previous = trackedById.put(entry.getId(), new TrackedEntry(entry, domain, size));
+        if (previous != null) {
+            totalSize.addAndGet(-previous.size);
+            sizeByDomain.merge(previous.domain, -previous.size, Long::sum);
+        }
+        totalSize.addAndGet(size);
+        sizeByDomain.merge(domain, size, Long::sum);
+    }
+
+    private void untrack(final String id) {
+        final TrackedEntry previous = trackedById.remove(id);
+        if (previous != null) {
+            totalSize.addAndGet(-previous.size);
+            sizeByDomain.merge(previous.domain, -previous.size, Long::sum);
+        }
+    }
+
+    private static String domainOf(final CacheEvictionCandidate candidate) {
+        return domainKey(candidate.getDomain());
+    }
+
+    private static String domainKey(final String domain) {
+        return domain == null ? "" : domain;
+    }
+
+    private static class TrackedEntry {
+        private final CacheIndexEntry entry;
+        private final String domain;
+        private final long size;
+
+        private TrackedEntry(final CacheIndexEntry entry, final String domain, final long size) {
+            this.entry = entry;
+            this.domain = domain;
+            this.size = size;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.os.OsUtil;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
 import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
 import net.sourceforge.jnlp.config.PathsAndFiles;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
@@ -58,6 +59,7 @@ import java.io.OutputStream;
 import java.net.URL;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -70,6 +72,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -87,26 +90,48 @@ class CacheImpl {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheImpl.class);
 
+    private static final String STAGING_FILE_PREFIX = "staging-";
+    private static final String STAGING_FILE_SUFFIX = ".tmp";
+
     static CacheImpl getInstance() {
         return CacheHolder.INSTANCE;
     }
 
     private final CacheIndexHolder cacheIndex;
     private final InfrastructureFileDescriptor rootCacheDir;
+    private final DeferredAccessTimeWriter deferredAccessTimeWriter;
+    private final CacheEvictor evictor;
+    private final ContentAddressedStore contentStore;
+    private final CacheDirAllocator dirAllocator;
+
+    /**
+     * Entries which have been looked up while access times are written deferred. They are found
+     * again without locking and reloading the cache index as long as the index file is unchanged.
+     */
+    private final Map<CacheKey, KnownEntry> knownEntries = new ConcurrentHashMap<>();
 
     /**
      * @param recentlyUsed file to be used as recently_used file
      * @param cacheDir     dir with cache
      */
     private CacheImpl(final InfrastructureFileDescriptor recentlyUsed, final InfrastructureFileDescriptor cacheDir) {
-        this.cacheIndex = new CacheIndexHolder(recentlyUsed);
+        this.cacheIndex = new CacheIndexHolder(recentlyUsed, getConfiguredIndexFormat());
         this.rootCacheDir = cacheDir;
+        this.deferredAccessTimeWriter = createDeferredAccessTimeWriter(cacheIndex);
+        this.evictor = createEvictor();
+        this.contentStore = createContentAddressedStore(cacheDir);
+        this.dirAllocator = new CacheDirAllocator(cacheDir);
     }
 
     File getCacheFile(CacheKey key) {
-        final CacheIndexEntry entry = cacheIndex.getSynchronized(idx ->
-                getCacheEntry(idx, key)
-        );
+        final CacheIndexEntry entry;
+        if (deferredAccessTimeWriter != null) {
+            entry = findKnownEntry(key);
+            deferredAccessTimeWriter.recordAccess(entry, System.currentTimeMillis());
+        } else {
+            entry = cacheIndex.getSynchronized(idx -> getCacheEntry(idx, key));
+        }
+        evictor.recordAccess(entry);
 
         if (!getInfoFile(entry).isCached()) {
             throw new RuntimeException("Accessing incomplete file " + key);
@@ -115,12 +140,35 @@ class CacheImpl {
         return getCacheFile(entry);
     }
 
+    private CacheIndexEntry findKnownEntry(CacheKey key) {
+        final KnownEntry known = knownEntries.get(key);
+        // another JVM may have replaced or deleted the entry since it has been looked up
+        if (known != null && known.indexFileState.equals(cacheIndex.getIndexFileState()) && getCacheFile(known.entry).isFile()) {
+            return known.entry;
+        }
+
+        final KnownEntry found = cacheIndex.getSynchronized(idx -> {
+            final CacheIndexEntry entry = idx.findEntry(key)
+                    .orElseThrow(() -> new RuntimeException("Could not find entry for " + key));
+            // the index file is not changed by a lookup and by no one else while it is locked
+            return new KnownEntry(entry, cacheIndex.getIndexFileState());
+        });
+        if (found.indexFileState != null) {
+            knownEntries.put(key, found);
+        }
+        return found.entry;
+    }
+
+    private void forgetKnownEntry(CacheIndexEntry entry) {
+        knownEntries.computeIfPresent(entry.getCacheKey(), (key, known) -> known.entry.equals(entry) ? null : known);
+    }
+
     private CacheIndexEntry getCacheEntry(CacheIndex idx, CacheKey key) {
         return idx.findAndMarkAsAccessed(key)
                 .orElseThrow(() -> new RuntimeException("Could not find entry for " + key));
     }
 
-    File addToCache(DownloadInfo info, InputStream inputStream) throws IOException {
+    File addToCache(DownloadInfo info, InputStream inputStream, long expectedSize) throws IOException {
         final List<IOException> ex = new ArrayList<>();
 
         final CacheIndexEntry entry = cacheIndex.getSynchronized(idx -> createCacheEntry(idx, info.getCacheKey()));
@@ -129,10 +177,16 @@ class CacheImpl {
         final File cacheFile = infoFile.getCacheFile();
         try {
             LOG.debug("Downloading file: {} into: {}", info.getCacheKey().getLocation(), cacheFile.getCanonicalPath());
-            try (final OutputStream out = new FileOutputStream(cacheFile)) {
-                IOUtils.copy(inputStream, out);
+            if (expectedSize > 0) {
+                IOUtils.copy(inputStream, cacheFile, expectedSize);
+            } else {
+                try (final OutputStream out = new FileOutputStream(cacheFile)) {
+                    IOUtils.copy(inputStream, out);
+                }
             }
+            deduplicate(cacheFile);
             infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length());
+            evictor.entryAdded(entry, sizeOfEntry(cacheFile));
         } catch (IOException e) {
             ex.add(e);
         }
@@ -144,27 +198,45 @@ class CacheImpl {
         return cacheFile;
     }
 
-    private CacheIndexEntry createCacheEntry(CacheIndex idx, CacheKey key) {
-        final File dir = makeNewCacheDir();
-        createInfoFile(dir);
-        return idx.createEntry(key, entryIdFromCacheDir(dir));
+    File addToCache(DownloadInfo info, File stagedFile) throws IOException {
+        final CacheIndexEntry entry = cacheIndex.getSynchronized(idx -> createCacheEntry(idx, info.getCacheKey()));
+
+        final CachedFile infoFile = getInfoFile(entry);
+        final File cacheFile = infoFile.getCacheFile();
+        LOG.debug("Moving staged file of {} into: {}", info.getCacheKey().getLocation(), cacheFile.getCanonicalPath());
+        FileUtils.moveInPlace(stagedFile, cacheFile);
+        deduplicate(cacheFile);
+        infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length());
+        evictor.entryAdded(entry, sizeOfEntry(cacheFile));
+
+        return cacheFile;
     }
 
-    private File makeNewCacheDir() {
-        final String cacheDirPath = rootCacheDir.getFullPath();
-        for (int i = 0; i < 250; i++) {
-            for (int j = 0; j < 250; j++) {
-                String path = cacheDirPath + File.separator + i + File.separator + j;
-                File cDir = new File(path);
-                if (!cDir.exists()) {
-                    if (cDir.mkdirs()) {
-                        return cDir;
-                    }
-                    throw new RuntimeException("Cannot create directory " + cDir);
-                }
+    /**
+     * Shares the storage of the file with other cache entries of identical content.
+     */
+    private void deduplicate(File cacheFile) {
+        if (contentStore != null) {
+            try {
+                contentStore.store(cacheFile);
+            } catch (IOException e) {
+                LOG.debug("Could not deduplicate {}: {}", cacheFile, e.getMessage());
             }
         }
-        throw new RuntimeException("Out of directories :-)");
+    }
+
+    File createStagingFile() throws IOException {
+        final File dir = rootCacheDir.getFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create cache directory " + dir);
+        }
+        return File.createTempFile(STAGING_FILE_PREFIX, STAGING_FILE_SUFFIX, dir);
+    }
+
+    private CacheIndexEntry createCacheEntry(CacheIndex idx, CacheKey key) {
+        final File dir = dirAllocator.allocate(idx);
+        createInfoFile(dir);
+        return idx.createEntry(key, entryIdFromCacheDir(dir));
     }
 
     private void createInfoFile(File dir) {
@@ -287,6 +359,7 @@ class CacheImpl {
     }
 
     void invalidateExistingCacheFile(final CacheKey key) {
+        knownEntries.remove(key);
         cacheIndex.runSynchronized(idx -> idx.removeEntry(key));
     }
 
@@ -339,6 +412,9 @@ class CacheImpl {
     }
 
     private void deleteFilesFromCache(CacheIndexEntry entry) {
+        forgetKnownEntry(entry);
+        evictor.entryRemoved(entry);
+
         final File cacheFile = getCacheFile(entry);
         final File directory = cacheFile.getParentFile();
 
@@ -374,6 +450,8 @@ class CacheImpl {
             deleteAll(dir.listFiles(File::isDirectory));
             idx.clear();
         });
+        knownEntries.clear();
+        evictor.cleared();
 
         if (OsUtil.isWindows()) {
             WindowsShortcutManager.removeWindowsShortcuts("ALL");
@@ -415,16 +493,20 @@ class CacheImpl {
      */
     void cleanCache() {
         LOG.debug("preparing to cleanup the cache");
+        flushDeferredAccessTimes();
 
         if (cannotClearCache()) {
             return;
         }
 
         LOG.debug("cleanup cache");
-        final File[] levelOneDirs = rootCacheDir.getFile().listFiles(File::isDirectory);
+        deleteStagingFiles();
+
+        final File[] levelOneDirs = rootCacheDir.getFile().listFiles(file -> file.isDirectory() && !isBlobDir(file));
         if (isNullOrEmpty(levelOneDirs)) {
             LOG.debug("found no folders in the cache dir - clear cache index");
             cacheIndex.runSynchronized(CacheIndex::clear);
+            knownEntries.clear();
         } else {
             LOG.debug("start cleaning the cache");
             final Set<String> entryIdsFromFileSystem = collectAllEntryIdsFromFileSystem(levelOneDirs);
@@ -433,7 +515,7 @@ class CacheImpl {
                 idx.requestCompression();
 
                 final long maxSize = getMaxSizeInBytes();
-                long curSize = 0;
+                final List<CacheEvictionCandidate> candidates = new ArrayList<>();
 
                 final List<CacheIndexEntry> toRemoveFromIndex = new ArrayList<>();
                 for (CacheIndexEntry entry : idx.getAllEntries()) {
@@ -457,29 +539,30 @@ class CacheImpl {
                         continue;
                     }
 
-                    final long size = cacheFile.length();
-                    if (maxSize >= 0 && curSize + size > maxSize) {
-                        LOG.debug("Current cache size is {} - file {} has size {} and would exceed max cache size {}",
-                                curSize, entry.getResourceHref(), size, maxSize);
-                        toRemoveFromIndex.add(entry);
-                        deleteDir(directory);
-                        continue;
-                    }
-
                     final File[] cacheDirFiles = directory.listFiles();
                     if (!isNullOrEmpty(cacheDirFiles)) {
                         for (File file : cacheDirFiles) {
-                            if (!file.equals(cacheFile) && !file.getName().equals(CachedFile.INFO_SUFFIX)) {
+                            if (!file.equals(cacheFile) && !file.getName().equals(CachedFile.INFO_SUFFIX) && !isDerivedFile(file, cacheFile)) {
                                 LOG.debug("found unknown file {}", file);
                                 deleteDir(file);
                             }
                         }
                     }
 
-                    curSize += size;
+                    candidates.add(new CacheEvictionCandidate(entry, sizeOfEntry(cacheFile)));
+                }
+
+                final List<CacheEvictionCandidate> victims = CacheEvictor.selectVictims(candidates, evictor.getPolicy(),
+                        maxSize, evictor.getDomainQuota(), candidate -> false, System.currentTimeMillis());
+                for (CacheEvictionCandidate victim : victims) {
+                    LOG.debug("Evicting {} to not exceed max cache size {}", victim, maxSize);
+                    toRemoveFromIndex.add(victim.getEntry());
+                    deleteDir(getCacheFile(victim.getEntry()).getParentFile());
                 }
 
                 toRemoveFromIndex.forEach(idx::removeEntry);
+                toRemoveFromIndex.forEach(evictor::entryRemoved);
+                toRemoveFromIndex.forEach(this::forgetKnownEntry);
             });
 
             // delete dirs with no entry in the least recently used index
@@ -501,9 +584,20 @@ class CacheImpl {
                 deleteAll(emptyDirs);
             }
         }
+        if (contentStore != null) {
+            contentStore.collectGarbage();
+        }
         LOG.debug("done cleaning the cache");
     }
 
+    private void deleteStagingFiles() {
+        final File[] stagingFiles = rootCacheDir.getFile().listFiles((dir, name) -> name.startsWith(STAGING_FILE_PREFIX) && name.endsWith(STAGING_FILE_SUFFIX));
+        if (!isNullOrEmpty(stagingFiles)) {
+            LOG.debug("found left over staging files");
+            deleteAll(stagingFiles);
+        }
+    }
+
     private Set<String> collectAllEntryIdsFromFileSystem(File[] levelOneDirs) {
         final Set<String> entryIds = new HashSet<>();
         for (File levelOneDir : levelOneDirs) {
@@ -520,6 +614,150 @@ class CacheImpl {
         return entryIds;
     }
 
+    /**
+     * Writes access times which have been collected in memory to the cache index.
+     */
+    private void flushDeferredAccessTimes() {
+        if (deferredAccessTimeWriter != null) {
+            deferredAccessTimeWriter.flush();
+        }
+    }
+
+    /**
+     * Files named after the cache file, e.g. "app.jar.native", hold data derived from the cache file.
+     * They are kept as long as the cache entry exists and are deleted together with it.
+     */
+    static File getDerivedFile(File cacheFile, String suffix) {
+        if (!suffix.startsWith(".")) {
+            throw new IllegalArgumentException("Suffix of derived file must start with a dot: " + suffix);
+        }
+        return new File(cacheFile.getPath() + suffix);
+    }
+
+    private static boolean isDerivedFile(File file, File cacheFile) {
+        return file.getName().startsWith(cacheFile.getName() + ".");
+    }
+
+    /**
+     * @return the size of the cache file together with all files derived from it, a cache file sharing
+     * its storage with other entries only accounts for its share
+     */
+    static long sizeOfEntry(File cacheFile) {
+        long size = ContentAddressedStore.sharedLength(cacheFile);
+        final File[] derivedFiles = cacheFile.getParentFile().listFiles(file -> isDerivedFile(file, cacheFile));
+        if (derivedFiles != null) {
+            for (File derivedFile : derivedFiles) {
+                size += sizeOf(derivedFile);
+            }
+        }
+        return size;
+    }
+
+    private static long sizeOf(File file) {
+        if (!file.isDirectory()) {
+            return file.length();
+        }
+        long size = 0;
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                size += sizeOf(child);
+            }
+        }
+        return size;
+    }
+
+    private boolean isBlobDir(File file) {
+        return contentStore != null && contentStore.isBlobDir(file);
+    }
+
+    private static ContentAddressedStore createContentAddressedStore(final InfrastructureFileDescriptor cacheDir) {
+        try {
+            final boolean enabled = Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_CACHE_DEDUPLICATION));
+            if (!enabled) {
+                return null;
+            }
+
+            final File rootDir = cacheDir.getFile();
+            File existingDir = rootDir;
+            while (existingDir != null && !existingDir.isDirectory()) {
+                existingDir = existingDir.getParentFile();
+            }
+            if (existingDir == null || !ContentAddressedStore.isSupported(existingDir)) {
+                LOG.warn("Deduplication of the cache is not supported by the file system of {}", rootDir);
+                return null;
+            }
+            LOG.debug("Files with identical content are stored only once in the cache");
+            return new ContentAddressedStore(rootDir);
+        } catch (Exception e) {
+            LOG.debug("Could not determine if the cache should be deduplicated: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CacheEvictor createEvictor() {
+        CacheEvictionPolicy policy = CacheEvictionPolicy.LEAST_RECENTLY_USED;
+        long highWaterMark = ConfigurationConstants.DEFAULT_CACHE_EVICTION_HIGH_WATER_MARK;
+        long lowWaterMark = ConfigurationConstants.DEFAULT_CACHE_EVICTION_LOW_WATER_MARK;
+        long domainQuotaInMegaBytes = -1;
+        try {
+            final DeploymentConfiguration config = JNLPRuntime.getConfiguration();
+            policy = CacheEvictionPolicy.fromConfiguration(config.getProperty(ConfigurationConstants.KEY_CACHE_EVICTION_POLICY));
+            highWaterMark = parseLong(config.getProperty(ConfigurationConstants.KEY_CACHE_EVICTION_HIGH_WATER_MARK), highWaterMark);
+            lowWaterMark = parseLong(config.getProperty(ConfigurationConstants.KEY_CACHE_EVICTION_LOW_WATER_MARK), lowWaterMark);
+            domainQuotaInMegaBytes = parseLong(config.getProperty(ConfigurationConstants.KEY_CACHE_EVICTION_DOMAIN_QUOTA), -1);
+        } catch (Exception e) {
+            LOG.debug("Could not determine the eviction settings of the cache: {}", e.getMessage());
+        }
+
+        final long maxSize = getMaxSizeInBytes();
+        final long domainQuota = domainQuotaInMegaBytes < 0 ? -1 : domainQuotaInMegaBytes << 20;
+        LOG.debug("Cache eviction: max size {} bytes, high-water mark {}%, low-water mark {}%, domain quota {} bytes",
+                maxSize, highWaterMark, lowWaterMark, domainQuota);
+        return new CacheEvictor(cacheIndex, entry -> sizeOfEntry(getCacheFile(entry)), this::deleteFilesFromCache, this::okToClearCache,
+                policy, maxSize, (int) highWaterMark, (int) lowWaterMark, domainQuota);
+    }
+
+    private static CacheIndexFormat getConfiguredIndexFormat() {
+        try {
+            final CacheIndexFormat format = CacheIndexFormat.fromConfiguration(
+                    JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_CACHE_INDEX_FORMAT));
+            LOG.debug("Using the {} cache index format", format);
+            return format;
+        } catch (Exception e) {
+            LOG.debug("Could not determine the format of the cache index: {}", e.getMessage());
+            return CacheIndexFormat.TEXT;
+        }
+    }
+
+    private static DeferredAccessTimeWriter createDeferredAccessTimeWriter(final CacheIndexHolder cacheIndex) {
+        try {
+            final DeploymentConfiguration config = JNLPRuntime.getConfiguration();
+            final String policy = config.getProperty(ConfigurationConstants.KEY_CACHE_ACCESS_TIME_FLUSH_POLICY);
+            if (!ConfigurationConstants.CACHE_ACCESS_TIME_FLUSH_DEFERRED.equalsIgnoreCase(policy)) {
+                return null;
+            }
+
+            final long interval = parseLong(config.getProperty(ConfigurationConstants.KEY_CACHE_ACCESS_TIME_FLUSH_INTERVAL),
+                    ConfigurationConstants.DEFAULT_CACHE_ACCESS_TIME_FLUSH_INTERVAL);
+            final long threshold = parseLong(config.getProperty(ConfigurationConstants.KEY_CACHE_ACCESS_TIME_FLUSH_THRESHOLD),
+                    ConfigurationConstants.DEFAULT_CACHE_ACCESS_TIME_FLUSH_THRESHOLD);
+            LOG.debug("Access times of cache entries are written deferred (interval: {} ms, threshold: {})", interval, threshold);
+            return new DeferredAccessTimeWriter(cacheIndex, interval, (int) threshold);
+        } catch (Exception e) {
+            LOG.debug("Could not determine the flush policy of the cache access times: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long parseLong(final String value, final long defaultValue) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+            return defaultValue;
+        }
+    }
+
     @SuppressWarnings("ConstantConditions")
     private long getMaxSizeInBytes() {
         try {
@@ -609,6 +847,10 @@ class CacheImpl {
                 LOG.info("No instance file found");
                 return true;
             }
+        } catch (OverlappingFileLockException e) {
+            // the eviction in the background runs while this JVM holds the shared lock
+            LOG.info("This instance of javaws is running");
+            return false;
         } catch (IOException e) {
             LOG.error("Failed to lock MAIN_LOCK (" + PathsAndFiles.MAIN_LOCK.getFullPath() + ")", e);
             return false;
@@ -623,6 +865,19 @@ class CacheImpl {
         }
     }
 
+    /**
+     * An entry of the index and the state of the index file when it has been looked up.
+     */
+    private static class KnownEntry {
+        private final CacheIndexEntry entry;
+        private final CacheIndexHolder.IndexFileState indexFileState;
+
+        private KnownEntry(CacheIndexEntry entry, CacheIndexHolder.IndexFileState indexFileState) {
+            this.entry = entry;
+            this.indexFileState = indexFileState;
+        }
+    }
+
     private static class CacheHolder {
         private static final CacheImpl INSTANCE = new CacheImpl(PathsAndFiles.getRecentlyUsedFile(), PathsAndFiles.CACHE_DIR);
     }
@@ -6,7 +6,6 @@ import java.net.URL;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Index of the cached resources.
@@ -28,9 +27,7 @@ class CacheIndex {
      * @return the entry found or {@code empty}, never {@code null}.
      */
     Optional<CacheIndexEntry> findEntry(CacheKey key) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(key))
-                .findFirst();
+        return cacheFile.findEntry(key);
     }
 
     /**
@@ -52,9 +49,7 @@ class CacheIndex {
      * @return a set of all matching entries, never {@code null}.
      */
     Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(resourceHref))
-                .collect(Collectors.toSet());
+        return cacheFile.findAllEntries(resourceHref);
     }
 
     /**
@@ -63,9 +58,7 @@ class CacheIndex {
      * @return a set of all matching entries, never {@code null}.
      */
     Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(resourceHref, versionString))
-                .collect(Collectors.toSet());
+        return cacheFile.findAllEntries(resourceHref, versionString);
     }
 
     /**
@@ -75,6 +68,20 @@ class CacheIndex {
         return cacheFile.getAllEntries();
     }
 
+    /**
+     * @return the number of entries
+     */
+    int size() {
+        return cacheFile.size();
+    }
+
+    /**
+     * @return true if an entry with the given id exists
+     */
+    boolean containsId(String entryId) {
+        return cacheFile.containsId(entryId);
+    }
+
     /**
      * Create a new entry.
      *
@@ -112,8 +119,22 @@ class CacheIndex {
         cacheFile.clear();
     }
 
+    /**
+     * Marks the entry as accessed at the given time.
+     */
+    void markAccessed(CacheIndexEntry entry, long lastAccessed) {
+        cacheFile.markAccessed(entry, lastAccessed);
+    }
+
+    /**
+     * Marks the entry as accessed several times, the last time at the given time.
+     */
+    void markAccessed(CacheIndexEntry entry, long lastAccessed, int accesses) {
+        cacheFile.markAccessed(entry, lastAccessed, accesses);
+    }
+
     private void markAccessed(CacheIndexEntry entry) {
         final long now = System.currentTimeMillis();
-        cacheFile.markAccessed(entry, now);
+        markAccessed(entry, now);
     }
 }
@@ -1,23 +1,95 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.sourceforge.jnlp.util.UrlKey;
+
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.sort;
 
+/**
+ * In memory representation of the cache index.
+ * <p>
+ * The entries are kept in a map ordered from least to most recently accessed.
+ * Marking an entry as accessed with the current time moves it to the end of this map in constant time.
+ * Only if an entry is added or accessed with a time older than the most recently accessed entry,
+ * the order has to be restored by sorting which is done lazily.
+ * <p>
+ * Additionally the entries are indexed by their resource location which allows finding
+ * all entries of a resource (and a given version) without scanning the whole index.
+ */
 class CacheIndexEntries {
 
-    private final List<CacheIndexEntry> entries = new ArrayList<>();
-    private final List<CacheIndexEntry> unmodifiableEntries = Collections.unmodifiableList(entries);
+    private final LinkedHashMap<String, CacheIndexEntry> entriesById = new LinkedHashMap<>();
+    private final Map<UrlKey, List<CacheIndexEntry>> entriesByLocation = new HashMap<>();
+
+    private long mostRecentAccess = Long.MIN_VALUE;
+    private boolean sorted = true;
+
+    /**
+     * most recently accessed entry first, {@code null} if the entries changed since the last call.
+     */
+    private List<CacheIndexEntry> snapshot;
 
     List<CacheIndexEntry> getAllEntries() {
-        return unmodifiableEntries;
+        if (snapshot == null) {
+            sortByLastAccessed();
+            final List<CacheIndexEntry> result = new ArrayList<>(entriesById.values());
+            Collections.reverse(result);
+            snapshot = Collections.unmodifiableList(result);
+        }
+        return snapshot;
     }
 
     Stream<CacheIndexEntry> stream() {
-        return entries.stream();
+        return getAllEntries().stream();
+    }
+
+    /**
+     * Finds the most recently accessed entry with the given key.
+     */
+    Optional<CacheIndexEntry> findEntry(CacheKey key) {
+        CacheIndexEntry result = null;
+        for (CacheIndexEntry entry : entriesAt(key.getLocation())) {
+            if (entry.matches(key) && (result == null || entry.getLastAccessed() >= result.getLastAccessed())) {
+                result = entry;
+            }
+        }
+        return Optional.ofNullable(result);
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
+        return new HashSet<>(entriesAt(resourceHref));
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
+        final Set<CacheIndexEntry> result = new HashSet<>();
+        for (CacheIndexEntry entry : entriesAt(resourceHref)) {
+            if (entry.matches(resourceHref, versionString)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return entriesById.size();
+    }
+
+    boolean containsId(String id) {
+        return entriesById.containsKey(id);
     }
 
     boolean apply(CacheAction action) {
@@ -25,34 +97,115 @@ class CacheIndexEntries {
     }
 
     boolean addEntry(CacheIndexEntry entry) {
-        entries.add(0, entry);
+        final CacheIndexEntry old = entriesById.remove(entry.getId());
+        if (old != null) {
+            removeFromLocationIndex(old);
+        }
+        append(entry);
+        entriesByLocation.computeIfAbsent(locationKey(entry), k -> new ArrayList<>(1)).add(entry);
         return true;
     }
 
     boolean markAccessed(CacheIndexEntry entry, long lastAccessed) {
-        final int idx = entries.indexOf(entry);
-        if (idx > -1) {
-            final CacheIndexEntry old = entries.remove(idx);
-            CacheIndexEntry accessedEntry = new CacheIndexEntry(old.getId(), lastAccessed, old.getCacheKey());
-            entries.add(0, accessedEntry);
+        return markAccessed(entry, lastAccessed, 1);
+    }
+
+    boolean markAccessed(CacheIndexEntry entry, long lastAccessed, int accesses) {
+        final CacheIndexEntry old = entriesById.remove(entry.getId());
+        if (old == null) {
+            return false;
         }
-        return idx > -1;
+
+        final int accessCount = (int) Math.min(Integer.MAX_VALUE, (long) old.getAccessCount() + accesses);
+        final CacheIndexEntry accessedEntry = new CacheIndexEntry(old.getId(), lastAccessed, old.getCacheKey(), accessCount);
+        append(accessedEntry);
+
+        final List<CacheIndexEntry> sameLocation = entriesByLocation.get(locationKey(old));
+        sameLocation.set(sameLocation.indexOf(old), accessedEntry);
+        return true;
     }
 
     boolean removeEntry(CacheIndexEntry entry) {
-        return entries.remove(entry);
+        final CacheIndexEntry old = entriesById.remove(entry.getId());
+        if (old == null) {
+            return false;
+        }
+        removeFromLocationIndex(old);
+        snapshot = null;
+        return true;
     }
 
     boolean clear() {
-        if (entries.isEmpty()) {
+        if (entriesById.isEmpty()) {
             return false;
         }
 
-        entries.clear();
+        entriesById.clear();
+        entriesByLocation.clear();
+        mostRecentAccess = Long.MIN_VALUE;
+        sorted = true;
+        snapshot = null;
         return true;
     }
 
+    /**
+     * Restores the least recently accessed order if it was broken by an out of order access time.
+     */
     void sortByLastAccessed() {
+        if (sorted) {
+            return;
+        }
+
+        // the entries are stored least recently accessed first
+        final List<CacheIndexEntry> entries = new ArrayList<>(entriesById.values());
+        Collections.reverse(entries);
         sort(entries);
+        Collections.reverse(entries);
+
+        entriesById.clear();
+        for (CacheIndexEntry entry : entries) {
+            entriesById.put(entry.getId(), entry);
+        }
+        mostRecentAccess = entries.isEmpty() ? Long.MIN_VALUE : entries.get(entries.size() - 1).getLastAccessed();
+        sorted = true;
+        snapshot = null;
+    }
+
+    private void append(CacheIndexEntry entry) {
+        entriesById.put(entry.getId(), entry);
+        if (entry.getLastAccessed() >= mostRecentAccess) {
+            mostRecentAccess = entry.getLastAccessed();
+        } else {
+            sorted = false;
+        }
+        snapshot = null;
+    }
+
+    private void removeFromLocationIndex(CacheIndexEntry entry) {
+        final UrlKey locationKey = locationKey(entry);
+        final List<CacheIndexEntry> sameLocation = entriesByLocation.get(locationKey);
+        if (sameLocation != null) {
+            final Iterator<CacheIndexEntry> iterator = sameLocation.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getId().equals(entry.getId())) {
+                    iterator.remove();
+                    break;
+                }
+            }
+            if (sameLocation.isEmpty()) {
+                entriesByLocation.remove(locationKey);
+            }
+        }
+    }
+
+    private List<CacheIndexEntry> entriesAt(URL resourceHref) {
+        if (resourceHref == null) {
+            return emptyList();
+        }
+        return entriesByLocation.getOrDefault(new UrlKey(resourceHref), emptyList());
+    }
+
+    private static UrlKey locationKey(CacheIndexEntry entry) {
+        return new UrlKey(entry.getResourceHref());
     }
 }
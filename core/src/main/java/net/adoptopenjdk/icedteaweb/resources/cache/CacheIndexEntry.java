@@ -12,13 +12,19 @@ import java.util.Objects;
 class CacheIndexEntry implements Comparable<CacheIndexEntry> {
     private final String id;
     private final long lastAccessed;
+    private final int accessCount;
 
     private final CacheKey key;
 
     CacheIndexEntry(String id, long lastAccessed, CacheKey key) {
+        this(id, lastAccessed, key, 0);
+    }
+
+    CacheIndexEntry(String id, long lastAccessed, CacheKey key, int accessCount) {
         this.id = id;
         this.lastAccessed = lastAccessed;
         this.key = key;
+        this.accessCount = accessCount;
     }
 
     String getId() {
@@ -49,6 +55,13 @@ class CacheIndexEntry implements Comparable<CacheIndexEntry> {
         return lastAccessed;
     }
 
+    /**
+     * @return how often the entry has been accessed by any JVM since it has been added to the index.
+     */
+    int getAccessCount() {
+        return accessCount;
+    }
+
     boolean matches(URL resource) {
         return key.matches(resource);
     }
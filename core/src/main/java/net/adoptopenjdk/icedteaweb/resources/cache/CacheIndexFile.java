@@ -1,19 +1,21 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import net.adoptopenjdk.icedteaweb.lockingfile.LockableFile;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static net.adoptopenjdk.icedteaweb.Assert.requireNonNull;
-import static net.adoptopenjdk.icedteaweb.io.FileUtils.loadFileAsUtf8String;
 import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createAccessActionFor;
 import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createAddActionFor;
 import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createRemoveActionFor;
@@ -27,9 +29,10 @@ import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createRemo
  */
 class CacheIndexFile {
 
-    private static final String LINE_END = "\\R";
+    private static final int FINGERPRINT_PART_LENGTH = 64;
 
     private final LockableFile lockableFile;
+    private final CacheIndexFormat format;
 
     private final List<CacheAction> unsavedActions = new ArrayList<>();
 
@@ -39,14 +42,29 @@ class CacheIndexFile {
     private long lastLoadOrStore = -1;
     private boolean requestCompression = false;
 
+    /**
+     * number of bytes of the file which are reflected in the entries
+     */
+    private long loadedLength = 0;
+
+    /**
+     * the first and last bytes of the loaded part of the file, used to detect if the file has been compacted
+     */
+    private byte[] loadedFingerprint = new byte[0];
+
     private final CacheIndexEntries entries = new CacheIndexEntries();
 
     CacheIndexFile(File file) {
-        this(LockableFile.getInstance(file));
+        this(file, CacheIndexFormat.TEXT);
+    }
+
+    CacheIndexFile(File file, CacheIndexFormat format) {
+        this(LockableFile.getInstance(file), format);
     }
 
-    CacheIndexFile(LockableFile lockableFile) {
+    CacheIndexFile(LockableFile lockableFile, CacheIndexFormat format) {
         this.lockableFile = requireNonNull(lockableFile, "lockableFile");
+        this.format = requireNonNull(format, "format");
     }
 
     boolean usesFile(final File file) {
@@ -54,28 +72,55 @@ class CacheIndexFile {
     }
 
     List<CacheIndexEntry> getAllEntries() {
+        return loadedEntries().getAllEntries();
+    }
+
+    Optional<CacheIndexEntry> findEntry(CacheKey key) {
+        return loadedEntries().findEntry(key);
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
+        return loadedEntries().findAllEntries(resourceHref);
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
+        return loadedEntries().findAllEntries(resourceHref, versionString);
+    }
+
+    int size() {
+        return loadedEntries().size();
+    }
+
+    boolean containsId(String id) {
+        return loadedEntries().containsId(id);
+    }
+
+    private CacheIndexEntries loadedEntries() {
         if (hasNeverBeenLoaded()) {
             throw new IllegalStateException("Cannot access entries before loading the file");
         }
-        return entries.getAllEntries();
+        return entries;
     }
 
     void addEntry(CacheIndexEntry entry) {
-        applyAndSort(createAddActionFor(entry));
+        apply(createAddActionFor(entry));
     }
 
     void markAccessed(CacheIndexEntry entry, long lastAccessed) {
-        applyAndSort(createAccessActionFor(entry.getId(), lastAccessed));
+        markAccessed(entry, lastAccessed, 1);
+    }
+
+    void markAccessed(CacheIndexEntry entry, long lastAccessed, int accesses) {
+        apply(createAccessActionFor(entry.getId(), lastAccessed, accesses));
     }
 
     void removeEntry(CacheIndexEntry entry) {
-        applyAndSort(createRemoveActionFor(entry.getId()));
+        apply(createRemoveActionFor(entry.getId()));
     }
 
-    private void applyAndSort(CacheAction action) {
+    private void apply(CacheAction action) {
         if (entries.apply(action)) {
             unsavedActions.add(action);
-            entries.sortByLastAccessed();
         }
     }
 
@@ -103,16 +148,17 @@ class CacheIndexFile {
         // in such a case one can only see a difference in between lastModified and lastLoadOrStore if at least one second has passed.
         if (hasNeverBeenLoaded() || hasBeenModifiedSinceLastLoadOrStore || almostNoTimeHasPassedSinceLastModification) {
 
-            final String content = loadFileAsUtf8String(file);
-            final String[] lines = content.split(LINE_END);
-
-            entries.clear();
-            Stream.of(lines)
-                    .map(CacheAction::parse)
-                    .forEach(entries::apply);
+            if (hasNeverBeenLoaded() || !isContinuationOfLoadedContent(file)) {
+                // the file has been compacted since the last load - start from scratch
+                entries.clear();
+                loadedLength = format.read(file, 0, entries::apply);
+            } else {
+                // the file is an append only log in between compactions - only read what has been appended
+                loadedLength = format.read(file, loadedLength, entries::apply);
+            }
+            loadedFingerprint = readFingerprint(file, loadedLength);
 
             lastLoadOrStore = lastModified;
-            entries.sortByLastAccessed();
         }
     }
 
@@ -136,17 +182,9 @@ class CacheIndexFile {
     }
 
     private void appendUnsavedActionsToFile() throws IOException {
-        final byte[] changes = unsavedActions.stream()
-                .map(CacheAction::serialize)
-                .collect(Collectors.joining("\n"))
-                .concat("\n")
-                .getBytes(UTF_8);
-
-        try (FileOutputStream out = new FileOutputStream(lockableFile.getFile(), true)) {
-            out.write(changes);
-            out.flush();
-        }
+        format.append(lockableFile.getFile(), unsavedActions);
 
+        rememberStoredLength();
         lastLoadOrStore = System.currentTimeMillis();
         unsavedActions.clear();
     }
@@ -156,23 +194,55 @@ class CacheIndexFile {
             throw new IllegalStateException("Cannot save compacted cache file when not locked");
         }
 
-        final byte[] content = entries.stream()
+        final List<CacheAction> content = entries.stream()
                 .map(CacheAction::createAddActionFor)
-                .map(CacheAction::serialize)
-                .collect(Collectors.joining("\n"))
-                .concat("\n")
-                .getBytes(UTF_8);
-
-        try (FileOutputStream out = new FileOutputStream(lockableFile.getFile())) {
-            out.write(content);
-            out.flush();
-        }
+                .collect(Collectors.toList());
 
+        format.write(lockableFile.getFile(), content);
+
+        rememberStoredLength();
         lastLoadOrStore = System.currentTimeMillis();
         requestCompression = false;
         unsavedActions.clear();
     }
 
+    /**
+     * The file is locked while it is loaded and stored.
+     * Thus the stored file contains exactly the loaded content and the unsaved actions.
+     */
+    private void rememberStoredLength() throws IOException {
+        final File file = lockableFile.getFile();
+        loadedLength = file.length();
+        loadedFingerprint = readFingerprint(file, loadedLength);
+    }
+
+    /**
+     * Checks if the part of the file which has already been loaded is unchanged.
+     * A compaction rewrites the file from the beginning which either makes it shorter
+     * or changes the bytes at the start and the end of the loaded part.
+     */
+    private boolean isContinuationOfLoadedContent(File file) throws IOException {
+        return file.length() >= loadedLength && Arrays.equals(loadedFingerprint, readFingerprint(file, loadedLength));
+    }
+
+    private static byte[] readFingerprint(File file, long length) throws IOException {
+        if (length <= 2 * FINGERPRINT_PART_LENGTH) {
+            final byte[] result = new byte[(int) length];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.readFully(result);
+            }
+            return result;
+        }
+
+        final byte[] result = new byte[2 * FINGERPRINT_PART_LENGTH];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(result, 0, FINGERPRINT_PART_LENGTH);
+            raf.seek(length - FINGERPRINT_PART_LENGTH);
+            raf.readFully(result, FINGERPRINT_PART_LENGTH, FINGERPRINT_PART_LENGTH);
+        }
+        return result;
+    }
+
     void lock() throws IOException {
         lockableFile.lock();
     }
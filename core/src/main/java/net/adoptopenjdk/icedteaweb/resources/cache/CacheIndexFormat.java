@@ -0,0 +1,53 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static net.sourceforge.jnlp.config.ConfigurationConstants.CACHE_INDEX_FORMAT_BINARY;
+
+/**
+ * The on disk format of the cache index file.
+ * <p>
+ * The index file is a log of {@link CacheAction}s. New actions are appended to the end of the file.
+ * From time to time the file is compacted which replaces the content with one add action per entry.
+ * As the file is only appended to in between compactions, it can be read incrementally.
+ */
+interface CacheIndexFormat {
+
+    CacheIndexFormat TEXT = new TextCacheIndexFormat();
+    CacheIndexFormat BINARY = new BinaryCacheIndexFormat();
+
+    /**
+     * @param configuredFormat the value of the deployment property for the index format
+     * @return the format matching the configured value - defaults to {@link #TEXT}
+     */
+    static CacheIndexFormat fromConfiguration(final String configuredFormat) {
+        return CACHE_INDEX_FORMAT_BINARY.equalsIgnoreCase(configuredFormat) ? BINARY : TEXT;
+    }
+
+    /**
+     * @return the name of the index file in the cache directory.
+     */
+    String getFileName();
+
+    /**
+     * Reads the actions stored in the file in the order they have been written.
+     * Only the part of the file starting at the given offset is read.
+     * The offset must either be 0 or a value previously returned by this method.
+     *
+     * @return the offset up to which the file has been consumed.
+     */
+    long read(File file, long offset, Consumer<CacheAction> consumer) throws IOException;
+
+    /**
+     * Appends the actions to the end of the file.
+     */
+    void append(File file, List<CacheAction> actions) throws IOException;
+
+    /**
+     * Replaces the content of the file with the actions.
+     */
+    void write(File file, List<CacheAction> actions) throws IOException;
+}
@@ -8,7 +8,10 @@ import net.sourceforge.jnlp.util.RestrictedFileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -23,12 +26,21 @@ class CacheIndexHolder {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheIndexHolder.class);
 
+    private static final String MIGRATION_SUFFIX = ".migrating";
+
     private final InfrastructureFileDescriptor recentlyUsed;
+    /** The configured format unless the index of the other format could not be migrated. */
+    private volatile CacheIndexFormat format;
 
     private CacheIndexFile cachedCacheFile;
 
     CacheIndexHolder(InfrastructureFileDescriptor recentlyUsed) {
+        this(recentlyUsed, CacheIndexFormat.TEXT);
+    }
+
+    CacheIndexHolder(InfrastructureFileDescriptor recentlyUsed, CacheIndexFormat format) {
         this.recentlyUsed = recentlyUsed;
+        this.format = format;
     }
 
     /**
@@ -59,6 +71,21 @@ class CacheIndexHolder {
         }
     }
 
+    /**
+     * Returns the state of the index file without locking the index. Every change of the index either
+     * appends to the file or compacts it, so the state changes whenever the index changes.
+     *
+     * @return the state of the index file or {@code null} if it cannot be read
+     */
+    IndexFileState getIndexFileState() {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(getIndexFile(format).toPath(), BasicFileAttributes.class);
+            return new IndexFileState(attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     /**
      * Lock the properties file to have exclusive access.
      */
@@ -114,26 +141,98 @@ class CacheIndexHolder {
      * @return the recentlyUsedPropertiesFile
      */
     private CacheIndexFile getCacheFile() {
-        final File underlyingFile = recentlyUsed.getFile();
+        File underlyingFile = getIndexFile(format);
+        if (!underlyingFile.exists() && getIndexFile(otherFormat()).isFile()) {
+            if (cachedCacheFile != null || !migrateIndexOfOtherFormat(underlyingFile)) {
+                // the index has been migrated by another process or could not be migrated
+                format = otherFormat();
+                underlyingFile = getIndexFile(format);
+                LOG.info("Using the {} cache index", format);
+            }
+        }
+
         if (!underlyingFile.exists()) {
             try {
                 FileUtils.createParentDir(underlyingFile);
                 RestrictedFileUtils.createRestrictedFile(underlyingFile);
-                cachedCacheFile = loadOldIndex();
+                cachedCacheFile = loadOldIndex(underlyingFile);
             } catch (IOException e) {
                 LOG.error("Error in creating recently used cache items file.", e);
             }
         }
 
         if (cachedCacheFile == null || !cachedCacheFile.usesFile(underlyingFile)) {
-            cachedCacheFile = new CacheIndexFile(underlyingFile);
+            cachedCacheFile = new CacheIndexFile(underlyingFile, format);
         }
         return cachedCacheFile;
     }
 
+    private CacheIndexFormat otherFormat() {
+        return format == CacheIndexFormat.TEXT ? CacheIndexFormat.BINARY : CacheIndexFormat.TEXT;
+    }
+
+    private File getIndexFile(CacheIndexFormat indexFormat) {
+        if (indexFormat == CacheIndexFormat.TEXT) {
+            return recentlyUsed.getFile();
+        }
+        return new File(recentlyUsed.getFile().getParentFile(), indexFormat.getFileName());
+    }
+
+    /**
+     * Migrates the entries of an index which has been written in a different format than the configured one.
+     * The migrated index is written to a temporary file which is moved in place before the other index is
+     * deleted, so the entries are never lost if the migration fails.
+     *
+     * @return {@code true} if the index has been migrated
+     */
+    private boolean migrateIndexOfOtherFormat(File underlyingFile) {
+        final CacheIndexFormat otherFormat = otherFormat();
+        final File otherIndex = getIndexFile(otherFormat);
+        final File migratedIndex = new File(underlyingFile.getPath() + MIGRATION_SUFFIX);
+
+        final CacheIndexFile source = new CacheIndexFile(otherIndex, otherFormat);
+        try {
+            source.lock();
+            source.load();
+            final List<CacheIndexEntry> otherEntries = source.getAllEntries();
+
+            FileUtils.createParentDir(underlyingFile);
+            Files.deleteIfExists(migratedIndex.toPath());
+            RestrictedFileUtils.createRestrictedFile(migratedIndex);
+            final CacheIndexFile result = new CacheIndexFile(migratedIndex, format);
+            try {
+                result.lock();
+                result.load();
+                otherEntries.forEach(result::addEntry);
+                result.requestCompression();
+                result.persistChanges();
+            } finally {
+                result.unlock();
+            }
+
+            FileUtils.moveInPlace(migratedIndex, underlyingFile);
+            Files.delete(otherIndex.toPath());
+            LOG.info("Migrated {} entries from the {} cache index to the {} cache index", otherEntries.size(), otherFormat, format);
+            return true;
+        } catch (Exception e) {
+            LOG.error("Failed to migrate the " + otherFormat + " cache index", e);
+            return false;
+        } finally {
+            unlockQuietly(source);
+            migratedIndex.delete();
+        }
+    }
+
+    private void unlockQuietly(CacheIndexFile cacheFile) {
+        try {
+            cacheFile.unlock();
+        } catch (IOException e) {
+            LOG.debug("Failed to unlock cache file: {}", e.getMessage());
+        }
+    }
 
-    private CacheIndexFile loadOldIndex() {
-        final File cacheDir = recentlyUsed.getFile().getParentFile();
+    private CacheIndexFile loadOldIndex(File underlyingFile) {
+        final File cacheDir = underlyingFile.getParentFile();
         final File oldIndex = new File(cacheDir, OLD_CACHE_INDEX_FILE_NAME);
 
         if (!oldIndex.exists()) {
@@ -147,7 +246,7 @@ class CacheIndexHolder {
                 return null;
             }
 
-            final CacheIndexFile result = new CacheIndexFile(recentlyUsed.getFile());
+            final CacheIndexFile result = new CacheIndexFile(underlyingFile, format);
             try {
                 result.lock();
                 result.load();
@@ -169,4 +268,34 @@ class CacheIndexHolder {
     private String convertOldId(String id) {
         return id.replace('-', File.separatorChar);
     }
+
+    /**
+     * Length and last modification of the index file.
+     */
+    static final class IndexFileState {
+        private final long length;
+        private final long lastModified;
+
+        IndexFileState(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final IndexFileState that = (IndexFileState) o;
+            return length == that.length && lastModified == that.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(length, lastModified);
+        }
+    }
 }
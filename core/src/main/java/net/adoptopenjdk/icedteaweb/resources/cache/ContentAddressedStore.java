@@ -0,0 +1,177 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores files with identical content only once.
+ * <p>
+ * The content of a file is stored as blob named after its SHA-256 digest. The files in the cache
+ * entries are hard links to these blobs. Thus the number of links of a blob is its reference count:
+ * deleting a cache entry removes one link and a blob with no other link than its own name is garbage.
+ * <p>
+ * The store is only usable on file systems which support hard links and expose the link count.
+ * Cached files must never be modified in place as this would change the content of all links.
+ */
+class ContentAddressedStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    static final String BLOB_DIR_NAME = "blobs";
+
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+    private static final String LINK_SUFFIX = ".link";
+
+    private final File blobDir;
+
+    private final AtomicLong storedBlobs = new AtomicLong();
+    private final AtomicLong deduplicatedFiles = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    ContentAddressedStore(final File rootCacheDir) {
+        this.blobDir = new File(rootCacheDir, BLOB_DIR_NAME);
+    }
+
+    /**
+     * @return true if the file system of the directory supports hard links and exposes their count
+     */
+    static boolean isSupported(final File directory) {
+        try {
+            final Path path = directory.toPath();
+            return Files.getFileStore(path).supportsFileAttributeView("unix");
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    boolean isBlobDir(final File file) {
+        return blobDir.equals(file);
+    }
+
+    /**
+     * Links the given file to the blob with the same content.
+     * If no such blob exists yet the file becomes the blob.
+     *
+     * @return true if a blob with the same content already existed and the file now shares its storage
+     */
+    boolean store(final File file) throws IOException {
+        final String digest = FileUtils.getFileSHA256Sum(file);
+        final File blob = blobFile(digest);
+
+        if (!blob.isFile()) {
+            final File parent = blob.getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Cannot create blob directory " + parent);
+            }
+            try {
+                Files.createLink(blob.toPath(), file.toPath());
+                storedBlobs.incrementAndGet();
+                return false;
+            } catch (FileAlreadyExistsException e) {
+                LOG.debug("Blob {} has been stored concurrently", digest);
+            }
+        }
+
+        if (blob.length() != file.length()) {
+            LOG.warn("Blob {} has a size of {} bytes but the file {} has {} bytes - not linking", digest, blob.length(), file, file.length());
+            return false;
+        }
+
+        final Path link = new File(file.getParentFile(), file.getName() + LINK_SUFFIX).toPath();
+        Files.deleteIfExists(link);
+        Files.createLink(link, blob.toPath());
+        Files.move(link, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        deduplicatedFiles.incrementAndGet();
+        savedBytes.addAndGet(file.length());
+        LOG.debug("{} has the same content as blob {}", file, digest);
+        return true;
+    }
+
+    /**
+     * Deletes all blobs which are no longer linked from any cache entry.
+     *
+     * @return the number of deleted blobs
+     */
+    int collectGarbage() {
+        final File[] prefixDirs = blobDir.listFiles(File::isDirectory);
+        if (prefixDirs == null) {
+            return 0;
+        }
+
+        int deleted = 0;
+        for (File prefixDir : prefixDirs) {
+            final File[] blobs = prefixDir.listFiles(File::isFile);
+            if (blobs != null) {
+                for (File blob : blobs) {
+                    if (isUnreferenced(blob) && blob.delete()) {
+                        deleted++;
+                    }
+                }
+            }
+            final String[] remaining = prefixDir.list();
+            if (remaining != null && remaining.length == 0) {
+                prefixDir.delete();
+            }
+        }
+
+        if (deleted > 0) {
+            LOG.debug("Deleted {} unreferenced blobs", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns the share of a file in the storage used by all cache entries. A file which shares the
+     * storage of a blob with other cache entries accounts for an equal part of the blob, so the blob is
+     * counted once in the size of the cache.
+     *
+     * @return the length of the file divided by the number of cache entries linked to the same blob
+     */
+    static long sharedLength(final File file) {
+        final long length = file.length();
+        try {
+            final Object linkCount = Files.getAttribute(file.toPath(), LINK_COUNT_ATTRIBUTE);
+            // one of the links is the blob itself
+            final long entryLinks = linkCount instanceof Number ? ((Number) linkCount).longValue() - 1 : 1;
+            return entryLinks > 1 ? (length + entryLinks - 1) / entryLinks : length;
+        } catch (IOException | RuntimeException e) {
+            return length;
+        }
+    }
+
+    long getStoredBlobCount() {
+        return storedBlobs.get();
+    }
+
+    long getDeduplicatedFileCount() {
+        return deduplicatedFiles.get();
+    }
+
+    long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    private static boolean isUnreferenced(final File blob) {
+        try {
+            final Object linkCount = Files.getAttribute(blob.toPath(), LINK_COUNT_ATTRIBUTE);
+            return linkCount instanceof Number && ((Number) linkCount).intValue() <= 1;
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Cannot determine the link count of {}: {}", blob, e.getMessage());
+            return false;
+        }
+    }
+
+    private File blobFile(final String digest) {
+        return new File(new File(blobDir, digest.substring(0, 2)), digest.substring(2));
+    }
+}
@@ -0,0 +1,135 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createSingletonScheduledDaemonThreadPool;
+
+/**
+ * Collects the access times of cache entries in memory and writes them to the cache index in batches.
+ * <p>
+ * Multiple accesses of the same entry are coalesced into a single update which carries the number of accesses.
+ * The pending updates are written
+ * - periodically after the configured interval,
+ * - as soon as the number of pending entries reaches the configured threshold,
+ * - when {@link #flush()} is called explicitly and
+ * - when the JVM shuts down.
+ */
+class DeferredAccessTimeWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeferredAccessTimeWriter.class);
+
+    private final CacheIndexHolder cacheIndex;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+
+    private final Map<CacheIndexEntry, PendingAccess> pendingAccesses = new ConcurrentHashMap<>();
+
+    private final AtomicLong recordedAccesses = new AtomicLong();
+    private final AtomicLong writtenAccesses = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    DeferredAccessTimeWriter(final CacheIndexHolder cacheIndex, final long flushIntervalMillis, final int flushThreshold) {
+        this.cacheIndex = cacheIndex;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Records an access of the given entry. The access time is written to the cache index later.
+     */
+    void recordAccess(final CacheIndexEntry entry, final long accessTime) {
+        recordedAccesses.incrementAndGet();
+        pendingAccesses.merge(entry, new PendingAccess(accessTime, 1), PendingAccess::merge);
+
+        if (pendingAccesses.size() >= flushThreshold) {
+            flush();
+        } else {
+            startScheduler();
+        }
+    }
+
+    /**
+     * Writes all pending access times to the cache index in a single update.
+     */
+    synchronized void flush() {
+        if (pendingAccesses.isEmpty()) {
+            return;
+        }
+
+        final Map<CacheIndexEntry, PendingAccess> toWrite = new HashMap<>();
+        for (CacheIndexEntry entry : pendingAccesses.keySet()) {
+            final PendingAccess access = pendingAccesses.remove(entry);
+            if (access != null) {
+                toWrite.put(entry, access);
+            }
+        }
+
+        cacheIndex.runSynchronized(idx -> toWrite.forEach((entry, access) -> idx.markAccessed(entry, access.lastAccessed, access.count)));
+
+        final long written = writtenAccesses.addAndGet(toWrite.size());
+        final long flushCount = flushes.incrementAndGet();
+        LOG.debug("Wrote {} access times to the cache index (flushes: {}, recorded accesses: {}, written accesses: {})",
+                toWrite.size(), flushCount, recordedAccesses.get(), written);
+    }
+
+    long getRecordedAccessCount() {
+        return recordedAccesses.get();
+    }
+
+    long getWrittenAccessCount() {
+        return writtenAccesses.get();
+    }
+
+    long getFlushCount() {
+        return flushes.get();
+    }
+
+    int getPendingCount() {
+        return pendingAccesses.size();
+    }
+
+    private synchronized void startScheduler() {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = createSingletonScheduledDaemonThreadPool();
+        scheduler.scheduleWithFixedDelay(this::flushSilently, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushSilently, "CacheAccessTimeFlushThread"));
+    }
+
+    private void flushSilently() {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOG.error("Failed to write access times to the cache index", e);
+        }
+    }
+
+    /**
+     * The accesses of an entry which have not been written yet.
+     */
+    private static class PendingAccess {
+        private final long lastAccessed;
+        private final int count;
+
+        private PendingAccess(final long lastAccessed, final int count) {
+            this.lastAccessed = lastAccessed;
+            this.count = count;
+        }
+
+        private static PendingAccess merge(final PendingAccess a, final PendingAccess b) {
+            return new PendingAccess(Math.max(a.lastAccessed, b.lastAccessed), (int) Math.min(Integer.MAX_VALUE, (long) a.count + b.count));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.CACHE_INDEX_FILE_NAME;
+
+/**
+ * Human readable index format with one line per action.
+ *
+ * @see CacheAction#serialize()
+ * @see CacheAction#parse(String)
+ */
+class TextCacheIndexFormat implements CacheIndexFormat {
+
+    private static final String LINE_END = "\\R";
+
+    @Override
+    public String getFileName() {
+        return CACHE_INDEX_FILE_NAME;
+    }
+
+    @Override
+    public long read(final File file, final long offset, final Consumer<CacheAction> consumer) throws IOException {
+        final byte[] bytes;
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            final long available = channel.size() - offset;
+            if (available <= 0) {
+                return offset;
+            }
+            if (available > Integer.MAX_VALUE) {
+                throw new IOException("Cache index " + file + " is too large: " + channel.size() + " bytes");
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate((int) available);
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                // keep on reading
+            }
+            bytes = Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        Stream.of(new String(bytes, UTF_8).split(LINE_END))
+                .map(CacheAction::parse)
+                .forEach(consumer);
+        return offset + bytes.length;
+    }
+
+    @Override
+    public void append(final File file, final List<CacheAction> actions) throws IOException {
+        writeLines(file, actions, true);
+    }
+
+    @Override
+    public void write(final File file, final List<CacheAction> actions) throws IOException {
+        writeLines(file, actions, false);
+    }
+
+    private static void writeLines(final File file, final List<CacheAction> actions, final boolean append) throws IOException {
+        final byte[] content = actions.stream()
+                .map(CacheAction::serialize)
+                .collect(Collectors.joining("\n"))
+                .concat("\n")
+                .getBytes(UTF_8);
+
+        try (FileOutputStream out = new FileOutputStream(file, append)) {
+            out.write(content);
+            out.flush();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "text";
+    }
+}
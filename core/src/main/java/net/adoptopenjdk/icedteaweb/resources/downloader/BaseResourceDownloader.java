@@ -32,6 +32,9 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,21 +68,94 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
     @Override
     public Resource download() {
         downLoadExceptions.clear();
-        // TODO:
-        // would be nice if we could run the different urls in parallel.
-        // this would require to write content to temporary file and only on success move the file into the cache.
+        if (downloadUrls.size() > 1 && isParallelUrlDownloadEnabled()) {
+            return downloadInParallel();
+        }
         return downloadUrls.stream()
                 .map(this::downloadFrom)
                 .map(this::futureToOptional)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .findFirst()
-                .orElseGet(() -> {
-                    LOG.error("Could not download resource {} from any of theses urls {} {}", resource, downloadUrls, exceptionMessage());
-                    resource.setStatus(ERROR);
-                    checkForProxyError();
-                    return resource;
-                });
+                .orElseGet(this::downloadFailed);
+    }
+
+    private Resource downloadFailed() {
+        LOG.error("Could not download resource {} from any of theses urls {} {}", resource, downloadUrls, exceptionMessage());
+        resource.setStatus(ERROR);
+        checkForProxyError();
+        return resource;
+    }
+
+    private boolean isParallelUrlDownloadEnabled() {
+        return Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_PARALLEL_URL_DOWNLOAD));
+    }
+
+    /**
+     * Downloads the resource from all urls at the same time. Each download is written to a staging file.
+     * The first download which completes successfully is moved into the cache. All others are aborted.
+     */
+    private Resource downloadInParallel() {
+        LOG.debug("Will download {} in parallel from {}", resource, downloadUrls);
+        final List<StagedDownload> downloads = downloadUrls.stream()
+                .map(StagedDownload::new)
+                .collect(Collectors.toList());
+
+        final CompletableFuture<StagedDownload> winner = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(downloads.size());
+        final AtomicLong maxTransferred = new AtomicLong();
+        final Consumer<Long> progressListener = transferred -> {
+            if (transferred > maxTransferred.getAndAccumulate(transferred, Math::max)) {
+                resource.setTransferred(transferred);
+            }
+        };
+
+        for (final StagedDownload download : downloads) {
+            globalFixedThreadPool().execute(() -> {
+                try {
+                    tryStagedDownloading(download, progressListener);
+                    if (winner.complete(download)) {
+                        LOG.debug("Download from {} won the race for {}", download.getDownloadFrom(), resource);
+                        downloads.stream().filter(d -> d != download).forEach(StagedDownload::abort);
+                    } else {
+                        download.discard();
+                    }
+                } catch (Exception | Error e) {
+                    LOG.debug("staged download exception: {}", e.getMessage());
+                    download.discard();
+                    synchronized (downLoadExceptions) {
+                        downLoadExceptions.add(new ExecutionException(e));
+                    }
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        winner.completeExceptionally(new IOException("All downloads failed for " + resource));
+                    }
+                }
+            });
+        }
+
+        try {
+            return commitStagedDownload(winner.get());
+        } catch (InterruptedException e) {
+            downloads.forEach(StagedDownload::abort);
+            Thread.currentThread().interrupt();
+            return downloadFailed();
+        } catch (ExecutionException | IOException e) {
+            return downloadFailed();
+        }
+    }
+
+    private Resource commitStagedDownload(final StagedDownload download) throws IOException {
+        resource.setSize(download.getTotalSize());
+        if (download.isFromCache()) {
+            resource.setLocalFile(download.getCachedFile());
+        } else {
+            final File cacheFile = Cache.addToCache(download.getDownloadInfo(), download.getStagedFile());
+            resource.setLocalFile(cacheFile);
+        }
+        resource.setStatus(DOWNLOADED);
+        resource.setTransferred(download.getBytesTransferred());
+        return resource;
     }
 
     private String exceptionMessage() {
@@ -131,16 +207,45 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         return result;
     }
 
+    private void tryStagedDownloading(final StagedDownload download, final Consumer<Long> progressListener) throws IOException {
+        final URL downloadFrom = download.getDownloadFrom();
+        try (final CloseableConnection connection = getDownloadConnection(downloadFrom)) {
+            final DownloadDetails downloadDetails = getDownloadDetails(connection, progressListener);
+            assertNoServerError(downloadDetails);
+
+            final URL resourceHref = resource.getLocation();
+            final VersionId version = getVersion(downloadDetails.downloadFrom, downloadDetails.version);
+
+            if (isUpToDate(resourceHref, version, downloadDetails.lastModified)) {
+                download.completedFromCache(Cache.getCacheFile(resourceHref, version));
+                return;
+            }
+
+            final CountingInputStream countingInputStream = downloadDetails.inputStream;
+            final InputStream unpackedContent = unpack(downloadDetails, countingInputStream);
+
+            final long expectedBytes = downloadDetails.totalSize;
+            download.stage(countingInputStream, unpackedContent, Cache.createStagingFile(), expectedBytes);
+
+            final long actualBytes = countingInputStream.numBytesRead();
+            if (expectedBytes > 0 && expectedBytes > actualBytes) {
+                throw new IOException(String.format("Did read %d bytes from %s but expected %d", actualBytes, downloadFrom, expectedBytes));
+            }
+
+            final DownloadInfo downloadInfo = new DownloadInfo(resourceHref, version, downloadDetails.lastModified);
+            download.completed(downloadInfo, expectedBytes, actualBytes);
+        } catch (Exception ex) {
+            LOG.debug("Exception while downloading resource {} from {} - message: {} cause: {} ", resource, downloadFrom, ex.getMessage(), ex.getCause());
+            throw ex;
+        }
+    }
+
     private Resource tryDownloading(final URL downloadFrom) throws IOException {
         DownloadDetails downloadDetails = null;
         try (final CloseableConnection connection = getDownloadConnection(downloadFrom)) {
-            downloadDetails = getDownloadDetails(connection);
+            downloadDetails = getDownloadDetails(connection, resource::setTransferred);
 
-            if (downloadDetails.contentType != null && downloadDetails.contentType.startsWith(ERROR_MIME_TYPE)) {
-                final String serverResponse = StreamUtils.readStreamAsString(downloadDetails.inputStream);
-                LOG.debug("Server Error for {}", resource);
-                throw new RuntimeException("Server error: " + serverResponse);
-            }
+            assertNoServerError(downloadDetails);
 
             resource.setSize(downloadDetails.totalSize);
             final long bytesTransferred = tryDownloading(downloadDetails);
@@ -158,6 +263,14 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         }
     }
 
+    private void assertNoServerError(final DownloadDetails downloadDetails) throws IOException {
+        if (downloadDetails.contentType != null && downloadDetails.contentType.startsWith(ERROR_MIME_TYPE)) {
+            final String serverResponse = StreamUtils.readStreamAsString(downloadDetails.inputStream);
+            LOG.debug("Server Error for {}", resource);
+            throw new RuntimeException("Server error: " + serverResponse);
+        }
+    }
+
     private CloseableConnection getDownloadConnection(final URL location) throws IOException {
         final Map<String, String> requestProperties = new HashMap<>();
         requestProperties.put(ACCEPT_ENCODING_HEADER, PACK_200_OR_GZIP);
@@ -187,17 +300,13 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
             return cacheFile.length();
         } else {
             final CountingInputStream countingInputStream = downloadDetails.inputStream;
-
-            final StreamUnpacker compressionUnpacker = StreamUnpacker.getCompressionUnpacker(downloadDetails);
-            final InputStream unpackedStream = compressionUnpacker.unpack(countingInputStream);
-
-            final StreamUnpacker contentUnpacker = StreamUnpacker.getContentUnpacker(downloadDetails, resourceHref);
-            final InputStream unpackedContent = contentUnpacker.unpack(unpackedStream);
+            final InputStream unpackedContent = unpack(downloadDetails, countingInputStream);
 
             final DownloadInfo downloadInfo = new DownloadInfo(resourceHref, version, downloadDetails.lastModified);
-            final File cacheFile = Cache.addToCache(downloadInfo, unpackedContent);
-
             final long expectedBytes = downloadDetails.totalSize;
+            final long expectedContentSize = unpackedContent == countingInputStream ? expectedBytes : -1;
+            final File cacheFile = Cache.addToCache(downloadInfo, unpackedContent, expectedContentSize);
+
             final long actualBytes = countingInputStream.numBytesRead();
 
             if (expectedBytes > 0 && expectedBytes > actualBytes) {
@@ -211,11 +320,19 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         }
     }
 
+    private InputStream unpack(final DownloadDetails downloadDetails, final InputStream input) throws IOException {
+        final StreamUnpacker compressionUnpacker = StreamUnpacker.getCompressionUnpacker(downloadDetails);
+        final InputStream unpackedStream = compressionUnpacker.unpack(input);
+
+        final StreamUnpacker contentUnpacker = StreamUnpacker.getContentUnpacker(downloadDetails, resource.getLocation());
+        return contentUnpacker.unpack(unpackedStream);
+    }
+
     protected abstract VersionId getVersion(URL downloadFrom, final String versionHeaderValue);
 
     protected abstract boolean isUpToDate(final URL resourceHref, final VersionId version, final long lastModified);
 
-    private DownloadDetails getDownloadDetails(final CloseableConnection connection) throws IOException {
+    private DownloadDetails getDownloadDetails(final CloseableConnection connection, final Consumer<Long> progressListener) throws IOException {
         final URL downloadFrom = connection.getURL();
         try {
             final long lastModified = connection.getLastModified();
@@ -223,7 +340,7 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
             final String contentType = connection.getHeaderField(CONTENT_TYPE_HEADER);
             final String contentEncoding = connection.getHeaderField(CONTENT_ENCODING_HEADER);
             final long totalSize = connection.getContentLength();
-            final NotifyingInputStream inputStream = new NotifyingInputStream(connection.getInputStream(), totalSize, resource::setTransferred);
+            final NotifyingInputStream inputStream = new NotifyingInputStream(connection.getInputStream(), totalSize, progressListener);
 
             if (!String.valueOf(connection.getResponseCode()).startsWith("2")) {
                 throw new IllegalStateException("Request returned " + connection.getResponseCode() + " for URL " + connection.getURL());
@@ -233,15 +350,15 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         } catch (IOException ex) {
             if (INVALID_HTTP_RESPONSE.equals(ex.getMessage())) {
                 LOG.warn(INVALID_HTTP_RESPONSE + " message detected. Attempting direct socket");
-                return getInputStreamFromDirectSocket(downloadFrom);
+                return getInputStreamFromDirectSocket(downloadFrom, progressListener);
             } else {
                 throw ex;
             }
         }
     }
 
-    private DownloadDetails getInputStreamFromDirectSocket(final URL url) throws IOException {
-        final Object[] result = loadUrlWithInvalidHeaderBytes(url);
+    private DownloadDetails getInputStreamFromDirectSocket(final URL url, final Consumer<Long> progressListener) throws IOException {
+        final Object[] result = loadUrlWithInvalidHeaderBytes(url, progressListener);
         final String head = (String) result[0];
         final byte[] body = (byte[]) result[1];
         LOG.debug("Header of: {} ({})", url, resource);
@@ -262,7 +379,7 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         return new DownloadDetails(url, inputStream, contentType, contentEncoding, version, lastModified, body.length);
     }
 
-    private Object[] loadUrlWithInvalidHeaderBytes(final URL url) throws IOException {
+    private Object[] loadUrlWithInvalidHeaderBytes(final URL url, final Consumer<Long> progressListener) throws IOException {
         try (final Socket s = UrlUtils.createSocketFromUrl(url)) {
             UrlUtils.writeRequest(s.getOutputStream(), url);
             String head = "";
@@ -276,7 +393,7 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
                     }
                     head = head + ((char) readChar);
                     if (endsWithBlankLine(head)) {
-                        body = IOUtils.readContent(new NotifyingInputStream(is, -1, resource::setTransferred));
+                        body = IOUtils.readContent(new NotifyingInputStream(is, -1, progressListener));
                     }
                 }
             }
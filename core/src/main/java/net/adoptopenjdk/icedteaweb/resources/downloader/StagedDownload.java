@@ -0,0 +1,159 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.DownloadInfo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URL;
+
+/**
+ * A download of a resource from a single candidate URL into a temporary staging file.
+ * Several staged downloads of the same resource may run concurrently.
+ * Only the winner is moved into the cache, all other downloads are aborted and their staging files deleted.
+ */
+class StagedDownload {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StagedDownload.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final URL downloadFrom;
+
+    private volatile boolean aborted;
+    private volatile InputStream source;
+
+    private File stagedFile;
+    private File cachedFile;
+    private DownloadInfo downloadInfo;
+    private long totalSize;
+    private long bytesTransferred;
+
+    StagedDownload(final URL downloadFrom) {
+        this.downloadFrom = downloadFrom;
+    }
+
+    URL getDownloadFrom() {
+        return downloadFrom;
+    }
+
+    /**
+     * Copies the content of the input stream into the staging file.
+     * The copy stops with an {@link InterruptedIOException} as soon as this download is {@link #abort() aborted}.
+     * <p>
+     * If the content is the raw stream and its size is known the content is transferred through a
+     * file channel into a staging file which has been extended to the expected size upfront.
+     *
+     * @param rawInput     the raw stream as received from the server, closed on abort
+     * @param content      the (possibly unpacked) content to write into the staging file
+     * @param stagedFile   the temporary file to write to
+     * @param expectedSize the size announced by the server or a non-positive value if unknown
+     * @throws IOException if reading or writing fails or the download was aborted
+     */
+    void stage(final InputStream rawInput, final InputStream content, final File stagedFile, final long expectedSize) throws IOException {
+        this.stagedFile = stagedFile;
+        this.source = rawInput;
+        assertNotAborted();
+
+        try {
+            if (content == rawInput && expectedSize > 0) {
+                // an abort closes the raw stream which makes the transfer fail
+                IOUtils.copy(content, stagedFile, expectedSize);
+                assertNotAborted();
+            } else {
+                copyWithAbortCheck(content, stagedFile);
+            }
+        } catch (IOException e) {
+            assertNotAborted();
+            throw e;
+        }
+    }
+
+    private void copyWithAbortCheck(final InputStream content, final File stagedFile) throws IOException {
+        try (final OutputStream out = new FileOutputStream(stagedFile)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = content.read(buffer)) != -1) {
+                assertNotAborted();
+                out.write(buffer, 0, len);
+            }
+        }
+    }
+
+    void completed(final DownloadInfo downloadInfo, final long totalSize, final long bytesTransferred) {
+        this.downloadInfo = downloadInfo;
+        this.totalSize = totalSize;
+        this.bytesTransferred = bytesTransferred;
+    }
+
+    void completedFromCache(final File cachedFile) {
+        this.cachedFile = cachedFile;
+        this.totalSize = cachedFile.length();
+        this.bytesTransferred = cachedFile.length();
+    }
+
+    boolean isFromCache() {
+        return cachedFile != null;
+    }
+
+    File getStagedFile() {
+        return stagedFile;
+    }
+
+    File getCachedFile() {
+        return cachedFile;
+    }
+
+    DownloadInfo getDownloadInfo() {
+        return downloadInfo;
+    }
+
+    long getTotalSize() {
+        return totalSize;
+    }
+
+    long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Aborts this download. The source stream is closed to unblock a pending read.
+     * The staging file is deleted by the downloading thread.
+     */
+    void abort() {
+        if (aborted) {
+            return;
+        }
+        aborted = true;
+        LOG.debug("Aborting download from {}", downloadFrom);
+        final InputStream in = source;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close stream of aborted download from {}: {}", downloadFrom, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes the staging file if this download has not been moved into the cache.
+     */
+    void discard() {
+        if (stagedFile != null && stagedFile.exists() && !stagedFile.delete()) {
+            LOG.debug("Failed to delete staging file {}", stagedFile);
+        }
+    }
+
+    private void assertNotAborted() throws InterruptedIOException {
+        if (aborted) {
+            throw new InterruptedIOException("Download from " + downloadFrom + " was aborted");
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package net.sourceforge.jnlp;
+
+import net.adoptopenjdk.icedteaweb.JavaSystemProperties;
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dynamic class data sharing archive of an application which is launched in a new JVM.
+ * <p>
+ * The first launch records the classes loaded by the JVM into a new archive when the JVM exits.
+ * Later launches map the archive instead of parsing and verifying the classes again.
+ * <p>
+ * The archive is stored next to the main jar in its cache entry and is deleted together with the entry.
+ * Its name contains a key computed from the unique key of the application, the cache entries of all eager jars
+ * and the JVM. Any update of a jar or the JVM leads to a new archive. The archive is recorded into a temporary
+ * file which is only moved in place after the JVM exited, so concurrent launches never see a partial archive.
+ */
+class ClassDataSharingArchive {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassDataSharingArchive.class);
+
+    static final String ARCHIVE_SUFFIX = ".jsa";
+    private static final String RECORDING_SUFFIX = ".tmp";
+    private static final int MINIMUM_JAVA_VERSION = 13;
+    private static final int KEY_LENGTH = 16;
+
+    private final File mainJar;
+    private final File archive;
+    private final File recording;
+
+    ClassDataSharingArchive(final File mainJar, final String key) {
+        this.mainJar = mainJar;
+        this.archive = new File(mainJar.getPath() + "." + key + ARCHIVE_SUFFIX);
+        this.recording = archive.isFile() ? null : new File(archive.getPath() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + RECORDING_SUFFIX);
+    }
+
+    /**
+     * @param file    the application to launch
+     * @param vmArgs  the arguments the application passes to the JVM
+     * @return the archive of the application or {@code null} if class data sharing is not used for the launch
+     */
+    static ClassDataSharingArchive forApplication(final JNLPFile file, final List<String> vmArgs) {
+        if (!isEnabled() || file.getUniqueKey() == null || hasSharingOptions(vmArgs)) {
+            return null;
+        }
+        if (javaMajorVersion(JavaSystemProperties.getJavaSpecVersion()) < MINIMUM_JAVA_VERSION) {
+            LOG.debug("Class data sharing archives require Java {} or newer", MINIMUM_JAVA_VERSION);
+            return null;
+        }
+
+        try {
+            final JARDesc mainJarDesc = file.getResources().getMainJAR();
+            if (mainJarDesc == null) {
+                return null;
+            }
+            final File mainJar = getCacheFile(mainJarDesc);
+            if (mainJar == null) {
+                LOG.debug("Main jar of {} is not cached yet, not using a class data sharing archive", file.getUniqueKey());
+                return null;
+            }
+
+            final Collection<String> entryIds = new TreeSet<>();
+            for (JARDesc jar : file.getResources().getJARs()) {
+                if (jar.isEager() || jar.isMain()) {
+                    final File cacheFile = getCacheFile(jar);
+                    if (cacheFile == null) {
+                        LOG.debug("Jar {} is not cached yet, not using a class data sharing archive", jar.getLocation());
+                        return null;
+                    }
+                    entryIds.add(cacheFile.getParentFile().getParentFile().getName() + "/" + cacheFile.getParentFile().getName());
+                }
+            }
+
+            final String jvm = JavaSystemProperties.getJavaHome() + ":" + JavaSystemProperties.getVmVersion() + ":" + configuredJre();
+            return new ClassDataSharingArchive(mainJar, keyOf(file.getUniqueKey(), jvm, entryIds));
+        } catch (Exception e) {
+            LOG.debug("Not using a class data sharing archive for {}: {}", file.getUniqueKey(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isEnabled() {
+        try {
+            return Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_JVM_CLASS_DATA_SHARING));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String configuredJre() {
+        try {
+            return String.valueOf(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_JRE_DIR));
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static File getCacheFile(final JARDesc jar) {
+        if (!Cache.isAnyCached(jar.getLocation(), jar.getVersion())) {
+            return null;
+        }
+        final VersionId version = Cache.getBestMatchingVersionInCache(jar.getLocation(), jar.getVersion());
+        return Cache.getCacheFile(jar.getLocation(), version);
+    }
+
+    /**
+     * The application decides on class data sharing itself.
+     */
+    static boolean hasSharingOptions(final List<String> vmArgs) {
+        for (String arg : vmArgs) {
+            if (arg.startsWith("-Xshare") || arg.startsWith("-XX:SharedArchiveFile") || arg.startsWith("-XX:ArchiveClassesAtExit")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int javaMajorVersion(final String specVersion) {
+        try {
+            final String major = specVersion.startsWith("1.") ? specVersion.substring(2) : specVersion;
+            final int dot = major.indexOf('.');
+            return Integer.parseInt(dot < 0 ? major : major.substring(0, dot));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    static String keyOf(final String uniqueKey, final String jvm, final Collection<String> entryIds) throws GeneralSecurityException {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(uniqueKey.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(jvm.getBytes(StandardCharsets.UTF_8));
+        for (String entryId : entryIds) {
+            digest.update((byte) 0);
+            digest.update(entryId.getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.substring(0, KEY_LENGTH);
+    }
+
+    /**
+     * @return the arguments which make the new JVM use or record the archive
+     */
+    List<String> getVmArgs() {
+        if (recording == null) {
+            LOG.info("Using class data sharing archive {}", archive);
+            return Collections.singletonList("-XX:SharedArchiveFile=" + archive.getPath());
+        }
+        LOG.info("Recording class data sharing archive {}", archive);
+        return Collections.singletonList("-XX:ArchiveClassesAtExit=" + recording.getPath());
+    }
+
+    /**
+     * Moves a recorded archive in place and removes archives of previous versions of the application.
+     * Must be called after the new JVM exited.
+     */
+    void launchFinished() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            if (recording.isFile() && recording.length() > 0) {
+                FileUtils.moveInPlace(recording, archive);
+                removeOutdatedArchives();
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to store class data sharing archive {}: {}", archive, e.getMessage());
+        } finally {
+            if (recording.exists() && !recording.delete()) {
+                LOG.debug("Failed to delete {}", recording);
+            }
+        }
+    }
+
+    private void removeOutdatedArchives() {
+        final String prefix = mainJar.getName() + ".";
+        final File[] archives = mainJar.getParentFile().listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(ARCHIVE_SUFFIX));
+        if (archives == null) {
+            return;
+        }
+        final List<File> outdated = new ArrayList<>(Arrays.asList(archives));
+        outdated.remove(archive);
+        for (File file : outdated) {
+            if (!file.delete()) {
+                LOG.debug("Failed to delete outdated class data sharing archive {}", file);
+            }
+        }
+    }
+
+    File getArchive() {
+        return archive;
+    }
+}
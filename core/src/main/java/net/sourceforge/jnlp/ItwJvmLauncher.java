@@ -42,7 +42,19 @@ public class ItwJvmLauncher implements JvmLauncher {
 
         // TODO: github #322 - should check VM args here
 
-        launchExternal(jnlpFile.getNewVMArgs(), args);
+        final List<String> vmArgs = jnlpFile.getNewVMArgs();
+        final ClassDataSharingArchive archive = ClassDataSharingArchive.forApplication(jnlpFile, vmArgs);
+        if (archive != null) {
+            vmArgs.addAll(archive.getVmArgs());
+        }
+
+        try {
+            launchExternal(vmArgs, args);
+        } finally {
+            if (archive != null) {
+                archive.launchFinished();
+            }
+        }
     }
 
     /**
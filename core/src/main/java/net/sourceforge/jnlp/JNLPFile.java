@@ -252,11 +252,28 @@ public class JNLPFile {
              final ParserSettings settings,
              final String uniqueKey
     ) throws IOException, ParseException {
+        this(readRootNode(input, location, null, settings), location, settings, uniqueKey);
+    }
+
+    /**
+     * Create a JNLPFile from the root node of an already parsed JNLP file.
+     *
+     * @param root          the root node of the JNLP file
+     * @param location      the location of the JNLP file
+     * @param settings      the parser settings used to parse the file
+     * @param uniqueKey     A string that uniquely identifies connected instances
+     * @throws ParseException if the JNLP file was invalid
+     */
+    JNLPFile(final XmlNode root,
+             final URL location,
+             final ParserSettings settings,
+             final String uniqueKey
+    ) throws ParseException {
         this.parserSettings = settings;
         this.fileLocation = location;
         this.uniqueKey = uniqueKey;
 
-        parse(input, location, null);
+        parse(root, location, null);
 
         final String httpAgent = getResources().getPropertiesMap().get(HTTP_AGENT);
         if (! StringUtils.isBlank(httpAgent)) {
@@ -292,7 +309,7 @@ public class JNLPFile {
         this.parserSettings = settings;
         this.fileLocation = null;
         this.uniqueKey = null;
-        parse(input, null, codebase);
+        parse(readRootNode(input, null, codebase, settings), null, codebase);
     }
 
 
@@ -721,12 +738,12 @@ public class JNLPFile {
     }
 
     /**
-     * Initialize the JNLPFile fields. Private because it's called
-     * from the constructor.
+     * Parses the XML of a JNLP file.
      *
      * @param location the file location or {@code null}
+     * @return the root node of the JNLP file
      */
-    private void parse(InputStream input, URL location, URL forceCodebase) throws ParseException {
+    static XmlNode readRootNode(InputStream input, URL location, URL forceCodebase, ParserSettings settings) throws ParseException {
         try {
             final String logContent = getConfiguration().getProperty(KEY_ENABLE_LOGGING_OF_JNLP_FILE_CONTENT);
             final InputStream in;
@@ -739,8 +756,27 @@ public class JNLPFile {
                 in = input;
             }
 
-            final XMLParser xmlParser = XmlParserFactory.getParser(parserSettings.getParserType());
-            final XmlNode root = xmlParser.getRootNode(in);
+            final XMLParser xmlParser = XmlParserFactory.getParser(settings.getParserType());
+            return xmlParser.getRootNode(in);
+        }
+        catch (ParseException ex) {
+            throw ex;
+        }
+        catch (Exception ex) {
+            LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, ex);
+            throw new RuntimeException(ex.toString());
+        }
+    }
+
+    /**
+     * Initialize the JNLPFile fields. Private because it's called
+     * from the constructor.
+     *
+     * @param root     the root node of the JNLP file
+     * @param location the file location or {@code null}
+     */
+    private void parse(XmlNode root, URL location, URL forceCodebase) throws ParseException {
+        try {
             final Parser parser = new Parser(this, location, root, parserSettings, forceCodebase); // true == allow extensions
 
             // JNLP tag information
@@ -27,6 +27,7 @@ import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
 import net.adoptopenjdk.icedteaweb.xmlparser.ParseException;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNode;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 
 import java.io.File;
@@ -101,23 +102,38 @@ public class JNLPFileFactory {
      * @throws ParseException if the JNLP file was invalid
      */
     public JNLPFile create(final URL location, final String uniqueKey, final VersionString version, final ParserSettings settings, final UpdatePolicy policy) throws IOException, ParseException {
-        try (InputStream input = openURL(location, version, policy)) {
-            return new JNLPFile(input, location, settings, uniqueKey);
+        final File cachedFile = getCachedFile(location, version, policy);
+        final ParsedJnlpCache parsedCache = ParsedJnlpCache.fromConfiguration();
+        if (parsedCache != null) {
+            final XmlNode storedRoot = parsedCache.read(cachedFile, settings.getParserType());
+            if (storedRoot != null) {
+                return new JNLPFile(storedRoot, location, settings, uniqueKey);
+            }
+        }
+
+        try (InputStream input = new FileInputStream(cachedFile)) {
+            if (parsedCache == null) {
+                return new JNLPFile(input, location, settings, uniqueKey);
+            }
+            final XmlNode root = JNLPFile.readRootNode(input, location, null, settings);
+            final JNLPFile result = new JNLPFile(root, location, settings, uniqueKey);
+            parsedCache.write(cachedFile, settings.getParserType(), root);
+            return result;
         }
     }
 
     /**
-     * Open the jnlp file URL from the cache if there, otherwise
+     * Get the jnlp file URL from the cache if there, otherwise
      * download to the cache.
      * Unless file is up-to-date in cache, this method blocks until it is downloaded.
      *
      * @param location of resource to open
      * @param version  of resource
      * @param policy   update policy of resource
-     * @return opened stream from given url
+     * @return the file in the cache
      * @throws IOException if something goes wrong
      */
-    private InputStream openURL(final URL location, final VersionString version, final UpdatePolicy policy) throws IOException {
+    private File getCachedFile(final URL location, final VersionString version, final UpdatePolicy policy) throws IOException {
         Assert.requireNonNull(location, "location");
         Assert.requireNonNull(policy, "policy");
 
@@ -125,7 +141,10 @@ public class JNLPFileFactory {
             final ResourceTracker tracker = new ResourceTracker(false, DownloadOptions.NONE, policy); // no prefetch
             tracker.addResource(location, version);
             final File f = tracker.getCacheFile(location);
-            return new FileInputStream(f);
+            if (f == null) {
+                throw new IOException("Could not get " + location + " into the cache");
+            }
+            return f;
         } catch (IOException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -385,6 +385,7 @@ public class Launcher {
             LOG.info("Starting application [{}] ...", mainName);
 
             final Class<?> mainClass = app.getClassLoader().loadClass(mainName);
+            app.getClassLoader().activateLazyPartsInBackground();
 
             final Method main = mainClass.getMethod("main", String[].class);
             final String[] args = file.getApplication().getArguments();
@@ -562,6 +563,7 @@ public class Launcher {
             // appletInstance.
             String appletName = file.getApplet().getMainClass();
             Class<?> appletClass = loader.loadClass(appletName);
+            loader.activateLazyPartsInBackground();
             Applet applet = (Applet) appletClass.newInstance();
             applet.setStub((AppletStub)cont);
             // Finish setting up appletInstance.
@@ -0,0 +1,142 @@
+package net.sourceforge.jnlp;
+
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.adoptopenjdk.icedteaweb.xmlparser.ParserType;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNode;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNodeSnapshot;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parsed XML of the JNLP files in the cache.
+ * <p>
+ * The tree of a JNLP file is stored next to the file in its cache entry. It is a derived file of the JNLP file,
+ * so it is kept when the cache is cleaned and deleted together with the entry. JNLP files which are not located
+ * in a cache entry, e.g. local files, are always parsed and no tree is stored next to them.
+ * It is only used while the length and the last modification of the cached file are the same as when the tree
+ * was stored and the file is read with the same type of parser. Launches of an unchanged JNLP file then build the
+ * descriptor from the stored tree without reading, sanitizing and parsing the XML again.
+ */
+class ParsedJnlpCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParsedJnlpCache.class);
+
+    static final String PARSED_SUFFIX = ".parsed";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File cacheRoot;
+
+    ParsedJnlpCache(final File cacheRoot) {
+        this.cacheRoot = canonicalFile(cacheRoot);
+    }
+
+    /**
+     * @return the cache or {@code null} if it is disabled
+     */
+    static ParsedJnlpCache fromConfiguration() {
+        try {
+            final boolean enabled = Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_CACHE_PARSED_JNLP));
+            // the content of a file is only logged while it is parsed
+            final boolean logContent = Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_ENABLE_LOGGING_OF_JNLP_FILE_CONTENT));
+            return enabled && !logContent ? new ParsedJnlpCache(PathsAndFiles.CACHE_DIR.getFile()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param cachedFile the JNLP file in the cache
+     * @param parserType the type of parser the file is read with
+     * @return the stored tree or {@code null} if there is none for the current content of the file
+     */
+    XmlNode read(final File cachedFile, final ParserType parserType) {
+        if (!isCached(cachedFile)) {
+            return null;
+        }
+        final File parsedFile = parsedFileOf(cachedFile);
+        if (!parsedFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(parsedFile)))) {
+            final long length = in.readLong();
+            final long lastModified = in.readLong();
+            final String storedParserType = in.readUTF();
+            if (length != cachedFile.length() || lastModified != cachedFile.lastModified() || !storedParserType.equals(parserType.name())) {
+                LOG.debug("Stored tree of {} is outdated", cachedFile);
+                return null;
+            }
+            final XmlNode root = XmlNodeSnapshot.read(in);
+            LOG.debug("Using stored tree of {}", cachedFile);
+            return root;
+        } catch (IOException e) {
+            LOG.debug("Failed to read stored tree of {}: {}", cachedFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the tree of a JNLP file, replacing any tree stored before.
+     * Nothing is stored for a file which is not located in a cache entry.
+     *
+     * @param cachedFile the JNLP file in the cache
+     * @param parserType the type of parser the file has been read with
+     * @param root       the root of the parsed file
+     */
+    void write(final File cachedFile, final ParserType parserType, final XmlNode root) {
+        if (!isCached(cachedFile)) {
+            return;
+        }
+        final File parsedFile = parsedFileOf(cachedFile);
+        final File temporaryFile = new File(parsedFile.getPath() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMPORARY_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                out.writeLong(cachedFile.length());
+                out.writeLong(cachedFile.lastModified());
+                out.writeUTF(parserType.name());
+                XmlNodeSnapshot.write(root, out);
+            }
+            FileUtils.moveInPlace(temporaryFile, parsedFile);
+        } catch (IOException e) {
+            LOG.debug("Failed to store tree of {}: {}", cachedFile, e.getMessage());
+        } finally {
+            if (temporaryFile.exists() && !temporaryFile.delete()) {
+                LOG.debug("Failed to delete {}", temporaryFile);
+            }
+        }
+    }
+
+    /**
+     * @return true if the file is located in a cache entry
+     */
+    boolean isCached(final File file) {
+        final File entryDir = canonicalFile(file).getParentFile();
+        final File levelOneDir = entryDir == null ? null : entryDir.getParentFile();
+        return levelOneDir != null && cacheRoot.equals(levelOneDir.getParentFile());
+    }
+
+    static File parsedFileOf(final File cachedFile) {
+        return Cache.getDerivedFile(cachedFile, PARSED_SUFFIX);
+    }
+
+    private static File canonicalFile(final File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
@@ -38,6 +38,7 @@ import net.adoptopenjdk.icedteaweb.xmlparser.ParserType;
 
 import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.MALFORMED;
 import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.NORMAL;
+import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.STREAMING;
 
 /**
  * Contains settings to be used by the Parser while parsing JNLP files.
@@ -49,6 +50,7 @@ public class ParserSettings {
     private final boolean isStrict;
     private final boolean extensionAllowed;
     private final boolean malformedXmlAllowed;
+    private final boolean streamingXml;
 
     /** Create a new ParserSettings with the default parser settings */
     public ParserSettings() {
@@ -61,9 +63,20 @@ public class ParserSettings {
      * @param malformedXmlAllowed true if xml sanitizer should be used
      */
     public ParserSettings(boolean strict, boolean extensionAllowed, boolean malformedXmlAllowed) {
+        this(strict, extensionAllowed, malformedXmlAllowed, false);
+    }
+
+    /** Create a new ParserSettings object
+     * @param strict true if parser should be strict
+     * @param extensionAllowed true if extensions are allowed
+     * @param malformedXmlAllowed true if xml sanitizer should be used
+     * @param streamingXml true if well-formed xml should be read by the streaming parser
+     */
+    public ParserSettings(boolean strict, boolean extensionAllowed, boolean malformedXmlAllowed, boolean streamingXml) {
         this.isStrict = strict;
         this.extensionAllowed = extensionAllowed;
         this.malformedXmlAllowed = malformedXmlAllowed;
+        this.streamingXml = streamingXml;
     }
 
     /** @return true if extensions to the spec are allowed */
@@ -71,9 +84,12 @@ public class ParserSettings {
         return extensionAllowed;
     }
 
-    /** @return true if parsing malformed xml is allowed */
+    /** @return the type of parser to read the xml with */
     ParserType getParserType() {
-        return malformedXmlAllowed ? MALFORMED : NORMAL;
+        if (malformedXmlAllowed) {
+            return MALFORMED;
+        }
+        return streamingXml ? STREAMING : NORMAL;
     }
 
     /** @return true if strict parsing mode is to be used */
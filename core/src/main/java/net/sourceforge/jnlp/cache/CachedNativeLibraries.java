@@ -0,0 +1,194 @@
+package net.sourceforge.jnlp.cache;
+
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.RestrictedFileUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+/**
+ * Native libraries extracted from jars in the cache which are kept for later launches.
+ * <p>
+ * The libraries of a cached jar are extracted to a directory next to the jar within its cache entry.
+ * The directory contains a record of the checksum (CRC-32 and size) of the jar entry each library has
+ * been extracted from. A library is only extracted again if the checksum of its entry changed or
+ * if the extracted library does not match the recorded checksum any more.
+ * As the directory is part of the cache entry it is deleted together with the entry.
+ * <p>
+ * Libraries are extracted to a temporary file which is moved in place once it is complete.
+ * Thus a library which is in use by another launch is never modified.
+ */
+class CachedNativeLibraries {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachedNativeLibraries.class);
+
+    static final String DIRECTORY_SUFFIX = ".native";
+    static final String CHECKSUMS_FILE_NAME = ".checksums";
+
+    private final File cacheRoot;
+
+    CachedNativeLibraries(final File cacheRoot) {
+        this.cacheRoot = canonicalFile(cacheRoot);
+    }
+
+    /**
+     * @return the libraries of the user's cache or {@code null} if they should not be kept
+     */
+    static CachedNativeLibraries fromConfiguration() {
+        try {
+            if (Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_CACHE_NATIVE_LIBRARIES))) {
+                return new CachedNativeLibraries(PathsAndFiles.CACHE_DIR.getFile());
+            }
+        } catch (Exception e) {
+            LOG.debug("Native libraries are not kept in the cache: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the jar is located in a cache entry
+     */
+    boolean isCached(final File jarFile) {
+        final File entryDir = canonicalFile(jarFile).getParentFile();
+        final File levelOneDir = entryDir == null ? null : entryDir.getParentFile();
+        return levelOneDir != null && cacheRoot.equals(levelOneDir.getParentFile());
+    }
+
+    /**
+     * Extracts the libraries of the jar which have not been extracted from an identical entry before.
+     *
+     * @param jarFile   the cached jar
+     * @param jar       the opened jar
+     * @param libraries the entries of the libraries, an entry with the same file name as a previous entry replaces it
+     * @return the directory containing the libraries
+     * @throws IOException if a library could not be extracted
+     */
+    File extract(final File jarFile, final JarFile jar, final Collection<JarEntry> libraries) throws IOException {
+        final File directory = Cache.getDerivedFile(jarFile, DIRECTORY_SUFFIX);
+        if (!directory.isDirectory()) {
+            RestrictedFileUtils.createRestrictedDirectory(directory);
+        }
+
+        final File checksumsFile = new File(directory, CHECKSUMS_FILE_NAME);
+        final Properties checksums = readChecksums(checksumsFile);
+        final Map<String, JarEntry> entriesByName = new LinkedHashMap<>();
+        for (JarEntry entry : libraries) {
+            entriesByName.put(new File(entry.getName()).getName(), entry);
+        }
+
+        boolean changed = false;
+        for (Map.Entry<String, JarEntry> namedEntry : entriesByName.entrySet()) {
+            final String name = namedEntry.getKey();
+            final JarEntry entry = namedEntry.getValue();
+            final File library = new File(directory, name);
+            final String checksum = checksumOf(entry);
+            if (checksum != null && checksum.equals(checksums.getProperty(name)) && checksum.equals(checksumOf(library))) {
+                LOG.debug("Reusing native library {}", library);
+                continue;
+            }
+
+            final File tmpFile = File.createTempFile(name, ".tmp", directory);
+            try {
+                try (InputStream in = jar.getInputStream(entry)) {
+                    IOUtils.copy(in, tmpFile, entry.getSize());
+                }
+                FileUtils.moveInPlace(tmpFile, library);
+            } finally {
+                if (tmpFile.exists() && !tmpFile.delete()) {
+                    LOG.debug("Failed to delete {}", tmpFile);
+                }
+            }
+            LOG.debug("Extracted native library {}", library);
+
+            if (checksum == null) {
+                checksums.remove(name);
+            } else {
+                checksums.setProperty(name, checksum);
+            }
+            changed = true;
+        }
+
+        if (changed) {
+            writeChecksums(checksumsFile, checksums);
+        }
+        return directory;
+    }
+
+    private static String checksumOf(final JarEntry entry) {
+        if (entry.getCrc() == -1 || entry.getSize() == -1) {
+            return null;
+        }
+        return Long.toHexString(entry.getCrc()) + ":" + entry.getSize();
+    }
+
+    private static String checksumOf(final File library) {
+        if (!library.isFile()) {
+            return null;
+        }
+        final CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(library)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to read native library {}: {}", library, e.getMessage());
+            return null;
+        }
+        return Long.toHexString(crc.getValue()) + ":" + library.length();
+    }
+
+    private static Properties readChecksums(final File checksumsFile) {
+        final Properties checksums = new Properties();
+        if (checksumsFile.isFile()) {
+            try (InputStream in = new FileInputStream(checksumsFile)) {
+                checksums.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.debug("Ignoring unreadable checksums {}: {}", checksumsFile, e.getMessage());
+                checksums.clear();
+            }
+        }
+        return checksums;
+    }
+
+    private static void writeChecksums(final File checksumsFile, final Properties checksums) throws IOException {
+        final File tmpFile = File.createTempFile(CHECKSUMS_FILE_NAME, ".tmp", checksumsFile.getParentFile());
+        try {
+            try (OutputStream out = new FileOutputStream(tmpFile)) {
+                checksums.store(out, null);
+            }
+            FileUtils.moveInPlace(tmpFile, checksumsFile);
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOG.debug("Failed to delete {}", tmpFile);
+            }
+        }
+    }
+
+    private static File canonicalFile(final File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
+import net.sourceforge.jnlp.util.JarScan;
 import net.sourceforge.jnlp.util.RestrictedFileUtils;
 
 import java.io.File;
@@ -13,7 +14,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Random;
 import java.util.jar.JarEntry;
@@ -36,17 +36,28 @@ public class NativeLibraryStorage {
     private final ResourceTracker tracker;
     private final List<File> nativeSearchDirectories = new ArrayList<>();
 
+    /**
+     * Libraries of cached jars which are kept for later launches, {@code null} if disabled
+     */
+    private final CachedNativeLibraries cachedLibraries;
+
     /**
      * Temporary directory to store native jar entries, added to our search path
      */
     private File jarEntryDirectory = null;
 
     public NativeLibraryStorage(final ResourceTracker tracker) {
+        this(tracker, CachedNativeLibraries.fromConfiguration());
+    }
+
+    NativeLibraryStorage(final ResourceTracker tracker, final CachedNativeLibraries cachedLibraries) {
         this.tracker = tracker;
+        this.cachedLibraries = cachedLibraries;
     }
 
     /**
      * Clean up our temporary folder if we created one.
+     * Libraries kept in the cache are removed together with the cache entry of their jar.
      */
     public void cleanupTemporaryFolder() {
         if (jarEntryDirectory != null) {
@@ -111,34 +122,41 @@ public class NativeLibraryStorage {
         }
 
         try {
-            try (JarFile jarFile = new JarFile(localFile, false)) {
-                final Enumeration<JarEntry> entries = jarFile.entries();
-
-                while (entries.hasMoreElements()) {
-                    final JarEntry e = entries.nextElement();
+            final List<String> libraryEntries = new ArrayList<>();
+            for (final String entryName : JarScan.of(localFile).getEntryNames()) {
+                if (isNativeLibrary(entryName)) {
+                    libraryEntries.add(entryName);
+                }
+            }
+            if (libraryEntries.isEmpty()) {
+                return;
+            }
 
-                    if (e.isDirectory()) {
-                        continue;
+            try (JarFile jarFile = new JarFile(localFile, false)) {
+                final List<JarEntry> libraries = new ArrayList<>();
+                for (final String entryName : libraryEntries) {
+                    final JarEntry e = jarFile.getJarEntry(entryName);
+                    if (e != null) {
+                        libraries.add(e);
                     }
+                }
 
-                    final String name = new File(e.getName()).getName();
-                    boolean isLibrary = false;
-
-                    for (final String suffix : NATIVE_LIBRARY_EXTENSIONS) {
-                        if (name.endsWith(suffix)) {
-                            isLibrary = true;
-                            break;
-                        }
+                if (cachedLibraries != null && cachedLibraries.isCached(localFile)) {
+                    try {
+                        addSearchDirectory(cachedLibraries.extract(localFile, jarFile, libraries));
+                        return;
+                    } catch (IOException ex) {
+                        LOG.warn("Failed to keep native libraries of {} in the cache, using temporary search storage: {}", localFile, ex.getMessage());
                     }
+                }
 
-                    if (isLibrary) {
-                        final File outFile = new File(getNativeStoreDirectory(), name);
-                        if (!outFile.isFile()) {
-                            RestrictedFileUtils.createRestrictedFile(outFile);
-                        }
-                        try (FileOutputStream out = new FileOutputStream(outFile)) {
-                            IOUtils.copy(jarFile.getInputStream(e), out, 4096);
-                        }
+                for (final JarEntry e : libraries) {
+                    final File outFile = new File(getNativeStoreDirectory(), new File(e.getName()).getName());
+                    if (!outFile.isFile()) {
+                        RestrictedFileUtils.createRestrictedFile(outFile);
+                    }
+                    try (FileOutputStream out = new FileOutputStream(outFile)) {
+                        IOUtils.copy(jarFile.getInputStream(e), out, 4096);
                     }
                 }
             }
@@ -147,6 +165,25 @@ public class NativeLibraryStorage {
         }
     }
 
+    private synchronized void addSearchDirectory(final File directory) {
+        if (!nativeSearchDirectories.contains(directory)) {
+            nativeSearchDirectories.add(directory);
+        }
+    }
+
+    private static boolean isNativeLibrary(final String entryName) {
+        if (entryName.endsWith("/")) {
+            return false;
+        }
+        final String name = new File(entryName).getName();
+        for (final String suffix : NATIVE_LIBRARY_EXTENSIONS) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     File getNativeStoreDirectory() {
         if (jarEntryDirectory != null) {
             return jarEntryDirectory;
@@ -61,6 +61,118 @@ public interface ConfigurationConstants {
 
     String KEY_CACHE_COMPRESSION_ENABLED = "deployment.cache.jarcompression";
 
+    /**
+     * When the access time of a cache entry is written to the cache index.
+     * One of CACHE_ACCESS_TIME_FLUSH_* values
+     */
+    String KEY_CACHE_ACCESS_TIME_FLUSH_POLICY = "deployment.cache.accessTime.flushPolicy";
+
+    /**
+     * when set as value of KEY_CACHE_ACCESS_TIME_FLUSH_POLICY,
+     * then every access is written to the cache index right away
+     */
+    String CACHE_ACCESS_TIME_FLUSH_IMMEDIATE = "IMMEDIATE";
+
+    /**
+     * when set as value of KEY_CACHE_ACCESS_TIME_FLUSH_POLICY,
+     * then accesses are collected in memory and written to the cache index in batches
+     */
+    String CACHE_ACCESS_TIME_FLUSH_DEFERRED = "DEFERRED";
+
+    /**
+     * Milliseconds after which deferred access times are written to the cache index
+     */
+    String KEY_CACHE_ACCESS_TIME_FLUSH_INTERVAL = "deployment.cache.accessTime.flushInterval";
+    long DEFAULT_CACHE_ACCESS_TIME_FLUSH_INTERVAL = 5000;
+
+    /**
+     * Number of pending deferred access times which causes them to be written to the cache index
+     */
+    String KEY_CACHE_ACCESS_TIME_FLUSH_THRESHOLD = "deployment.cache.accessTime.flushThreshold";
+    int DEFAULT_CACHE_ACCESS_TIME_FLUSH_THRESHOLD = 200;
+
+    /**
+     * Which cache entries are evicted first if the cache exceeds its maximum size.
+     * One of CACHE_EVICTION_POLICY_* values
+     */
+    String KEY_CACHE_EVICTION_POLICY = "deployment.cache.eviction.policy";
+
+    /**
+     * when set as value of KEY_CACHE_EVICTION_POLICY,
+     * then the least recently used entries are evicted first
+     */
+    String CACHE_EVICTION_POLICY_LRU = "LRU";
+
+    /**
+     * when set as value of KEY_CACHE_EVICTION_POLICY,
+     * then the least frequently used entries are evicted first
+     */
+    String CACHE_EVICTION_POLICY_LFU = "LFU";
+
+    /**
+     * when set as value of KEY_CACHE_EVICTION_POLICY,
+     * then large entries which have not been used for a long time are evicted first
+     */
+    String CACHE_EVICTION_POLICY_SIZE_WEIGHTED = "SIZE_WEIGHTED";
+
+    /**
+     * Percentage of the maximum cache size which triggers an eviction in the background
+     */
+    String KEY_CACHE_EVICTION_HIGH_WATER_MARK = "deployment.cache.eviction.highWaterMark";
+    int DEFAULT_CACHE_EVICTION_HIGH_WATER_MARK = 95;
+
+    /**
+     * Percentage of the maximum cache size to which an eviction in the background reduces the cache
+     */
+    String KEY_CACHE_EVICTION_LOW_WATER_MARK = "deployment.cache.eviction.lowWaterMark";
+    int DEFAULT_CACHE_EVICTION_LOW_WATER_MARK = 80;
+
+    /**
+     * Maximum size in megabytes of all cache entries from a single domain, -1 for unlimited
+     */
+    String KEY_CACHE_EVICTION_DOMAIN_QUOTA = "deployment.cache.eviction.domainQuota";
+
+    /**
+     * Boolean. Store files with identical content only once in the cache (linked from all cache entries)
+     */
+    String KEY_CACHE_DEDUPLICATION = "deployment.cache.deduplication";
+
+    /**
+     * Boolean. Keep native libraries extracted from cached jars in the cache entry of the jar and reuse them
+     * on later launches instead of extracting them to a temporary directory on every launch
+     */
+    String KEY_CACHE_NATIVE_LIBRARIES = "deployment.cache.nativeLibraries";
+
+    /**
+     * Boolean. Keep the parsed XML of cached JNLP files in their cache entry and do not parse
+     * an unchanged JNLP file again on later launches
+     */
+    String KEY_CACHE_PARSED_JNLP = "deployment.cache.parsedJnlp";
+
+    /**
+     * Boolean. Read JNLP files with a streaming parser when malformed XML is not allowed,
+     * instead of building a DOM of the whole file
+     */
+    String KEY_STREAMING_XML_PARSER = "deployment.xml.streamingParser";
+
+    /**
+     * Format of the cache index file.
+     * One of CACHE_INDEX_FORMAT_* values
+     */
+    String KEY_CACHE_INDEX_FORMAT = "deployment.cache.index.format";
+
+    /**
+     * when set as value of KEY_CACHE_INDEX_FORMAT,
+     * then the cache index is stored as text file with one line per change
+     */
+    String CACHE_INDEX_FORMAT_TEXT = "TEXT";
+
+    /**
+     * when set as value of KEY_CACHE_INDEX_FORMAT,
+     * then the cache index is stored as binary file with fixed size records which is memory mapped for reading
+     */
+    String CACHE_INDEX_FORMAT_BINARY = "BINARY";
+
     String KEY_USER_LOG_DIR = "deployment.user.logdir";
 
     String KEY_USER_TMP_DIR = "deployment.user.tmp";
@@ -136,6 +248,24 @@ public interface ConfigurationConstants {
     String KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT = "deployment.cache.parallelDownloadCount";
     int DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT = 6;
 
+    /**
+     * Integer. Maximum number of jars whose signatures are verified at the same time
+     */
+    String KEY_PARALLEL_JAR_VERIFICATION_COUNT = "deployment.security.parallelJarVerificationCount";
+    int DEFAULT_PARALLEL_JAR_VERIFICATION_COUNT = 4;
+
+    /**
+     * Boolean. Remember the signers of cached jars and only read a jar again if its content has changed.
+     * The trust in the signers is checked on every launch nonetheless.
+     */
+    String KEY_SECURITY_VERIFICATION_RESULT_CACHE = "deployment.security.verificationResultCache";
+
+    /**
+     * Boolean. Download a resource from all of its candidate urls (pack200, gzip, plain, ...) at the same time
+     * and keep the first complete download if true
+     */
+    String KEY_PARALLEL_URL_DOWNLOAD = "deployment.cache.parallelUrlDownload";
+
     /**
      * Boolean. Only install the custom authenticator if true
      */
@@ -148,6 +278,18 @@ public interface ConfigurationConstants {
 
     String KEY_STRICT_JNLP_CLASSLOADER = "deployment.jnlpclassloader.strict";
 
+    /**
+     * Integer. Maximum number of class and resource names a JNLP classloader remembers as not found.
+     * 0 disables remembering names which have not been found.
+     */
+    String KEY_NEGATIVE_LOOKUP_CACHE_SIZE = "deployment.jnlpclassloader.negativeLookupCacheSize";
+    int DEFAULT_NEGATIVE_LOOKUP_CACHE_SIZE = 1000;
+
+    /**
+     * Boolean. Activate the lazy parts of an application in the background once its main class has been loaded.
+     */
+    String KEY_BACKGROUND_PART_ACTIVATION = "deployment.jnlpclassloader.backgroundPartActivation";
+
     /**
      * Boolean. Do not prefer https over http
      */
@@ -206,6 +348,30 @@ public interface ConfigurationConstants {
 
     String KEY_ENABLE_LOGGING_TOSYSTEMLOG = "deployment.log.system";
 
+    /**
+     * What happens to a log message while the queue of messages waiting to be written is full.
+     * One of LOGGING_QUEUE_OVERFLOW_* values
+     */
+    String KEY_LOGGING_QUEUE_OVERFLOW_POLICY = "deployment.log.queue.overflowPolicy";
+
+    /**
+     * when set as value of KEY_LOGGING_QUEUE_OVERFLOW_POLICY,
+     * then the logging thread waits until the message can be queued
+     */
+    String LOGGING_QUEUE_OVERFLOW_BLOCK = "BLOCK";
+
+    /**
+     * when set as value of KEY_LOGGING_QUEUE_OVERFLOW_POLICY,
+     * then the oldest queued messages are dropped
+     */
+    String LOGGING_QUEUE_OVERFLOW_DROP_OLDEST = "DROP_OLDEST";
+
+    /**
+     * when set as value of KEY_LOGGING_QUEUE_OVERFLOW_POLICY,
+     * then debug messages are dropped and the logging thread waits with all other messages
+     */
+    String LOGGING_QUEUE_OVERFLOW_DROP_DEBUG = "DROP_DEBUG";
+
     /*
      * manifest check
      */
@@ -256,6 +422,12 @@ public interface ConfigurationConstants {
 
     String KEY_JRE_DIR = "deployment.jre.dir";
 
+    /**
+     * Boolean. Record the classes loaded by an application launched in a new JVM into a dynamic class data
+     * sharing archive and pass the archive to later launches of the application (requires Java 13 or newer)
+     */
+    String KEY_JVM_CLASS_DATA_SHARING = "deployment.jvm.classDataSharing";
+
     /**
      * remote configuration properties
      */
@@ -275,6 +447,7 @@ public interface ConfigurationConstants {
     String VV_POSSIBLE_BROWSER_VALUES = "VVPossibleBrowserValues";
     String ICEDTEA_SO = "IcedTeaPlugin.so";
     String CACHE_INDEX_FILE_NAME = "recently_used.cache";
+    String BINARY_CACHE_INDEX_FILE_NAME = "recently_used.bin";
     String OLD_CACHE_INDEX_FILE_NAME = "recently_used";
     String WINDIR = "WINDIR";
     String SECURITY_WORD = "security";
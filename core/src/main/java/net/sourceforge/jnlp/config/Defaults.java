@@ -235,6 +235,16 @@ public class Defaults {
                     String.valueOf(true),
                     ValidatorFactory.createBooleanValidator()
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_NEGATIVE_LOOKUP_CACHE_SIZE,
+                    String.valueOf(ConfigurationConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_SIZE),
+                    ValidatorFactory.createRangedIntegerValidator(0, 100000)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_BACKGROUND_PART_ACTIVATION,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
             Setting.createDefault(
                     ConfigurationConstants.KEY_HTTPS_DONT_ENFORCE,
                     String.valueOf(false),
@@ -339,6 +349,76 @@ public class Defaults {
                     String.valueOf(0),
                     ValidatorFactory.createRangedIntegerValidator(0, 10)
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_ACCESS_TIME_FLUSH_POLICY,
+                    ConfigurationConstants.CACHE_ACCESS_TIME_FLUSH_IMMEDIATE,
+                    ValidatorFactory.createStringValidator(new String[]{
+                            ConfigurationConstants.CACHE_ACCESS_TIME_FLUSH_IMMEDIATE,
+                            ConfigurationConstants.CACHE_ACCESS_TIME_FLUSH_DEFERRED
+                    })
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_ACCESS_TIME_FLUSH_INTERVAL,
+                    String.valueOf(ConfigurationConstants.DEFAULT_CACHE_ACCESS_TIME_FLUSH_INTERVAL),
+                    ValidatorFactory.createRangedIntegerValidator(100, Integer.MAX_VALUE)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_ACCESS_TIME_FLUSH_THRESHOLD,
+                    String.valueOf(ConfigurationConstants.DEFAULT_CACHE_ACCESS_TIME_FLUSH_THRESHOLD),
+                    ValidatorFactory.createRangedIntegerValidator(1, Integer.MAX_VALUE)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_EVICTION_POLICY,
+                    ConfigurationConstants.CACHE_EVICTION_POLICY_LRU,
+                    ValidatorFactory.createStringValidator(new String[]{
+                            ConfigurationConstants.CACHE_EVICTION_POLICY_LRU,
+                            ConfigurationConstants.CACHE_EVICTION_POLICY_LFU,
+                            ConfigurationConstants.CACHE_EVICTION_POLICY_SIZE_WEIGHTED
+                    })
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_EVICTION_HIGH_WATER_MARK,
+                    String.valueOf(ConfigurationConstants.DEFAULT_CACHE_EVICTION_HIGH_WATER_MARK),
+                    ValidatorFactory.createRangedIntegerValidator(1, 100)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_EVICTION_LOW_WATER_MARK,
+                    String.valueOf(ConfigurationConstants.DEFAULT_CACHE_EVICTION_LOW_WATER_MARK),
+                    ValidatorFactory.createRangedIntegerValidator(0, 100)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_EVICTION_DOMAIN_QUOTA,
+                    "-1",
+                    ValidatorFactory.createRangedIntegerValidator(-1, Integer.MAX_VALUE)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_DEDUPLICATION,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_NATIVE_LIBRARIES,
+                    String.valueOf(true),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_PARSED_JNLP,
+                    String.valueOf(true),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_STREAMING_XML_PARSER,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_CACHE_INDEX_FORMAT,
+                    ConfigurationConstants.CACHE_INDEX_FORMAT_TEXT,
+                    ValidatorFactory.createStringValidator(new String[]{
+                            ConfigurationConstants.CACHE_INDEX_FORMAT_TEXT,
+                            ConfigurationConstants.CACHE_INDEX_FORMAT_BINARY
+                    })
+            ),
             Setting.createDefault(
                     ConfigurationConstants.KEY_CACHE_ENABLED,
                     String.valueOf(false),
@@ -399,6 +479,15 @@ public class Defaults {
                     String.valueOf(true),
                     ValidatorFactory.createBooleanValidator()
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_LOGGING_QUEUE_OVERFLOW_POLICY,
+                    ConfigurationConstants.LOGGING_QUEUE_OVERFLOW_BLOCK,
+                    ValidatorFactory.createStringValidator(new String[]{
+                            ConfigurationConstants.LOGGING_QUEUE_OVERFLOW_BLOCK,
+                            ConfigurationConstants.LOGGING_QUEUE_OVERFLOW_DROP_OLDEST,
+                            ConfigurationConstants.LOGGING_QUEUE_OVERFLOW_DROP_DEBUG
+                    })
+            ),
 
             /*
              * JNLP association
@@ -490,6 +579,21 @@ public class Defaults {
                     String.valueOf(ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT),
                     ValidatorFactory.createRangedIntegerValidator(1, 24)
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_PARALLEL_JAR_VERIFICATION_COUNT,
+                    String.valueOf(ConfigurationConstants.DEFAULT_PARALLEL_JAR_VERIFICATION_COUNT),
+                    ValidatorFactory.createRangedIntegerValidator(1, 64)
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_SECURITY_VERIFICATION_RESULT_CACHE,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_PARALLEL_URL_DOWNLOAD,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
 
             /*
              * JVM executable for itw
@@ -499,6 +603,11 @@ public class Defaults {
                     null,
                     null
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_JVM_CLASS_DATA_SHARING,
+                    String.valueOf(false),
+                    ValidatorFactory.createBooleanValidator()
+            ),
             /*
              * enable manifest-attributes checks
              */
@@ -222,6 +222,7 @@ public class ApplicationInstance {
 
         } finally {
             stopped = true;
+            loader.logLookupStatistics();
             fireDestroyed();
         }
     }
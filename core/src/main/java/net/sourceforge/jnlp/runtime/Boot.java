@@ -33,6 +33,7 @@ import net.sourceforge.jnlp.LaunchException;
 import net.sourceforge.jnlp.Launcher;
 import net.sourceforge.jnlp.ParserSettings;
 import net.sourceforge.jnlp.cache.CacheUtil;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
 import net.sourceforge.jnlp.services.ServiceUtil;
 import net.sourceforge.jnlp.util.docprovider.IcedTeaWebTextsProvider;
 import net.sourceforge.jnlp.util.docprovider.JavaWsTextsProvider;
@@ -366,7 +367,15 @@ public final class Boot implements PrivilegedAction<Integer> {
     private ParserSettings getParserSettings() {
         final boolean strict = optionParser.hasOption(CommandLineOptions.STRICT);
         final boolean strictXml = optionParser.hasOption(CommandLineOptions.XML);
-        return new ParserSettings(strict, true, !strictXml);
+        return new ParserSettings(strict, true, !strictXml, isStreamingXmlParserEnabled());
+    }
+
+    private static boolean isStreamingXmlParserEnabled() {
+        try {
+            return Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_STREAMING_XML_PARSER));
+        } catch (Exception e) {
+            return false;
+        }
     }
 
     private URL locationToUrl(String location) throws LaunchException {
@@ -55,6 +55,7 @@ import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 
@@ -76,22 +77,71 @@ public final class CachedJarFileCallback implements URLJarFileCallBack {
     /* our managed cache */
     private final Map<UrlKey, URL> mapping;
 
+    /* mappings whose local file is only created when the jar is retrieved for the first time */
+    private final Map<UrlKey, Callable<URL>> lazyMapping;
+
     private CachedJarFileCallback() {
         mapping = new ConcurrentHashMap<>();
+        lazyMapping = new ConcurrentHashMap<>();
     }
 
     public void addMapping(URL remoteUrl, URL localUrl) {
         LOG.debug("CachedJarFileCallback.addMapping : {} -> {} ", remoteUrl, localUrl);
-        mapping.put(new UrlKey(remoteUrl), localUrl);
+        final UrlKey key = new UrlKey(remoteUrl);
+        mapping.put(key, localUrl);
+        lazyMapping.remove(key);
+    }
+
+    /**
+     * Adds a mapping to a local file which does not exist yet. The file is created by the
+     * given provider when the jar is retrieved for the first time.
+     *
+     * @param remoteUrl        the url of the jar as known to the classloader
+     * @param localUrlProvider creates the local file and returns its url
+     */
+    public void addLazyMapping(URL remoteUrl, Callable<URL> localUrlProvider) {
+        LOG.debug("CachedJarFileCallback.addLazyMapping : {}", remoteUrl);
+        final UrlKey key = new UrlKey(remoteUrl);
+        if (!mapping.containsKey(key)) {
+            lazyMapping.put(key, localUrlProvider);
+        }
+    }
+
+    private URL getLocalUrl(URL url) throws IOException {
+        final UrlKey key = new UrlKey(url);
+        final URL localUrl = mapping.get(key);
+        if (localUrl != null) {
+            return localUrl;
+        }
+
+        final Callable<URL> localUrlProvider = lazyMapping.get(key);
+        if (localUrlProvider == null) {
+            return null;
+        }
+        synchronized (localUrlProvider) {
+            final URL providedUrl = mapping.get(key);
+            if (providedUrl != null) {
+                return providedUrl;
+            }
+            try {
+                final URL createdUrl = localUrlProvider.call();
+                addMapping(url, createdUrl);
+                return createdUrl;
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to create local copy of " + url, e);
+            }
+        }
     }
 
     @Override
     public java.util.jar.JarFile retrieve(URL url) throws IOException {
-        URL localUrl = mapping.get(new UrlKey(url));
+        URL localUrl = getLocalUrl(url);
         if (localUrl == null) {
             if (url.getRef() != null) {
                 url = new URL(url.toString().substring(0, url.toString().lastIndexOf(url.getRef()) - 1));
-                localUrl = mapping.get(new UrlKey(url));
+                localUrl = getLocalUrl(url);
             }
         }
 
@@ -44,6 +44,7 @@ public class CodeBaseClassLoader extends URLClassLoader {
     @Override
     public void addURL(URL url) {
         super.addURL(url);
+        parentJNLPClassLoader.classPathChanged();
     }
 
     /*
@@ -0,0 +1,183 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.ExtensionDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
+import net.adoptopenjdk.icedteaweb.xmlparser.ParseException;
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.JNLPFileFactory;
+import net.sourceforge.jnlp.ParserSettings;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createFixedDaemonThreadPool;
+
+/**
+ * Extension JNLP files of a JNLP file and of all of its extensions, downloaded and parsed concurrently.
+ * <p>
+ * The extension classloaders are still created one after the other in the order of the extension
+ * elements, as the delegation between the loaders depends on that order. Creating a loader only
+ * needs the parsed file, so the files of the whole extension tree are fetched ahead of the loaders.
+ * Files are fetched once per location and version, which also ends the traversal at cycles.
+ * <p>
+ * The files are fetched while the outermost classloader initializes its extensions. Nested
+ * classloaders are created on the same thread and take their files from there.
+ */
+class ExtensionFiles implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExtensionFiles.class);
+
+    private static final ThreadLocal<ExtensionFiles> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returned to nested classloaders, whose extensions are already fetched by the outermost one.
+     */
+    private static final ExtensionFiles NESTED = new ExtensionFiles(null, 0, false);
+
+    interface FileLoader {
+        JNLPFile load(URL location, VersionString version) throws IOException, ParseException;
+    }
+
+    private final FileLoader loader;
+    private final int threadCount;
+    private final boolean owner;
+    private final Map<String, Future<JNLPFile>> files = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    ExtensionFiles(final FileLoader loader, final int threadCount) {
+        this(loader, threadCount, true);
+    }
+
+    private ExtensionFiles(final FileLoader loader, final int threadCount, final boolean owner) {
+        this.loader = loader;
+        this.threadCount = threadCount;
+        this.owner = owner;
+    }
+
+    /**
+     * Starts to fetch the extensions of a JNLP file and their extensions, unless the classloader of
+     * the file is created while another classloader initializes its extensions on this thread.
+     *
+     * @return the fetched files, to be closed when the extensions have been initialized
+     */
+    static ExtensionFiles fetch(final ExtensionDesc[] extensions, final String uniqueKey, final ParserSettings settings, final UpdatePolicy policy) {
+        if (CURRENT.get() != null) {
+            return NESTED;
+        }
+
+        final JNLPFileFactory factory = new JNLPFileFactory();
+        final ExtensionFiles result = new ExtensionFiles((location, version) -> factory.create(location, uniqueKey, version, settings, policy), getConfiguredThreadCount());
+        if (extensions != null && extensions.length > 0) {
+            CURRENT.set(result);
+            result.prefetch(extensions);
+        }
+        return result;
+    }
+
+    /**
+     * Loads an extension JNLP file. A file fetched ahead for the classloaders being created
+     * on this thread is taken from there.
+     */
+    static JNLPFile load(final URL location, final String uniqueKey, final VersionString version, final ParserSettings settings, final UpdatePolicy policy) throws IOException, ParseException {
+        final ExtensionFiles current = CURRENT.get();
+        final JNLPFile fetched = current != null ? current.get(location, version) : null;
+        if (fetched != null) {
+            return fetched;
+        }
+        return new JNLPFileFactory().create(location, uniqueKey, version, settings, policy);
+    }
+
+    /**
+     * Starts to fetch the given extensions and, once fetched, their extensions.
+     */
+    void prefetch(final ExtensionDesc[] extensions) {
+        if (extensions == null) {
+            return;
+        }
+        for (ExtensionDesc extension : extensions) {
+            final URL location = extension.getLocation();
+            final VersionString version = extension.getVersion();
+            files.computeIfAbsent(key(location, version), k -> executor().submit(() -> {
+                final JNLPFile file = loader.load(location, version);
+                prefetch(file.getResources().getExtensions());
+                return file;
+            }));
+        }
+    }
+
+    /**
+     * @return the fetched file or {@code null} if it has not been fetched ahead
+     */
+    JNLPFile get(final URL location, final VersionString version) throws IOException, ParseException {
+        final Future<JNLPFile> future = files.get(key(location, version));
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + location, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ParseException) {
+                throw (ParseException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to fetch " + location, cause);
+        }
+    }
+
+    int size() {
+        return files.size();
+    }
+
+    @Override
+    public void close() {
+        if (!owner) {
+            return;
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = createFixedDaemonThreadPool(threadCount);
+            LOG.debug("Fetching extension JNLP files with up to {} threads", threadCount);
+        }
+        return executor;
+    }
+
+    private static String key(final URL location, final VersionString version) {
+        return location + (version != null ? "#" + version : "");
+    }
+
+    private static int getConfiguredThreadCount() {
+        try {
+            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT);
+            return Integer.parseInt(configValue);
+        } catch (Exception e) {
+            return ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT;
+        }
+    }
+}
@@ -36,7 +36,6 @@ import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
 import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
 import net.adoptopenjdk.icedteaweb.xmlparser.ParseException;
 import net.sourceforge.jnlp.JNLPFile;
-import net.sourceforge.jnlp.JNLPFileFactory;
 import net.sourceforge.jnlp.JNLPMatcher;
 import net.sourceforge.jnlp.JNLPMatcherException;
 import net.sourceforge.jnlp.LaunchException;
@@ -52,12 +51,12 @@ import net.sourceforge.jnlp.security.AppVerifier;
 import net.sourceforge.jnlp.security.JNLPAppVerifier;
 import net.sourceforge.jnlp.tools.JarCertVerifier;
 import net.sourceforge.jnlp.util.JarFile;
+import net.sourceforge.jnlp.util.JarScan;
 import net.sourceforge.jnlp.util.UrlKey;
 import net.sourceforge.jnlp.util.UrlUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FilePermission;
 import java.io.IOException;
 import java.io.InputStream;
@@ -70,6 +69,7 @@ import java.security.AccessControlException;
 import java.security.AccessController;
 import java.security.AllPermission;
 import java.security.CodeSource;
+import java.security.NoSuchAlgorithmException;
 import java.security.Permission;
 import java.security.PermissionCollection;
 import java.security.Permissions;
@@ -83,15 +83,15 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.stream.Collectors;
@@ -149,10 +149,10 @@ public class JNLPClassLoader extends URLClassLoader {
     private static final Map<String, JNLPClassLoader> uniqueKeyToLoader = new ConcurrentHashMap<>();
 
     /**
-     * map from JNLPFile unique key to lock, the lock is needed to enforce
+     * locks per JNLPFile unique key, the lock is needed to enforce
      * correct initialization of applets that share a unique key
      */
-    private static final Map<String, ReentrantLock> uniqueKeyToLock = new HashMap<>();
+    private static final UniqueKeyLocks uniqueKeyLocks = new UniqueKeyLocks();
 
     /**
      * Provides a search path & temporary storage for native code
@@ -221,6 +221,22 @@ public class JNLPClassLoader extends URLClassLoader {
      */
     private final List<JARDesc> available = Collections.synchronizedList(new ArrayList<>());
 
+    /**
+     * Guards taking parts out of {@link #available} and handing them back. Never held while a part
+     * is downloaded, verified or activated.
+     */
+    private final Object partActivationLock = new Object();
+
+    /**
+     * jars taken out of {@link #available} which are being activated, guarded by {@link #partActivationLock}
+     */
+    private final Set<JARDesc> activating = new HashSet<>();
+
+    /**
+     * jars the background activation leaves to the activation on demand, guarded by {@link #partActivationLock}
+     */
+    private final Set<JARDesc> leftToActivationOnDemand = new HashSet<>();
+
     /**
      * the jar cert verifier tool to verify our jars
      */
@@ -245,12 +261,30 @@ public class JNLPClassLoader extends URLClassLoader {
     private final Set<String> classpaths = Collections.synchronizedSet(new HashSet<>());
 
     /**
-     * File entries in the jar files available to this classloader Synchronized
-     * sinc this field may become shared data between multiple classloading
-     * threads. See loadClass(String) and
+     * File entries in the jar files available to this classloader. Used to skip
+     * searching the jars of this classloader for classes and resources they do
+     * not contain. Thread safe since this field may become shared data between
+     * multiple classloading threads. See loadClass(String) and
      * CodebaseClassLoader.findClassNonRecursive(String).
      */
-    private final Set<String> jarEntries = Collections.synchronizedSet(new TreeSet<>());
+    private final JarEntryIndex jarEntries = new JarEntryIndex();
+
+    /**
+     * Locations on the classpath of this classloader. Used to notice when the
+     * classpath actually changes.
+     */
+    private final Set<String> classpathLocations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Class and resource names which have not been found after all parts have
+     * been activated.
+     */
+    private final NegativeLookupCache negativeLookups = new NegativeLookupCache(getConfiguredNegativeLookupCacheSize());
+
+    /**
+     * Loaders which have this loader as extension and thus search its classpath.
+     */
+    private final Set<JNLPClassLoader> loadersUsingThis = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
     /**
      * Map of specific original (remote) CodeSource Urls to securitydesc
@@ -389,26 +423,6 @@ public class JNLPClassLoader extends URLClassLoader {
         this.security = securityDelegate.getClassLoaderSecurity(codebase);
     }
 
-    /**
-     * Gets the lock for a given unique key, creating one if it does not yet
-     * exist. This operation is atomic & thread-safe.
-     *
-     * @param uniqueKey the file whose unique key should be used
-     * @return the lock
-     */
-    private static ReentrantLock getUniqueKeyLock(String uniqueKey) {
-        synchronized (uniqueKeyToLock) {
-            ReentrantLock storedLock = uniqueKeyToLock.get(uniqueKey);
-
-            if (storedLock == null) {
-                storedLock = new ReentrantLock();
-                uniqueKeyToLock.put(uniqueKey, storedLock);
-            }
-
-            return storedLock;
-        }
-    }
-
     /**
      * Creates a fully initialized JNLP classloader for the specified JNLPFile,
      * to be used as an applet/application's classloader. In contrast, JNLP
@@ -485,7 +499,7 @@ public class JNLPClassLoader extends URLClassLoader {
         JNLPClassLoader loader;
         String uniqueKey = file.getUniqueKey();
 
-        synchronized (getUniqueKeyLock(uniqueKey)) {
+        try (UniqueKeyLocks.Held ignored = uniqueKeyLocks.lock(uniqueKey)) {
             JNLPClassLoader baseLoader = uniqueKeyToLoader.get(uniqueKey);
 
             // A null baseloader implies that no loader has been created
@@ -535,11 +549,11 @@ public class JNLPClassLoader extends URLClassLoader {
 
         JNLPClassLoader loader;
 
-        synchronized (getUniqueKeyLock(uniqueKey)) {
+        try (UniqueKeyLocks.Held ignored = uniqueKeyLocks.lock(uniqueKey)) {
             loader = uniqueKeyToLoader.get(uniqueKey);
 
             if (loader == null || loader.getJNLPFile().getFileLocation() == null || !UrlUtils.equalUrls(location, loader.getJNLPFile().getFileLocation())) {
-                final JNLPFile jnlpFile = new JNLPFileFactory().create(location, uniqueKey, version, settings, policy);
+                final JNLPFile jnlpFile = ExtensionFiles.load(location, uniqueKey, version, settings, policy);
 
                 loader = getInstance(jnlpFile, policy, mainName, enableCodeBase);
             }
@@ -558,14 +572,17 @@ public class JNLPClassLoader extends URLClassLoader {
         loaderList.add(this);
 
         final ExtensionDesc[] extDescs = resources.getExtensions();
-        if (extDescs != null) {
-            final String uniqueKey = this.getJNLPFile().getUniqueKey();
-            for (ExtensionDesc ext : extDescs) {
-                try {
-                    final JNLPClassLoader loader = getInstance(ext.getLocation(), uniqueKey, ext.getVersion(), file.getParserSettings(), updatePolicy, mainClass, enableCodeBase);
-                    loaderList.add(loader);
-                } catch (Exception ex) {
-                    exceptions.add(new Exception("Exception while initializing extension '" + ext.getLocation() + "'", ex));
+        final String uniqueKey = this.getJNLPFile().getUniqueKey();
+        // the extension files are fetched concurrently, the loaders are still created in order
+        try (ExtensionFiles ignored = ExtensionFiles.fetch(extDescs, uniqueKey, file.getParserSettings(), updatePolicy)) {
+            if (extDescs != null) {
+                for (ExtensionDesc ext : extDescs) {
+                    try {
+                        final JNLPClassLoader loader = getInstance(ext.getLocation(), uniqueKey, ext.getVersion(), file.getParserSettings(), updatePolicy, mainClass, enableCodeBase);
+                        loaderList.add(loader);
+                    } catch (Exception ex) {
+                        exceptions.add(new Exception("Exception while initializing extension '" + ext.getLocation() + "'", ex));
+                    }
                 }
             }
         }
@@ -576,6 +593,11 @@ public class JNLPClassLoader extends URLClassLoader {
         }
 
         loaders = loaderList.toArray(new JNLPClassLoader[0]);
+        for (JNLPClassLoader loader : loaders) {
+            if (loader != this) {
+                loader.loadersUsingThis.add(this);
+            }
+        }
     }
 
     /**
@@ -636,8 +658,7 @@ public class JNLPClassLoader extends URLClassLoader {
         }
         boolean isInvalid = false;
         try {
-            JarFile jarFile = new JarFile(cacheFile.getAbsolutePath());
-            jarFile.close();
+            JarScan.of(cacheFile);
         } catch (IOException ioe) {
             //Catch a ZipException or any other read failure
             isInvalid = true;
@@ -886,18 +907,16 @@ public class JNLPClassLoader extends URLClassLoader {
                     continue; // JAR not found. Keep going.
                 }
 
-                final JarFile jarFile = new JarFile(localFile);
-
-                for (JarEntry entry : Collections.list(jarFile.entries())) {
-                    String jeName = entry.getName().replaceAll("/", ".");
+                for (String entryName : JarScan.of(localFile).getEntryNames()) {
+                    String jeName = entryName.replace('/', '.');
                     if (jeName.equals(desiredJarEntryName)) {
                         foundMainJar = true;
-                        verifySignedJNLP(jarFile);
+                        try (JarFile jarFile = new JarFile(localFile)) {
+                            verifySignedJNLP(jarFile);
+                        }
                         break;
                     }
                 }
-
-                jarFile.close();
             } catch (IOException e) {
                 /*
                  * After this exception is caught, it is escaped. This will skip
@@ -1189,6 +1208,7 @@ public class JNLPClassLoader extends URLClassLoader {
 
             // add jar
             File localFile = tracker.getCacheFile(jar.getLocation());
+            JarScan scan = null;
             try {
                 URL location = jar.getLocation(); // non-cacheable, use source location
                 if (localFile != null) {
@@ -1200,70 +1220,13 @@ public class JNLPClassLoader extends URLClassLoader {
                     // which does a wait(), waiting for notification (presumably
                     // thrown after a resource is fetched). This bug manifests itself
                     // particularly when using The FileManager applet from Webmin.
-                    try (JarFile jarFile = new JarFile(localFile)) {
-                        for (JarEntry je : Collections.list(jarFile.entries())) {
-
-                            // another jar in my jar? it is more likely than you think
-                            if (je.getName().endsWith(".jar")) {
-                                // We need to extract that jar so that it can be loaded
-                                // (inline loading with "jar:..!/..." path will not work
-                                // with standard classloader methods)
-
-                                String name = je.getName();
-                                if (name.contains("..")) {
-                                    name = CacheUtil.hex(name, name);
-                                }
-                                String extractedJarLocation = localFile + ".nested/" + name;
-                                File parentDir = new File(extractedJarLocation).getParentFile();
-                                if (!parentDir.isDirectory() && !parentDir.mkdirs()) {
-                                    throw new RuntimeException("Unable to extract nested jar.");
-                                }
-                                FileOutputStream extractedJar = new FileOutputStream(extractedJarLocation);
-                                InputStream is = jarFile.getInputStream(je);
-
-                                byte[] bytes = new byte[1024];
-                                int read = is.read(bytes);
-                                int fileSize = read;
-                                while (read > 0) {
-                                    extractedJar.write(bytes, 0, read);
-                                    read = is.read(bytes);
-                                    fileSize += read;
-                                }
-
-                                is.close();
-                                extractedJar.close();
-
-                                // 0 byte file? skip
-                                if (fileSize <= 0) {
-                                    continue;
-                                }
-
-                                tracker.addResource(new File(extractedJarLocation).toURI().toURL(), (VersionString) null);
-
-                                URL codebase = file.getCodeBase();
-                                if (codebase == null) {
-                                    //FIXME: codebase should be the codebase of the Main Jar not
-                                    //the location. Although, it still works in the current state.
-                                    codebase = file.getResources().getMainJAR().getLocation();
-                                }
-
-                                final SecurityDesc jarSecurity = securityDelegate.getJarPermissions(codebase);
-
-                                try {
-                                    URL fileURL = new URL("file://" + extractedJarLocation);
-                                    // there is no remote URL for this, so lets fake one
-                                    URL fakeRemote = new URL(jar.getLocation().toString() + "!" + je.getName());
-                                    CachedJarFileCallback.getInstance().addMapping(fakeRemote, fileURL);
-                                    addURL(fakeRemote);
+                    scan = JarScan.of(localFile);
 
-                                    jarLocationSecurityMap.put(new UrlKey(fakeRemote), jarSecurity);
-
-                                } catch (MalformedURLException mfue) {
-                                    LOG.error("Unable to add extracted nested jar to classpath", mfue);
-                                }
-                            }
-
-                            jarEntries.add(je.getName());
+                    // another jar in my jar? it is more likely than you think
+                    if (!scan.getNestedJars().isEmpty()) {
+                        final NestedJars nestedJars = new NestedJars(localFile);
+                        for (String nestedJar : scan.getNestedJars()) {
+                            addNestedJar(jar, nestedJars, nestedJar);
                         }
                     }
                 }
@@ -1275,11 +1238,12 @@ public class JNLPClassLoader extends URLClassLoader {
                 if (localFile != null) {
                     CachedJarFileCallback.getInstance().addMapping(jar.getLocation(), localFile.toURI().toURL());
 
-                    try (JarFile jarFile = new JarFile(localFile.getAbsolutePath())) {
-                        JarIndexAccess index = JarIndexAccess.getJarIndex(jarFile.getNative());
-                        if (index != null) {
-                            jarIndexes.add(index);
-                        }
+                    JarIndexAccess index = scan.getJarIndex();
+                    if (index != null) {
+                        jarIndexes.add(index);
+                    }
+                    if (JarEntryIndex.isIndexable(scan)) {
+                        jarEntries.addJar(jar.getLocation(), scan.getEntryNames());
                     }
                 } else {
                     CachedJarFileCallback.getInstance().addMapping(jar.getLocation(), jar.getLocation());
@@ -1297,6 +1261,121 @@ public class JNLPClassLoader extends URLClassLoader {
         return null;
     }
 
+    /**
+     * Adds a jar contained in an activated jar to the classpath.
+     * <p>
+     * The nested jar needs to be extracted so that it can be loaded (inline loading with "jar:..!/..." path
+     * will not work with standard classloader methods). A copy extracted from the same version of the
+     * outer jar is reused. Otherwise the jar is only extracted when it is opened for the first time.
+     */
+    private void addNestedJar(final JARDesc jar, final NestedJars nestedJars, final String entryName) throws IOException, NoSuchAlgorithmException {
+        URL codebase = file.getCodeBase();
+        if (codebase == null) {
+            //FIXME: codebase should be the codebase of the Main Jar not
+            //the location. Although, it still works in the current state.
+            codebase = file.getResources().getMainJAR().getLocation();
+        }
+
+        final SecurityDesc jarSecurity = securityDelegate.getJarPermissions(codebase);
+
+        try {
+            // there is no remote URL for this, so lets fake one
+            final URL fakeRemote = new URL(jar.getLocation().toString() + "!" + entryName);
+            if (nestedJars.isExtracted(entryName)) {
+                final File extractedJar = nestedJars.fileOf(entryName);
+                CachedJarFileCallback.getInstance().addMapping(fakeRemote, nestedJarExtracted(fakeRemote, extractedJar));
+            } else {
+                CachedJarFileCallback.getInstance().addLazyMapping(fakeRemote, () -> {
+                    final PrivilegedExceptionAction<File> extract = () -> nestedJars.extract(entryName);
+                    return nestedJarExtracted(fakeRemote, AccessController.doPrivileged(extract, acc));
+                });
+            }
+            addURL(fakeRemote);
+
+            jarLocationSecurityMap.put(new UrlKey(fakeRemote), jarSecurity);
+
+        } catch (MalformedURLException mfue) {
+            LOG.error("Unable to add extracted nested jar to classpath", mfue);
+        }
+    }
+
+    private URL nestedJarExtracted(final URL fakeRemote, final File extractedJar) throws MalformedURLException {
+        final URL fileURL = extractedJar.toURI().toURL();
+        tracker.addResource(fileURL, (VersionString) null);
+        indexJarEntries(fakeRemote, extractedJar);
+        return fileURL;
+    }
+
+    @Override
+    protected void addURL(final URL url) {
+        super.addURL(url);
+        jarEntries.locationAdded(url);
+        if (classpathLocations.add(url.toString())) {
+            classPathChanged();
+        }
+    }
+
+    /**
+     * Forgets the names which have not been found by this loader and by all loaders searching its classpath.
+     */
+    void classPathChanged() {
+        classPathChanged(Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private void classPathChanged(final Set<JNLPClassLoader> invalidated) {
+        if (invalidated.add(this)) {
+            negativeLookups.classPathChanged();
+            final List<JNLPClassLoader> users;
+            synchronized (loadersUsingThis) {
+                users = new ArrayList<>(loadersUsingThis);
+            }
+            users.forEach(loader -> loader.classPathChanged(invalidated));
+        }
+    }
+
+    /**
+     * Logs how often names which have not been found before have been looked up again by this loader
+     * and how much the locks of the unique keys of all loaders have been contended.
+     */
+    public void logLookupStatistics() {
+        LOG.debug("Negative lookups of {}: {} hits, {} misses, {} invalidations, {} names remembered",
+                file.getUniqueKey(), negativeLookups.getHitCount(), negativeLookups.getMissCount(),
+                negativeLookups.getInvalidationCount(), negativeLookups.size());
+        LOG.debug("Unique key locks: {} acquisitions, {} contended, {} ms waited",
+                uniqueKeyLocks.getAcquisitionCount(), uniqueKeyLocks.getContendedAcquisitionCount(),
+                TimeUnit.NANOSECONDS.toMillis(uniqueKeyLocks.getWaitNanos()));
+    }
+
+    private static int getConfiguredNegativeLookupCacheSize() {
+        try {
+            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_NEGATIVE_LOOKUP_CACHE_SIZE);
+            return Integer.parseInt(configValue);
+        } catch (Exception e) {
+            return ConfigurationConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_SIZE;
+        }
+    }
+
+    /**
+     * Adds the entries of a locally available jar to the index of this classloader.
+     * Jars which cannot be indexed reliably are left out, which makes the index inconclusive.
+     *
+     * @param location  the location of the jar as added to the classpath
+     * @param localFile the local copy of the jar, may be {@code null}
+     */
+    private void indexJarEntries(final URL location, final File localFile) {
+        if (localFile == null || !localFile.isFile()) {
+            return;
+        }
+        try {
+            final JarScan scan = JarScan.of(localFile);
+            if (JarEntryIndex.isIndexable(scan)) {
+                jarEntries.addJar(location, scan.getEntryNames());
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to index the entries of {}: {}", localFile, e.getMessage());
+        }
+    }
+
     /**
      * Return the absolute path to the native library.
      */
@@ -1357,15 +1436,23 @@ public class JNLPClassLoader extends URLClassLoader {
      * @param jars the jars
      */
     private void waitForJars(List<JARDesc> jars) {
-        URL[] urls = new URL[jars.size()];
+        // jars which are already downloaded do not need a download indicator
+        final URL[] urls = jars.stream()
+                .map(JARDesc::getLocation)
+                .filter(location -> !isDownloaded(location))
+                .toArray(URL[]::new);
 
-        for (int i = 0; i < jars.size(); i++) {
-            JARDesc jar = jars.get(i);
-
-            urls[i] = jar.getLocation();
+        if (urls.length > 0) {
+            CacheUtil.waitForResources(this, tracker, urls, file.getTitle());
         }
+    }
 
-        CacheUtil.waitForResources(this, tracker, urls, file.getTitle());
+    private boolean isDownloaded(final URL location) {
+        try {
+            return tracker.checkResource(location);
+        } catch (IllegalResourceDescriptorException e) {
+            return false;
+        }
     }
 
     /**
@@ -1440,16 +1527,51 @@ public class JNLPClassLoader extends URLClassLoader {
     public Class<?> loadClass(final String name) throws ClassNotFoundException {
         final List<ExceptionalSupplier<Class<?>, ClassNotFoundException>> list = new ArrayList<>();
         synchronized (getClassLoadingLock(name)) {
+            final long searchGeneration = negativeLookups.currentGeneration();
             list.add(() -> findLoadedClassAll(name));
             list.add(() -> loadClassFromParentClassloader(name));
+            list.add(() -> assertNotKnownAbsent(name));
             list.add(() -> loadClassExt(name));
             list.add(() -> loadClassFromInternalManifestClasspath(name));
             list.add(() -> loadFromJarIndexes(name));
-            return list.stream()
-                    .map(ExceptionalSupplier::getResultOfCallOrNull)
-                    .filter(Objects::nonNull)
-                    .findFirst()
-                    .orElseThrow(() -> new ClassNotFoundException(name));
+            boolean definitelyNotFound = true;
+            for (ExceptionalSupplier<Class<?>, ClassNotFoundException> supplier : list) {
+                try {
+                    final Class<?> result = supplier.call();
+                    if (result != null) {
+                        return result;
+                    }
+                } catch (KnownAbsentClassException e) {
+                    throw e;
+                } catch (ClassNotFoundException ignored) {
+                } catch (Exception e) {
+                    // e.g. a part failed to download, the class may be found by the next attempt
+                    LOG.debug("Failed to search for class {}: {}", name, e.getMessage());
+                    definitelyNotFound = false;
+                }
+            }
+            if (definitelyNotFound) {
+                negativeLookups.classNotFound(name, searchGeneration);
+            }
+            throw new ClassNotFoundException(name);
+        }
+    }
+
+    /**
+     * Stops the search for a class which has not been found before and the classpath has not changed since.
+     */
+    private Class<?> assertNotKnownAbsent(final String name) throws ClassNotFoundException {
+        if (negativeLookups.isKnownAbsentClass(name)) {
+            throw new KnownAbsentClassException(name);
+        }
+        return null;
+    }
+
+    private static class KnownAbsentClassException extends ClassNotFoundException {
+        private static final long serialVersionUID = 1L;
+
+        private KnownAbsentClassException(final String name) {
+            super(name);
         }
     }
 
@@ -1573,6 +1695,7 @@ public class JNLPClassLoader extends URLClassLoader {
                 return null;
             });
 
+            indexJarEntries(remoteURL, tracker.getCacheFile(remoteURL));
             addURL(remoteURL);
             CachedJarFileCallback.getInstance().addMapping(remoteURL, cachedUrl);
 
@@ -1590,14 +1713,59 @@ public class JNLPClassLoader extends URLClassLoader {
      */
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final Class<?> result = findClassInLoaders(name);
+        if (result != null) {
+            return result;
+        }
+
+        // Try codebase loader
+        if (codeBaseLoader != null) {
+            return codeBaseLoader.findClassNonRecursive(name);
+        }
+
+        // All else failed. Throw CNFE
+        throw new ClassNotFoundException(name);
+    }
+
+    /**
+     * Find the class in this loader or any of its extension loaders including their codebase loaders.
+     *
+     * @return the class or {@code null} if not found
+     */
+    private Class<?> findClassOrNull(String name) throws ClassNotFoundException {
+        final Class<?> result = findClassInLoaders(name);
+        if (result != null || codeBaseLoader == null) {
+            return result;
+        }
+        try {
+            return codeBaseLoader.findClassNonRecursive(name);
+        } catch (ClassNotFoundException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Find the class in the jars of this loader or any of its extension loaders.
+     * Loaders whose jars definitely do not contain the class are skipped.
+     *
+     * @return the class or {@code null} if not found
+     */
+    private Class<?> findClassInLoaders(String name) throws ClassNotFoundException {
+        final String classFileName = name.replace('.', '/') + ".class";
         for (JNLPClassLoader loader : loaders) {
             try {
                 if (loader == this) {
+                    if (jarEntries.isDefinitelyMissing(classFileName)) {
+                        continue;
+                    }
                     final String fName = name;
                     return AccessController.doPrivileged(
                             (PrivilegedExceptionAction<Class<?>>) () -> JNLPClassLoader.super.findClass(fName), getAccessControlContextForClassLoading());
                 } else {
-                    return loader.findClass(name);
+                    final Class<?> result = loader.findClassOrNull(name);
+                    if (result != null) {
+                        return result;
+                    }
                 }
             } catch (ClassNotFoundException | PrivilegedActionException ignored) {
             } catch (ClassFormatError cfe) {
@@ -1606,14 +1774,7 @@ public class JNLPClassLoader extends URLClassLoader {
                 throw new ClassNotFoundException(this.mainClass + " in main classloader ", ex);
             }
         }
-
-        // Try codebase loader
-        if (codeBaseLoader != null) {
-            return codeBaseLoader.findClassNonRecursive(name);
-        }
-
-        // All else failed. Throw CNFE
-        throw new ClassNotFoundException(name);
+        return null;
     }
 
     /**
@@ -1665,10 +1826,14 @@ public class JNLPClassLoader extends URLClassLoader {
      */
     @Override
     public URL findResource(String name) {
+        if (negativeLookups.isKnownAbsentResource(name)) {
+            return null;
+        }
+
         URL result = null;
 
         try {
-            Enumeration<URL> e = findResources(name);
+            Enumeration<URL> e = searchResources(name);
             if (e.hasMoreElements()) {
                 result = e.nextElement();
             }
@@ -1690,6 +1855,14 @@ public class JNLPClassLoader extends URLClassLoader {
      */
     @Override
     public Enumeration<URL> findResources(String name) throws IOException {
+        if (negativeLookups.isKnownAbsentResource(name)) {
+            return Collections.emptyEnumeration();
+        }
+        return searchResources(name);
+    }
+
+    private Enumeration<URL> searchResources(String name) throws IOException {
+        final long searchGeneration = negativeLookups.currentGeneration();
         Enumeration<URL> lresources = findResourcesBySearching(name);
 
         try {
@@ -1697,6 +1870,9 @@ public class JNLPClassLoader extends URLClassLoader {
             while (!lresources.hasMoreElements() && addNextResource() != null) {
                 lresources = findResourcesBySearching(name);
             }
+            if (!lresources.hasMoreElements()) {
+                negativeLookups.resourceNotFound(name, searchGeneration);
+            }
         } catch (LaunchException le) {
             LOG.error("Failed to load resources", le);
         }
@@ -1717,6 +1893,9 @@ public class JNLPClassLoader extends URLClassLoader {
             // the original caller? infinite recursion?
 
             if (loader == this) {
+                if (jarEntries.isDefinitelyMissing(name)) {
+                    continue;
+                }
                 final String fName = name;
                 try {
                     e = AccessController.doPrivileged((PrivilegedExceptionAction<Enumeration<URL>>) () -> JNLPClassLoader.super.findResources(fName), getAccessControlContextForClassLoading());
@@ -1786,33 +1965,220 @@ public class JNLPClassLoader extends URLClassLoader {
      *                         jar, fails to be verified or does not match
      */
     private JNLPClassLoader addNextResource() throws LaunchException {
-        if (available.isEmpty()) {
-            for (int i = 1; i < loaders.length; i++) {
-                JNLPClassLoader result = loaders[i].addNextResource();
+        if (activateNextPart(false)) {
+            return this;
+        }
+
+        for (int i = 1; i < loaders.length; i++) {
+            JNLPClassLoader result = loaders[i].addNextResource();
 
-                if (result != null) {
-                    return result;
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Downloads and activates the next part of this classloader which is not yet active.
+     * The part is taken out of the available jars while holding the activation lock, so no other thread
+     * activates it as well, and is downloaded, verified and activated without holding the lock.
+     * A part which is not activated is handed back.
+     * <p>
+     * The background activation leaves parts which need to be verified to the activation on demand,
+     * so a class miss waiting for a part activated in the background never waits for a prompt.
+     *
+     * @param inBackground whether the part is activated in the background without a download indicator
+     * @return {@code false} if no part is left to activate or the background activation has been interrupted
+     * @throws LaunchException Thrown if the signed JNLP file, within the main
+     *                         jar, fails to be verified or does not match
+     */
+    private boolean activateNextPart(final boolean inBackground) throws LaunchException {
+        final List<JARDesc> jars;
+        synchronized (partActivationLock) {
+            jars = takeNextPart(inBackground);
+        }
+        if (jars == null) {
+            return false;
+        }
+        if (jars.isEmpty()) {
+            // other threads have activated parts in the meantime
+            return true;
+        }
+
+        boolean activated = false;
+        try {
+            if (!inBackground) {
+                waitForJars(jars);
+            } else if (!prepareJarsQuietly(jars)) {
+                return false;
+            } else if (needsVerification(jars)) {
+                LOG.debug("Leaving the part of {} to the activation on demand", jars.get(0).getLocation());
+                synchronized (partActivationLock) {
+                    leftToActivationOnDemand.addAll(jars);
                 }
+                return true;
+            }
+            checkForMain(jars);
+            activateJars(jars);
+            activated = true;
+        } finally {
+            synchronized (partActivationLock) {
+                activating.removeAll(jars);
+                if (!activated) {
+                    available.addAll(0, jars);
+                }
+                partActivationLock.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the next part out of the available jars. Must be called while holding {@link #partActivationLock}.
+     * If only parts which are being activated by other threads are left, a class miss waits until they are active.
+     *
+     * @param inBackground whether the part is taken by the background activation, which skips the parts
+     *                     left to the activation on demand and does not wait
+     * @return the jars of the part, an empty list if other threads have activated parts while waiting
+     * or {@code null} if there is no part left
+     */
+    private List<JARDesc> takeNextPart(final boolean inBackground) {
+        boolean waited = false;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                final JARDesc nextJar = nextAvailableJar(inBackground);
+                if (nextJar != null) {
+                    final LinkedHashSet<JARDesc> result = new LinkedHashSet<>();
+                    result.add(nextJar);
+                    result.addAll(getAllAvailableJarsInPart(nextJar.getPart()));
+
+                    final List<JARDesc> jars = new ArrayList<>(result);
+                    available.removeAll(jars);
+                    activating.addAll(jars);
+                    return jars;
+                }
+                if (inBackground || activating.isEmpty()) {
+                    return waited ? Collections.emptyList() : null;
+                }
+                try {
+                    partActivationLock.wait();
+                } catch (InterruptedException e) {
+                    // the class is looked up anyway
+                    interrupted = true;
+                }
+                waited = true;
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
             }
-            return null;
         }
+    }
 
-        final List<JARDesc> jars = getNextJarsToLoad();
+    private JARDesc nextAvailableJar(final boolean inBackground) {
+        synchronized (available) {
+            for (JARDesc jar : available) {
+                if (!inBackground || !leftToActivationOnDemand.contains(jar)) {
+                    return jar;
+                }
+            }
+        }
+        return null;
+    }
 
-        checkForMain(jars);
-        activateJars(jars);
+    /**
+     * Whether the activation of the jars verifies the signed JNLP file, which is the case if they contain the main class.
+     * See {@link #checkForMain(List)}.
+     */
+    private boolean needsVerification(final List<JARDesc> jars) {
+        final String main = mainClass != null ? mainClass : ManifestAttributesReader.getAttributeFromJars(Attributes.Name.MAIN_CLASS, jars, tracker);
+        if (main == null) {
+            return false;
+        }
 
-        return this;
+        final String desiredJarEntryName = main + ".class";
+        for (JARDesc jar : jars) {
+            try {
+                final File localFile = tracker.getCacheFile(jar.getLocation());
+                if (localFile != null && JarScan.of(localFile).getEntryNames().stream()
+                        .anyMatch(entryName -> entryName.replace('/', '.').equals(desiredJarEntryName))) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // checkForMain skips the jar as well
+                LOG.debug("Failed to scan {}: {}", jar.getLocation(), e.getMessage());
+            }
+        }
+        return false;
     }
 
-    private List<JARDesc> getNextJarsToLoad() {
-        final JARDesc nextJar = available.get(0);
+    /**
+     * Waits for the download of the given jars without a download indicator and scans them,
+     * so that their activation does not need to read them again.
+     *
+     * @return {@code false} if the thread has been interrupted while waiting
+     */
+    private boolean prepareJarsQuietly(final List<JARDesc> jars) {
+        final URL[] urls = jars.stream().map(JARDesc::getLocation).toArray(URL[]::new);
+        try {
+            tracker.waitForResources(urls);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
 
-        final LinkedHashSet<JARDesc> result = new LinkedHashSet<>();
-        result.add(nextJar);
-        result.addAll(getAllAvailableJarsInPart(nextJar.getPart()));
+        for (JARDesc jar : jars) {
+            try {
+                final File localFile = tracker.getCacheFile(jar.getLocation());
+                if (localFile != null) {
+                    JarScan.of(localFile);
+                }
+            } catch (Exception e) {
+                LOG.debug("Failed to scan {} ahead of its activation: {}", jar.getLocation(), e.getMessage());
+            }
+        }
+        return true;
+    }
 
-        return new ArrayList<>(result);
+    /**
+     * Activates all parts of this classloader and its extension classloaders which are not yet active
+     * in a background thread of minimal priority, if enabled in the configuration.
+     * Class misses then find their classes in jars which are already active instead of waiting for
+     * the download and activation of the part. Should be called once the main class has been loaded.
+     * Parts containing the main class are left to the activation on demand.
+     */
+    public void activateLazyPartsInBackground() {
+        if (!Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_BACKGROUND_PART_ACTIVATION))) {
+            return;
+        }
+
+        final Thread activator = new Thread(() -> {
+            try {
+                activateRemainingParts(Collections.newSetFromMap(new IdentityHashMap<>()));
+                LOG.debug("All parts of {} have been activated in the background", file.getFileLocation());
+            } catch (Exception e) {
+                LOG.error("Background activation of parts stopped", e);
+            }
+        }, "ITW-BackgroundPartActivation");
+        activator.setDaemon(true);
+        activator.setPriority(Thread.MIN_PRIORITY);
+        activator.start();
+    }
+
+    private void activateRemainingParts(final Set<JNLPClassLoader> visited) throws LaunchException {
+        if (!visited.add(this)) {
+            return;
+        }
+
+        while (!Thread.currentThread().isInterrupted() && activateNextPart(true)) {
+            LOG.debug("Activated a part of {} in the background", file.getFileLocation());
+        }
+
+        for (int i = 1; i < loaders.length; i++) {
+            loaders[i].activateRemainingParts(visited);
+        }
     }
 
     public boolean getSigning() {
@@ -1897,6 +2263,7 @@ public class JNLPClassLoader extends URLClassLoader {
         }
 
         // jars
+        jarEntries.addAll(extLoader.jarEntries);
         for (URL u : extLoader.getURLs()) {
             addURL(u);
         }
@@ -1956,7 +2323,7 @@ public class JNLPClassLoader extends URLClassLoader {
         }
 
         // NB: There will only ever be one class-loader per unique-key
-        synchronized (getUniqueKeyLock(file.getUniqueKey())) {
+        try (UniqueKeyLocks.Held ignored = uniqueKeyLocks.lock(file.getUniqueKey())) {
             useCount++;
         }
     }
@@ -2068,11 +2435,12 @@ public class JNLPClassLoader extends URLClassLoader {
         String uniqueKey = file.getUniqueKey();
 
         // NB: There will only ever be one class-loader per unique-key
-        synchronized (getUniqueKeyLock(uniqueKey)) {
+        try (UniqueKeyLocks.Held ignored = uniqueKeyLocks.lock(uniqueKey)) {
             useCount--;
 
             if (useCount <= 0) {
                 uniqueKeyToLoader.remove(uniqueKey);
+                logLookupStatistics();
             }
         }
     }
@@ -2144,8 +2512,7 @@ public class JNLPClassLoader extends URLClassLoader {
     public String getMainClassNameFromManifest(JARDesc mainJarDesc) throws IOException {
         final File f = tracker.getCacheFile(mainJarDesc.getLocation());
         if (f != null) {
-            final JarFile mainJar = new JarFile(f);
-            return mainJar.getManifest().getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+            return JarScan.of(f).getMainAttribute(Attributes.Name.MAIN_CLASS);
         }
         return null;
     }
@@ -0,0 +1,99 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.sourceforge.jnlp.util.JarScan;
+import net.sourceforge.jnlp.util.UrlKey;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Names of the entries of the jars on the class path of a {@link JNLPClassLoader}.
+ * <p>
+ * Allows to skip searching the jars of a loader for a class or resource which is in none of them.
+ * The index is only conclusive as long as the entries of every location on the class path are known.
+ * A single location which has not been indexed (e.g. a jar which is not cached locally or a jar with
+ * a jar index or a manifest class path which may pull in further jars) makes every lookup inconclusive.
+ * <p>
+ * Lookups do not block. Changes are serialized and always add the entries of a location before
+ * the location is considered indexed.
+ */
+class JarEntryIndex {
+
+    private final Set<String> entries = ConcurrentHashMap.newKeySet();
+    private final Set<UrlKey> indexedLocations = ConcurrentHashMap.newKeySet();
+    private final Set<UrlKey> unindexedLocations = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong skippedLookups = new AtomicLong();
+
+    /**
+     * @return true if the entries of the jar are all names which can be found through its location
+     */
+    static boolean isIndexable(final JarScan scan) {
+        return scan.getJarIndex() == null && !scan.hasClassPath() && !scan.isMultiRelease();
+    }
+
+    /**
+     * Adds the entries of the jar at the given location.
+     */
+    synchronized void addJar(final URL location, final Collection<String> entryNames) {
+        entries.addAll(entryNames);
+        final UrlKey key = new UrlKey(location);
+        indexedLocations.add(key);
+        unindexedLocations.remove(key);
+    }
+
+    /**
+     * Called whenever a location is added to the class path of the loader.
+     */
+    synchronized void locationAdded(final URL location) {
+        final UrlKey key = new UrlKey(location);
+        if (!indexedLocations.contains(key)) {
+            unindexedLocations.add(key);
+        }
+    }
+
+    /**
+     * Adds all entries and locations of another index, used when the class path of another loader is merged.
+     */
+    synchronized void addAll(final JarEntryIndex other) {
+        synchronized (other) {
+            entries.addAll(other.entries);
+            for (UrlKey key : other.indexedLocations) {
+                indexedLocations.add(key);
+                unindexedLocations.remove(key);
+            }
+            for (UrlKey key : other.unindexedLocations) {
+                if (!indexedLocations.contains(key)) {
+                    unindexedLocations.add(key);
+                }
+            }
+        }
+    }
+
+    boolean isConclusive() {
+        return unindexedLocations.isEmpty();
+    }
+
+    /**
+     * @param name the name of a resource, for classes the name of the class file
+     * @return true if none of the jars on the class path contains the resource
+     */
+    boolean isDefinitelyMissing(final String name) {
+        if (!isConclusive() || entries.contains(name) || entries.contains(name + "/")) {
+            return false;
+        }
+        skippedLookups.incrementAndGet();
+        return true;
+    }
+
+    long getSkippedLookupCount() {
+        return skippedLookups.get();
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
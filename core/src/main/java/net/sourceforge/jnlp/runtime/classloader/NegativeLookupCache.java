@@ -0,0 +1,126 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded set of class and resource names a {@link JNLPClassLoader} has searched for without success.
+ * <p>
+ * A name is only remembered if it has not been found after all parts have been activated.
+ * Whenever a new location is added to the class path searched by the owning classloader, i.e. the class path of
+ * the classloader, its code base classloader or one of its extension classloaders, the remembered names are
+ * forgotten. To avoid remembering a name which has been searched while the class path changed, the generation
+ * of the class path is captured before the search.
+ * <p>
+ * If the capacity is exceeded the least recently looked up name is forgotten.
+ */
+class NegativeLookupCache {
+
+    private static final String CLASS_PREFIX = "class:";
+    private static final String RESOURCE_PREFIX = "resource:";
+
+    private final int capacity;
+    private final Map<String, Boolean> absentNames;
+    private final AtomicLong classPathGeneration = new AtomicLong();
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    NegativeLookupCache(final int capacity) {
+        this.capacity = capacity;
+        this.absentNames = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+                return size() > NegativeLookupCache.this.capacity;
+            }
+        };
+        this.generation = classPathGeneration.get();
+    }
+
+    /**
+     * Invalidates the remembered names.
+     */
+    void classPathChanged() {
+        classPathGeneration.incrementAndGet();
+    }
+
+    /**
+     * @return the generation to pass to {@link #classNotFound(String, long)} or {@link #resourceNotFound(String, long)}
+     */
+    long currentGeneration() {
+        return classPathGeneration.get();
+    }
+
+    boolean isKnownAbsentClass(final String name) {
+        return isKnownAbsent(CLASS_PREFIX + name);
+    }
+
+    boolean isKnownAbsentResource(final String name) {
+        return isKnownAbsent(RESOURCE_PREFIX + name);
+    }
+
+    void classNotFound(final String name, final long searchGeneration) {
+        remember(CLASS_PREFIX + name, searchGeneration);
+    }
+
+    void resourceNotFound(final String name, final long searchGeneration) {
+        remember(RESOURCE_PREFIX + name, searchGeneration);
+    }
+
+    private boolean isKnownAbsent(final String key) {
+        if (capacity <= 0) {
+            return false;
+        }
+        final boolean known;
+        synchronized (absentNames) {
+            discardIfOutdated();
+            known = absentNames.get(key) != null;
+        }
+        (known ? hits : misses).incrementAndGet();
+        return known;
+    }
+
+    private void remember(final String key, final long searchGeneration) {
+        if (capacity <= 0) {
+            return;
+        }
+        synchronized (absentNames) {
+            discardIfOutdated();
+            if (generation == searchGeneration) {
+                absentNames.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    private void discardIfOutdated() {
+        final long current = classPathGeneration.get();
+        if (generation != current) {
+            if (!absentNames.isEmpty()) {
+                invalidations.incrementAndGet();
+                absentNames.clear();
+            }
+            generation = current;
+        }
+    }
+
+    int size() {
+        synchronized (absentNames) {
+            return absentNames.size();
+        }
+    }
+
+    long getHitCount() {
+        return hits.get();
+    }
+
+    long getMissCount() {
+        return misses.get();
+    }
+
+    long getInvalidationCount() {
+        return invalidations.get();
+    }
+}
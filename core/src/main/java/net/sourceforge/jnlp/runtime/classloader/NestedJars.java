@@ -0,0 +1,132 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.cache.CacheUtil;
+import net.sourceforge.jnlp.util.JarFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.util.jar.JarEntry;
+
+/**
+ * The jars contained in a locally cached jar.
+ * <p>
+ * Nested jars can not be loaded from within the outer jar. They are extracted to a directory next to
+ * the outer jar when they are needed for the first time. The directory contains a stamp of the outer jar
+ * it has been extracted from. As long as the outer jar is unchanged the extracted jars are reused by
+ * later launches. Otherwise the directory is cleared before the first extraction.
+ * <p>
+ * A nested jar is extracted to a temporary file of its own which is moved in place once it is complete.
+ * Thus an existing file is always a complete copy, even if several JVMs extract the same jar.
+ */
+class NestedJars {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NestedJars.class);
+
+    static final String DIRECTORY_SUFFIX = ".nested";
+    static final String STAMP_FILE_NAME = ".extracted";
+
+    private final File outerJar;
+    private final File directory;
+    private final String stamp;
+
+    private boolean stampVerified;
+
+    NestedJars(final File outerJar) {
+        this.outerJar = outerJar;
+        this.directory = Cache.getDerivedFile(outerJar, DIRECTORY_SUFFIX);
+        this.stamp = outerJar.length() + ":" + outerJar.lastModified();
+    }
+
+    /**
+     * @param entryName the name of the nested jar within the outer jar
+     * @return the file the nested jar is extracted to
+     */
+    File fileOf(final String entryName) throws NoSuchAlgorithmException {
+        String name = entryName;
+        if (name.contains("..")) {
+            name = CacheUtil.hex(name, name);
+        }
+        return new File(directory, name);
+    }
+
+    /**
+     * @return true if the nested jar has been extracted from the current version of the outer jar
+     */
+    synchronized boolean isExtracted(final String entryName) throws NoSuchAlgorithmException {
+        return isStampCurrent() && fileOf(entryName).isFile();
+    }
+
+    /**
+     * Extracts the nested jar unless it has already been extracted from the current version of the outer jar.
+     *
+     * @param entryName the name of the nested jar within the outer jar
+     * @return the extracted jar
+     * @throws IOException if the outer jar does not contain the entry or the extraction failed
+     */
+    synchronized File extract(final String entryName) throws IOException, NoSuchAlgorithmException {
+        final File target = fileOf(entryName);
+        if (isExtracted(entryName)) {
+            return target;
+        }
+        prepareDirectory();
+
+        final File parentDir = target.getParentFile();
+        if (!parentDir.isDirectory() && !parentDir.mkdirs()) {
+            throw new IOException("Unable to extract nested jar " + entryName + " to " + parentDir);
+        }
+
+        final File tmpFile = File.createTempFile(target.getName() + ".", ".tmp", parentDir);
+        try (JarFile jarFile = new JarFile(outerJar)) {
+            final JarEntry entry = jarFile.getNative().getJarEntry(entryName);
+            if (entry == null) {
+                throw new IOException("Nested jar " + entryName + " not found in " + outerJar);
+            }
+            try (InputStream in = jarFile.getInputStream(entry)) {
+                IOUtils.copy(in, tmpFile, entry.getSize());
+            }
+            FileUtils.moveInPlace(tmpFile, target);
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOG.debug("Failed to delete {}", tmpFile);
+            }
+        }
+        LOG.debug("Extracted nested jar {} of {}", entryName, outerJar);
+        return target;
+    }
+
+    private boolean isStampCurrent() {
+        if (!stampVerified) {
+            final File stampFile = new File(directory, STAMP_FILE_NAME);
+            try {
+                stampVerified = stampFile.isFile() && stamp.equals(new String(Files.readAllBytes(stampFile.toPath()), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                LOG.debug("Failed to read {}: {}", stampFile, e.getMessage());
+            }
+        }
+        return stampVerified;
+    }
+
+    private void prepareDirectory() throws IOException {
+        if (isStampCurrent()) {
+            return;
+        }
+        if (directory.exists()) {
+            LOG.debug("Removing nested jars extracted from a previous version of {}", outerJar);
+            FileUtils.recursiveDelete(directory, directory);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        Files.write(new File(directory, STAMP_FILE_NAME).toPath(), stamp.getBytes(StandardCharsets.UTF_8));
+        stampVerified = true;
+    }
+}
@@ -0,0 +1,96 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reentrant locks per unique key of a JNLP file, used to serialize the creation and sharing of
+ * {@link JNLPClassLoader}s with the same key.
+ * <p>
+ * Locks for different keys do not contend with each other. A lock only exists while a thread holds
+ * it or waits for it and is removed once the last of them is done, so keys of applications which
+ * are no longer running do not accumulate.
+ * <p>
+ * Counts how often a lock was taken, how often it was held by another thread at that time and how
+ * long threads have waited for it. Every wait is logged at debug level.
+ */
+class UniqueKeyLocks {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UniqueKeyLocks.class);
+
+    private final ConcurrentHashMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong contendedAcquisitions = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /**
+     * Takes the lock of the given key, waiting for it if another thread holds it.
+     *
+     * @param uniqueKey the unique key of a JNLP file
+     * @return the held lock, which needs to be closed by the same thread to release it
+     */
+    Held lock(final String uniqueKey) {
+        final KeyLock keyLock = locks.compute(uniqueKey, (key, existing) -> {
+            final KeyLock result = existing != null ? existing : new KeyLock();
+            result.users++;
+            return result;
+        });
+
+        acquisitions.incrementAndGet();
+        if (!keyLock.lock.tryLock()) {
+            contendedAcquisitions.incrementAndGet();
+            final long start = System.nanoTime();
+            keyLock.lock.lock();
+            final long waited = System.nanoTime() - start;
+            waitNanos.addAndGet(waited);
+            LOG.debug("Waited {} ms for the lock of {}", TimeUnit.NANOSECONDS.toMillis(waited), uniqueKey);
+        }
+
+        return () -> {
+            keyLock.lock.unlock();
+            locks.computeIfPresent(uniqueKey, (key, existing) -> --existing.users > 0 ? existing : null);
+        };
+    }
+
+    /**
+     * @return the number of keys which are currently locked or waited for
+     */
+    int size() {
+        return locks.size();
+    }
+
+    long getAcquisitionCount() {
+        return acquisitions.get();
+    }
+
+    long getContendedAcquisitionCount() {
+        return contendedAcquisitions.get();
+    }
+
+    long getWaitNanos() {
+        return waitNanos.get();
+    }
+
+    /**
+     * A lock held by the current thread.
+     */
+    interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class KeyLock {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Holds and waits for the lock, only changed while the entry is mapped.
+         */
+        private int users;
+    }
+}
@@ -31,12 +31,15 @@ import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.LaunchException;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.runtime.classloader.SecurityDelegate;
 import net.sourceforge.jnlp.security.AppVerifier;
 import net.sourceforge.jnlp.security.CertVerifier;
 import net.sourceforge.jnlp.security.CertificateUtils;
 import net.sourceforge.jnlp.security.KeyStores;
 import net.sourceforge.jnlp.util.JarFile;
+import net.sourceforge.jnlp.util.JarScan;
 import sun.security.util.DerInputStream;
 import sun.security.util.DerValue;
 import sun.security.x509.NetscapeCertTypeExtension;
@@ -58,15 +61,21 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.regex.Pattern;
 import java.util.zip.ZipException;
 
 import static java.lang.Boolean.TRUE;
 import static java.time.temporal.ChronoUnit.MONTHS;
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createFixedDaemonThreadPool;
 
 /**
  * The jar certificate verifier utility.
@@ -235,7 +244,7 @@ public class JarCertVerifier implements CertVerifier {
      * @throws Exception Caused by issues with obtaining the jars' entries or interacting with the tracker.
      */
     private void verifyJars(final List<JARDesc> jars, final ResourceTracker tracker) throws Exception {
-
+        final Set<String> jarPaths = new LinkedHashSet<>();
         for (JARDesc jar : jars) {
             final File jarFile = tracker.getCacheFile(jar.getLocation());
 
@@ -249,14 +258,18 @@ public class JarCertVerifier implements CertVerifier {
             if (verifiedJars.contains(jarPath) || unverifiedJars.contains(jarPath)) {
                 continue;
             }
+            jarPaths.add(jarPath);
+        }
 
-            final VerifyResult result = verifyJar(jarPath);
+        // reading the jars is independent of each other - the results are merged in the order of the jars
+        for (ScannedJar scannedJar : scanJars(new ArrayList<>(jarPaths))) {
+            final VerifyResult result = verifyJarSigners(scannedJar.jarPath, scannedJar.signers);
             if (result == VerifyResult.UNSIGNED) {
-                unverifiedJars.add(jarPath);
+                unverifiedJars.add(scannedJar.jarPath);
             } else if (result == VerifyResult.SIGNED_NOT_OK) {
-                verifiedJars.add(jarPath);
+                verifiedJars.add(scannedJar.jarPath);
             } else if (result == VerifyResult.SIGNED_OK) {
-                verifiedJars.add(jarPath);
+                verifiedJars.add(scannedJar.jarPath);
             }
         }
 
@@ -266,12 +279,80 @@ public class JarCertVerifier implements CertVerifier {
     }
 
     /**
-     * Checks through all the jar entries of jarName for signers, storing all the common ones in the certs hash map.
+     * Reads all the given jars on a bounded thread pool.
+     *
+     * @param jarPaths The absolute paths to the jar files.
+     * @return the scanned jars in the same order as the given paths
+     */
+    private static List<ScannedJar> scanJars(final List<String> jarPaths) throws Exception {
+        final VerificationResultCache resultCache = VerificationResultCache.fromConfiguration();
+        final int threadCount = Math.min(getConfiguredThreadCount(), jarPaths.size());
+        if (threadCount <= 1) {
+            final List<ScannedJar> result = new ArrayList<>();
+            for (String jarPath : jarPaths) {
+                result.add(scanJar(jarPath, resultCache));
+            }
+            return result;
+        }
+
+        final ExecutorService verifyExecutor = createFixedDaemonThreadPool(threadCount);
+        try {
+            final List<Future<ScannedJar>> futures = new ArrayList<>();
+            for (String jarPath : jarPaths) {
+                futures.add(verifyExecutor.submit(() -> scanJar(jarPath, resultCache)));
+            }
+
+            final List<ScannedJar> result = new ArrayList<>();
+            for (Future<ScannedJar> future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return result;
+        } finally {
+            verifyExecutor.shutdownNow();
+        }
+    }
+
+    private static int getConfiguredThreadCount() {
+        try {
+            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_PARALLEL_JAR_VERIFICATION_COUNT);
+            return Integer.parseInt(configValue);
+        } catch (Exception e) {
+            return ConfigurationConstants.DEFAULT_PARALLEL_JAR_VERIFICATION_COUNT;
+        }
+    }
+
+    /**
+     * Determines the signers of the jar. If the result cache is enabled and contains the signers
+     * of a jar with the same content they are taken from there instead of reading the jar again.
+     *
+     * @param jarPath     The absolute path to the jar file.
+     * @param resultCache The cache of previous results or {@code null} if disabled.
+     * @return The signers found in the jar located at jarPath.
+     */
+    private static ScannedJar scanJar(final String jarPath, final VerificationResultCache resultCache) {
+        final JarSigners signers;
+        if (resultCache == null) {
+            signers = readJar(jarPath);
+        } else {
+            signers = resultCache.getOrCompute(new File(jarPath), () -> readJar(jarPath));
+        }
+        return new ScannedJar(jarPath, signers);
+    }
+
+    /**
+     * Reads all the jar entries of jarPath. Reading an entry completely verifies its digest.
      *
      * @param jarPath The absolute path to the jar file.
-     * @return The return of {@link JarCertVerifier#verifyJarEntryCerts} using the entries found in the jar located at jarName.
+     * @return The signers found in the jar located at jarPath.
      */
-    private VerifyResult verifyJar(final String jarPath) {
+    private static JarSigners readJar(final String jarPath) {
         try (final JarFile jarFile = new JarFile(jarPath)) {
             final List<JarEntry> entries = new ArrayList<>();
             final byte[] buffer = new byte[8192];
@@ -289,7 +370,9 @@ public class JarCertVerifier implements CertVerifier {
                     }
                 }
             }
-            return verifyJarEntryCerts(jarPath, jarFile.getManifest() != null, entries);
+            // the jar has been enumerated completely, spare others from doing it again
+            JarScan.remember(new File(jarPath), jarFile, entries);
+            return JarSigners.of(jarFile.getManifest() != null, entries);
         } catch (ZipException e) {
             final File corruptedFile = new File(jarPath);
             if (corruptedFile.exists()) {
@@ -322,34 +405,25 @@ public class JarCertVerifier implements CertVerifier {
      * @throws RuntimeException Will be thrown if there are issues with entries.
      */
     VerifyResult verifyJarEntryCerts(final String jarPath, final boolean jarHasManifest, final List<JarEntry> entries) {
+        return verifyJarSigners(jarPath, JarSigners.of(jarHasManifest, entries));
+    }
+
+    /**
+     * Checks the signers of a jar, storing all the common ones in the certs hash map.
+     *
+     * @param jarPath The absolute path to the jar file.
+     * @param signers The signers found in the jar.
+     * @return see {@link #verifyJarEntryCerts(String, boolean, List)}
+     */
+    private VerifyResult verifyJarSigners(final String jarPath, final JarSigners signers) {
         // Contains number of entries the cert with this CertPath has signed.
-        final Map<CertPath, Integer> jarSignCount = new HashMap<>();
-        final Map<CertPath, CodeSigner> codeSigners = new HashMap<>();
-        int numSignableEntriesInJar = 0;
+        final Map<CertPath, Integer> jarSignCount = signers.getSignCount();
+        final Map<CertPath, CodeSigner> codeSigners = signers.getCodeSigners();
+        final int numSignableEntriesInJar = signers.getNumSignableEntries();
 
         // Record current time just before checking the jar begins.
         final ZonedDateTime now = ZonedDateTime.now();
         final ZonedDateTime expiresSoon = now.plus(6, MONTHS);
-        if (jarHasManifest) {
-            for (JarEntry je : entries) {
-                final boolean shouldHaveSignature = !je.isDirectory() && !isMetaInfFile(je.getName());
-                if (shouldHaveSignature) {
-                    numSignableEntriesInJar++;
-                    final CodeSigner[] signers = je.getCodeSigners();
-                    if (signers != null) {
-                        for (final CodeSigner signer : signers) {
-                            final CertPath certPath = signer.getSignerCertPath();
-                            codeSigners.put(certPath, signer);
-                            jarSignCount.putIfAbsent(certPath, 0);
-                            jarSignCount.computeIfPresent(certPath, (cp, count) -> count + 1);
-                        }
-                    }
-                }
-            }
-        } else {
-            // set to 1 so that unsigned jars with no manifests can't sneak in
-            numSignableEntriesInJar = 1;
-        }
 
         jarSignableEntries.put(jarPath, numSignableEntriesInJar);
 
@@ -660,4 +734,14 @@ public class JarCertVerifier implements CertVerifier {
                 .mapToInt(Integer::intValue)
                 .sum();
     }
+
+    private static class ScannedJar {
+        private final String jarPath;
+        private final JarSigners signers;
+
+        private ScannedJar(final String jarPath, final JarSigners signers) {
+            this.jarPath = jarPath;
+            this.signers = signers;
+        }
+    }
 }
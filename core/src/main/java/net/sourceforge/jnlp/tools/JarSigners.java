@@ -0,0 +1,87 @@
+package net.sourceforge.jnlp.tools;
+
+import java.security.CodeSigner;
+import java.security.cert.CertPath;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+
+import static net.sourceforge.jnlp.tools.JarCertVerifier.isMetaInfFile;
+
+/**
+ * The signers of a jar as found by reading all of its entries.
+ * <p>
+ * This is all the information {@link JarCertVerifier} needs from the content of a jar. Checking whether
+ * the signers are valid and trusted is done separately as the outcome changes over time.
+ */
+class JarSigners {
+
+    private final boolean hasManifest;
+    private final int numSignableEntries;
+
+    /**
+     * number of entries the cert with this CertPath has signed.
+     */
+    private final Map<CertPath, Integer> signCount;
+    private final Map<CertPath, CodeSigner> codeSigners;
+
+    JarSigners(final boolean hasManifest, final int numSignableEntries, final Map<CertPath, Integer> signCount, final Map<CertPath, CodeSigner> codeSigners) {
+        this.hasManifest = hasManifest;
+        this.numSignableEntries = numSignableEntries;
+        this.signCount = Collections.unmodifiableMap(signCount);
+        this.codeSigners = Collections.unmodifiableMap(codeSigners);
+    }
+
+    /**
+     * @param hasManifest Whether or not the jar has a manifest.
+     * @param entries     The list of entries in the jar. Their content must have been read completely.
+     */
+    static JarSigners of(final boolean hasManifest, final List<JarEntry> entries) {
+        final Map<CertPath, Integer> signCount = new HashMap<>();
+        final Map<CertPath, CodeSigner> codeSigners = new HashMap<>();
+        int numSignableEntries = 0;
+
+        if (hasManifest) {
+            for (JarEntry je : entries) {
+                final boolean shouldHaveSignature = !je.isDirectory() && !isMetaInfFile(je.getName());
+                if (shouldHaveSignature) {
+                    numSignableEntries++;
+                    final CodeSigner[] signers = je.getCodeSigners();
+                    if (signers != null) {
+                        for (final CodeSigner signer : signers) {
+                            final CertPath certPath = signer.getSignerCertPath();
+                            codeSigners.put(certPath, signer);
+                            signCount.merge(certPath, 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+        } else {
+            // set to 1 so that unsigned jars with no manifests can't sneak in
+            numSignableEntries = 1;
+        }
+
+        return new JarSigners(hasManifest, numSignableEntries, signCount, codeSigners);
+    }
+
+    boolean hasManifest() {
+        return hasManifest;
+    }
+
+    int getNumSignableEntries() {
+        return numSignableEntries;
+    }
+
+    Map<CertPath, Integer> getSignCount() {
+        return signCount;
+    }
+
+    /**
+     * @return one of the code signers of each cert path, it carries the timestamp of the signature
+     */
+    Map<CertPath, CodeSigner> getCodeSigners() {
+        return codeSigners;
+    }
+}
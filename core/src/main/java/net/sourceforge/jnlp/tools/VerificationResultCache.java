@@ -0,0 +1,288 @@
+package net.sourceforge.jnlp.tools;
+
+import net.adoptopenjdk.icedteaweb.io.FileUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.RestrictedFileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.CodeSigner;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.Timestamp;
+import java.security.cert.CertPath;
+import java.security.cert.CertificateFactory;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Remembers the signers of jars in the cache.
+ * <p>
+ * The signers of a jar are stored in a record file next to the jar in its cache entry. The record
+ * is a derived file of the jar, so it is kept when the cache is cleaned and deleted with the entry.
+ * The record contains the id of the cache entry and the SHA-256 digest of the jar. It is only used
+ * if both still match. Computing the digest of a jar is much cheaper than reading all of its
+ * entries which verifies the digest of every entry and the signature of the jar.
+ * <p>
+ * Anyone who can replace a jar in the cache can also replace its record. Therefore every record is
+ * authenticated with an HMAC whose key is stored in the security configuration of the user, outside
+ * of the cache, and is only readable by the user. Records without a valid HMAC are ignored and no
+ * record is written if the key is not available.
+ * <p>
+ * Only the outcome of reading the jar is remembered. Whether the signers are valid and trusted
+ * is checked by {@link JarCertVerifier} on every launch.
+ */
+class VerificationResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VerificationResultCache.class);
+
+    static final String RECORD_SUFFIX = ".verification";
+
+    private static final int VERSION = 2;
+    private static final String CERT_PATH_ENCODING = "PkiPath";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_LENGTH = 32;
+    private static final int MAC_LENGTH = 32;
+
+    private final File cacheRoot;
+    private final File keyFile;
+    private byte[] key;
+
+    VerificationResultCache(final File cacheRoot, final File keyFile) {
+        // the verifier works with canonical paths
+        this.cacheRoot = canonicalFile(cacheRoot);
+        this.keyFile = keyFile;
+    }
+
+    /**
+     * @return the cache of the user or {@code null} if it is disabled
+     */
+    static VerificationResultCache fromConfiguration() {
+        try {
+            if (Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_SECURITY_VERIFICATION_RESULT_CACHE))) {
+                return new VerificationResultCache(PathsAndFiles.CACHE_DIR.getFile(), PathsAndFiles.VERIFICATION_KEY.getFile());
+            }
+        } catch (Exception e) {
+            LOG.debug("Verification result cache is not available: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Returns the remembered signers of the jar or determines and remembers them.
+     * Jars which are not located in a cache entry are always read.
+     *
+     * @param jarFile  the jar
+     * @param verifier reads the jar and determines its signers
+     * @return the signers of the jar
+     */
+    JarSigners getOrCompute(final File jarFile, final Supplier<JarSigners> verifier) {
+        final String entryId = entryIdOf(jarFile);
+        if (entryId == null) {
+            return verifier.get();
+        }
+
+        final byte[] key = getKey();
+        if (key == null) {
+            return verifier.get();
+        }
+
+        final String digest;
+        try {
+            digest = FileUtils.getFileSHA256Sum(jarFile);
+        } catch (IOException e) {
+            LOG.debug("Failed to compute the digest of {}: {}", jarFile, e.getMessage());
+            return verifier.get();
+        }
+
+        final File recordFile = Cache.getDerivedFile(jarFile, RECORD_SUFFIX);
+        final JarSigners remembered = read(recordFile, key, entryId, digest);
+        if (remembered != null) {
+            LOG.debug("Using remembered signers of {}", jarFile);
+            return remembered;
+        }
+
+        final JarSigners signers = verifier.get();
+        write(recordFile, key, entryId, digest, signers);
+        return signers;
+    }
+
+    /**
+     * @return the id of the cache entry containing the file or {@code null} if the file is not located in a cache entry
+     */
+    String entryIdOf(final File jarFile) {
+        final File entryDir = canonicalFile(jarFile).getParentFile();
+        final File levelOneDir = entryDir == null ? null : entryDir.getParentFile();
+        if (levelOneDir == null || !cacheRoot.equals(levelOneDir.getParentFile())) {
+            return null;
+        }
+        return levelOneDir.getName() + File.separatorChar + entryDir.getName();
+    }
+
+    /**
+     * @return the key of the HMAC of the records or {@code null} if it can neither be read nor created
+     */
+    private synchronized byte[] getKey() {
+        if (key == null) {
+            try {
+                if (!keyFile.isFile() || keyFile.length() != KEY_LENGTH) {
+                    createKey();
+                }
+                final byte[] read = Files.readAllBytes(keyFile.toPath());
+                if (read.length == KEY_LENGTH) {
+                    key = read;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Key of the verification records {} is not available: {}", keyFile, e.getMessage());
+            }
+        }
+        return key;
+    }
+
+    private void createKey() throws IOException {
+        final byte[] newKey = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(newKey);
+
+        final File tmpFile = new File(keyFile.getPath() + ".tmp" + Thread.currentThread().getId());
+        try {
+            FileUtils.createParentDir(keyFile);
+            RestrictedFileUtils.createRestrictedFile(tmpFile);
+            Files.write(tmpFile.toPath(), newKey);
+            // another process may have created a key concurrently, the key moved last is used by all of them
+            FileUtils.moveInPlace(tmpFile, keyFile);
+            LOG.debug("Created key of the verification records {}", keyFile);
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOG.debug("Failed to delete {}", tmpFile);
+            }
+        }
+    }
+
+    private static byte[] mac(final byte[] key, final byte[] content, final int length) throws GeneralSecurityException {
+        final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+        mac.update(content, 0, length);
+        return mac.doFinal();
+    }
+
+    private static File canonicalFile(final File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static JarSigners read(final File recordFile, final byte[] key, final String entryId, final String digest) {
+        if (!recordFile.isFile()) {
+            return null;
+        }
+        try {
+            final byte[] record = Files.readAllBytes(recordFile.toPath());
+            final int contentLength = record.length - MAC_LENGTH;
+            if (contentLength < 0 || !MessageDigest.isEqual(mac(key, record, contentLength), Arrays.copyOfRange(record, contentLength, record.length))) {
+                LOG.debug("Ignoring verification record {} without valid HMAC", recordFile);
+                return null;
+            }
+            return readContent(new DataInputStream(new ByteArrayInputStream(record, 0, contentLength)), entryId, digest);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            LOG.debug("Ignoring unreadable verification record {}: {}", recordFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private static JarSigners readContent(final DataInputStream in, final String entryId, final String digest) throws IOException, GeneralSecurityException {
+        if (in.readInt() != VERSION || !entryId.equals(in.readUTF()) || !digest.equals(in.readUTF())) {
+            return null;
+        }
+
+        final CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        final boolean hasManifest = in.readBoolean();
+        final int numSignableEntries = in.readInt();
+        final int signerCount = in.readInt();
+        final Map<CertPath, Integer> signCount = new HashMap<>();
+        final Map<CertPath, CodeSigner> codeSigners = new HashMap<>();
+        for (int i = 0; i < signerCount; i++) {
+            final CertPath certPath = readCertPath(in, factory);
+            signCount.put(certPath, in.readInt());
+            Timestamp timestamp = null;
+            if (in.readBoolean()) {
+                final Date signedAt = new Date(in.readLong());
+                timestamp = new Timestamp(signedAt, readCertPath(in, factory));
+            }
+            codeSigners.put(certPath, new CodeSigner(certPath, timestamp));
+        }
+        return new JarSigners(hasManifest, numSignableEntries, signCount, codeSigners);
+    }
+
+    private static void write(final File recordFile, final byte[] key, final String entryId, final String digest, final JarSigners signers) {
+        final File tmpFile = new File(recordFile.getPath() + ".tmp" + Thread.currentThread().getId());
+        try {
+            final ByteArrayOutputStream record = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(record)) {
+                out.writeInt(VERSION);
+                out.writeUTF(entryId);
+                out.writeUTF(digest);
+                out.writeBoolean(signers.hasManifest());
+                out.writeInt(signers.getNumSignableEntries());
+                out.writeInt(signers.getSignCount().size());
+                for (Map.Entry<CertPath, Integer> entry : signers.getSignCount().entrySet()) {
+                    writeCertPath(out, entry.getKey());
+                    out.writeInt(entry.getValue());
+                    final CodeSigner codeSigner = signers.getCodeSigners().get(entry.getKey());
+                    final Timestamp timestamp = codeSigner == null ? null : codeSigner.getTimestamp();
+                    out.writeBoolean(timestamp != null);
+                    if (timestamp != null) {
+                        out.writeLong(timestamp.getTimestamp().getTime());
+                        writeCertPath(out, timestamp.getSignerCertPath());
+                    }
+                }
+            }
+            final byte[] content = record.toByteArray();
+            try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+                out.write(content);
+                out.write(mac(key, content, content.length));
+            }
+            FileUtils.moveInPlace(tmpFile, recordFile);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            LOG.debug("Failed to write verification record {}: {}", recordFile, e.getMessage());
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOG.debug("Failed to delete {}", tmpFile);
+            }
+        }
+    }
+
+    private static void writeCertPath(final DataOutputStream out, final CertPath certPath) throws IOException, GeneralSecurityException {
+        final byte[] encoded = certPath.getEncoded(CERT_PATH_ENCODING);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static CertPath readCertPath(final DataInputStream in, final CertificateFactory factory) throws IOException, GeneralSecurityException {
+        final int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length of encoded cert path: " + length);
+        }
+        final byte[] encoded = new byte[length];
+        in.readFully(encoded);
+        return factory.generateCertPath(new ByteArrayInputStream(encoded), CERT_PATH_ENCODING);
+    }
+}
@@ -0,0 +1,158 @@
+package net.sourceforge.jnlp.util;
+
+import net.adoptopenjdk.icedteaweb.jdk89access.JarIndexAccess;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.Manifest;
+
+/**
+ * The outcome of enumerating the entries of a local jar once.
+ * <p>
+ * Several components need the entry names, the manifest or the index of the same cached jar during a launch.
+ * Instead of opening and enumerating the jar for each of them the scan of a jar is remembered per file, i.e.
+ * per cache entry. A remembered scan is only used while length and last modification of the file are unchanged.
+ * Scans are held softly as they can be recreated at any time.
+ * <p>
+ * Components reading the complete jar anyway (e.g. to verify its signatures) should {@link #remember} the scan.
+ */
+public final class JarScan {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JarScan.class);
+
+    private static final Attributes.Name MULTI_RELEASE = new Attributes.Name("Multi-Release");
+
+    private static final Map<String, SoftReference<JarScan>> SCANS = new ConcurrentHashMap<>();
+
+    private final long length;
+    private final long lastModified;
+    private final List<String> entryNames;
+    private final List<String> nestedJars;
+    private final Manifest manifest;
+    private final JarIndexAccess jarIndex;
+
+    private JarScan(final long length, final long lastModified, final JarFile jarFile, final Collection<JarEntry> entries) throws IOException {
+        this.length = length;
+        this.lastModified = lastModified;
+
+        final List<String> names = new ArrayList<>(entries.size());
+        final List<String> nested = new ArrayList<>();
+        for (JarEntry entry : entries) {
+            names.add(entry.getName());
+            // 0 byte file? skip
+            if (!entry.isDirectory() && entry.getName().endsWith(".jar") && entry.getSize() != 0) {
+                nested.add(entry.getName());
+            }
+        }
+        this.entryNames = Collections.unmodifiableList(names);
+        this.nestedJars = Collections.unmodifiableList(nested);
+        this.manifest = jarFile.getManifest();
+        this.jarIndex = JarIndexAccess.getJarIndex(jarFile.getNative());
+    }
+
+    /**
+     * Returns the scan of the jar, scanning it if no current scan is remembered.
+     *
+     * @param file the local jar
+     * @return the scan of the jar
+     * @throws IOException if the file is not a readable jar
+     */
+    public static JarScan of(final File file) throws IOException {
+        final String key = file.getAbsolutePath();
+        final SoftReference<JarScan> reference = SCANS.get(key);
+        final JarScan remembered = reference == null ? null : reference.get();
+        if (remembered != null && remembered.isCurrent(file)) {
+            return remembered;
+        }
+
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        final JarScan scan;
+        try (JarFile jarFile = new JarFile(file)) {
+            scan = new JarScan(length, lastModified, jarFile, Collections.list(jarFile.entries()));
+        }
+        SCANS.put(key, new SoftReference<>(scan));
+        return scan;
+    }
+
+    /**
+     * Remembers the scan of a jar which has been enumerated by the caller.
+     *
+     * @param file    the local jar
+     * @param jarFile the opened jar
+     * @param entries all entries of the jar
+     */
+    public static void remember(final File file, final JarFile jarFile, final Collection<JarEntry> entries) {
+        try {
+            final JarScan scan = new JarScan(file.length(), file.lastModified(), jarFile, entries);
+            SCANS.put(file.getAbsolutePath(), new SoftReference<>(scan));
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Not remembering scan of {}: {}", file, e.getMessage());
+        }
+    }
+
+    private boolean isCurrent(final File file) {
+        return file.length() == length && file.lastModified() == lastModified;
+    }
+
+    /**
+     * @return the names of all entries in the order of the jar
+     */
+    public List<String> getEntryNames() {
+        return entryNames;
+    }
+
+    /**
+     * @return the names of all non-empty jars contained in the jar
+     */
+    public List<String> getNestedJars() {
+        return nestedJars;
+    }
+
+    /**
+     * @return a copy of the manifest or {@code null} if the jar has none
+     */
+    public Manifest getManifest() {
+        return manifest == null ? null : new Manifest(manifest);
+    }
+
+    /**
+     * @return the value of the main attribute or {@code null} if the jar has no manifest or no such attribute
+     */
+    public String getMainAttribute(final Attributes.Name name) {
+        return manifest == null ? null : manifest.getMainAttributes().getValue(name);
+    }
+
+    /**
+     * @return the jar index of the jar or {@code null} if the jar has none
+     */
+    public JarIndexAccess getJarIndex() {
+        return jarIndex;
+    }
+
+    /**
+     * The jars referenced by the Class-Path attribute of the manifest are searched by a URLClassLoader as well.
+     */
+    public boolean hasClassPath() {
+        final String classPath = getMainAttribute(Attributes.Name.CLASS_PATH);
+        return classPath != null && !classPath.trim().isEmpty();
+    }
+
+    /**
+     * Multi-release jars may resolve an entry to a versioned entry with another name.
+     */
+    public boolean isMultiRelease() {
+        return Boolean.parseBoolean(getMainAttribute(MULTI_RELEASE));
+    }
+}
@@ -40,4 +40,13 @@ import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
  */
 public interface BasicOutputController {
     void log(final MessageWithHeader l);
+
+    /**
+     * Loggers do not create debug messages while this is false.
+     *
+     * @return true if debug messages are consumed
+     */
+    default boolean isDebugEnabled() {
+        return true;
+    }
 }
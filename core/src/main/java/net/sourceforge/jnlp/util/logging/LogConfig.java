@@ -56,6 +56,7 @@ public class LogConfig {
     private boolean logToStreams;
     private boolean logToSysLog;
     private final boolean legacyLogaAsedFileLog;
+    private final MessageQueueOverflowPolicy queueOverflowPolicy;
 
     private LogConfig() {
         DeploymentConfiguration config = JNLPRuntime.getConfiguration();
@@ -69,6 +70,7 @@ public class LogConfig {
         logToSysLog = Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_ENABLE_LOGGING_TOSYSTEMLOG));
         legacyLogaAsedFileLog = Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_ENABLE_LEGACY_LOGBASEDFILELOG));
         logClientAppToFile = Boolean.parseBoolean(config.getProperty(ConfigurationConstants.KEY_ENABLE_APPLICATION_LOGGING_TOFILE));
+        queueOverflowPolicy = MessageQueueOverflowPolicy.fromConfiguration(config.getProperty(ConfigurationConstants.KEY_LOGGING_QUEUE_OVERFLOW_POLICY));
 
         // Get log directory, create it if it doesn't exist. If unable to create and doesn't exist, don't log.
         icedteaLogDir = PathsAndFiles.LOG_DIR.getFullPath();
@@ -154,4 +156,8 @@ public class LogConfig {
         return logClientAppToFile;
     }
 
+    MessageQueueOverflowPolicy getQueueOverflowPolicy() {
+        return queueOverflowPolicy;
+    }
+
 }
@@ -0,0 +1,39 @@
+package net.sourceforge.jnlp.util.logging;
+
+import static net.sourceforge.jnlp.config.ConfigurationConstants.LOGGING_QUEUE_OVERFLOW_DROP_DEBUG;
+import static net.sourceforge.jnlp.config.ConfigurationConstants.LOGGING_QUEUE_OVERFLOW_DROP_OLDEST;
+
+/**
+ * What happens to a log message which is logged while the message queue of the {@link OutputController} is full.
+ */
+enum MessageQueueOverflowPolicy {
+
+    /**
+     * The logging thread waits until the consumer has made room for the message.
+     */
+    BLOCK,
+
+    /**
+     * The oldest messages in the queue are dropped to make room for the message.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Debug messages are dropped, the logging thread waits with all other messages.
+     */
+    DROP_DEBUG;
+
+    /**
+     * @param configuredPolicy the value of the deployment property for the overflow policy
+     * @return the policy matching the configured value - defaults to {@link #BLOCK}
+     */
+    static MessageQueueOverflowPolicy fromConfiguration(final String configuredPolicy) {
+        if (LOGGING_QUEUE_OVERFLOW_DROP_OLDEST.equalsIgnoreCase(configuredPolicy)) {
+            return DROP_OLDEST;
+        }
+        if (LOGGING_QUEUE_OVERFLOW_DROP_DEBUG.equalsIgnoreCase(configuredPolicy)) {
+            return DROP_DEBUG;
+        }
+        return BLOCK;
+    }
+}
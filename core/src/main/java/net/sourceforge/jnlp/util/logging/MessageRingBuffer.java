@@ -0,0 +1,133 @@
+package net.sourceforge.jnlp.util.logging;
+
+import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of log messages which does not lock.
+ * <p>
+ * Each slot of the ring carries a sequence number which tells whether the slot is free for the
+ * writer at a position or holds the message for the reader at a position. Writers and readers
+ * claim positions by advancing the tail or the head and publish a slot by updating its sequence.
+ * Any number of threads may offer messages. Messages are usually taken by one thread only, but
+ * taking them from several threads is safe as well, e.g. to drop the oldest message.
+ */
+class MessageRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<MessageWithHeader> messages;
+    private final AtomicLongArray sequences;
+
+    /**
+     * Position of the next message to write.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Position of the next message to read.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity the maximum number of messages, a power of two
+     */
+    MessageRingBuffer(final int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.messages = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    boolean offer(final MessageWithHeader message) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    messages.set(index, message);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the slot still holds the message written one round before
+                return false;
+            } else {
+                // another writer has taken the position
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest message or {@code null} if there is no message which has been written completely
+     */
+    MessageWithHeader poll() {
+        long position = head.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    final MessageWithHeader message = messages.getAndSet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return message;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                // the slot has not been written yet
+                return null;
+            } else {
+                // another reader has taken the position
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest messages, up to the given number.
+     *
+     * @return the number of messages passed to the consumer
+     */
+    int drain(final Consumer<MessageWithHeader> consumer, final int limit) {
+        int count = 0;
+        while (count < limit) {
+            final MessageWithHeader message = poll();
+            if (message == null) {
+                break;
+            }
+            consumer.accept(message);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of messages in the queue, including messages which are still being written
+     */
+    int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -46,8 +46,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.DEBUG;
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.ERROR;
@@ -61,12 +63,27 @@ public class OutputController implements BasicOutputController {
 
     private StdInOutErrController inOutErrController;
 
-    private final List<MessageWithHeader> messageQue = new LinkedList<>();
+    static final int MESSAGE_QUEUE_CAPACITY = 16384;
+    private static final int DRAIN_BATCH_SIZE = 256;
+    private static final long FULL_QUEUE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final MessageRingBuffer messageQue = new MessageRingBuffer(MESSAGE_QUEUE_CAPACITY);
+    private final AtomicLong queuedMessages = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private long reportedDroppedMessages;
+    private volatile MessageQueueOverflowPolicy overflowPolicy = MessageQueueOverflowPolicy.BLOCK;
+
+    //only one thread at a time writes the messages, the logging threads do not take this lock
+    private final Object drainLock = new Object();
+    private volatile Thread drainingThread;
+    private final AtomicBoolean consumerWaiting = new AtomicBoolean();
+
     //itw logger have to be fully initialised before start
     private final Thread consumerThread = new Thread(new MessageQueConsumer(), "Output controller consumer daemon");
     private final Thread shutdownThread = new Thread(this::shutdownLogging);
-    private boolean javaConsoleInitialized;
-    private long pollingInterval = 1000;
+    private volatile boolean javaConsoleInitialized;
+    private volatile boolean consumerStarted;
+    private volatile long pollingInterval = 1000;
 
     //bounded to instance
     private class MessageQueConsumer implements Runnable {
@@ -75,13 +92,13 @@ public class OutputController implements BasicOutputController {
         public void run() {
             while (true) {
                 try {
-                    synchronized (OutputController.this) {
-                        if (!messageQue.isEmpty()) {
-                            flush();
-                        }
-                        OutputController.this.wait(pollingInterval);
+                    flush();
+                    // a logging thread which queues a message after this wakes the consumer up
+                    consumerWaiting.set(true);
+                    if (messageQue.isEmpty()) {
+                        LockSupport.parkNanos(OutputController.this, TimeUnit.MILLISECONDS.toNanos(pollingInterval));
                     }
-
+                    consumerWaiting.set(false);
                 } catch (Throwable t) {
                     // we must not use the logging framework as this would add a new message to the queue
                     // which most likely will end also in this catch block thus creating an endless loop
@@ -97,22 +114,43 @@ public class OutputController implements BasicOutputController {
         }
     }
 
-    private synchronized void shutdownLogging() {
+    private void shutdownLogging() {
         pollingInterval = 100;
         final Header header = new Header(INFO, this.getClass().getName());
         final MessageWithHeader message = new JavaMessage(header, "Increase polling interval for shutdown phase", null);
         log(message);
     }
 
-    public synchronized void flush() {
-        while (!messageQue.isEmpty()) {
-            consume();
+    /**
+     * Writes all queued messages. The messages are taken from the queue in batches, so a burst of
+     * messages is written without waking up the consumer for every message.
+     */
+    public void flush() {
+        synchronized (drainLock) {
+            final Thread previous = drainingThread;
+            drainingThread = Thread.currentThread();
+            try {
+                int drained;
+                do {
+                    drained = messageQue.drain(this::consume, DRAIN_BATCH_SIZE);
+                    reportDroppedMessages();
+                } while (drained > 0);
+            } finally {
+                drainingThread = previous;
+            }
         }
     }
 
-    private void consume() {
-        final MessageWithHeader message = messageQue.remove(0);
+    private void reportDroppedMessages() {
+        final long dropped = droppedMessages.get();
+        if (dropped > reportedDroppedMessages) {
+            final Header header = new Header(WARN, this.getClass().getName());
+            consume(new JavaMessage(header, (dropped - reportedDroppedMessages) + " log messages have been dropped as the message queue was full", null));
+            reportedDroppedMessages = dropped;
+        }
+    }
 
+    private void consume(final MessageWithHeader message) {
         if (LogConfig.getLogConfig().isLogToConsole() && javaConsoleInitialized) {
             //filtering is done in console during runtime
             JavaConsole.getConsole().addMessage(message);
@@ -215,7 +253,10 @@ public class OutputController implements BasicOutputController {
 
     public void startConsumer() {
         initJavaConsole();
+        // debug messages logged while the log config is created are not filtered by it
+        overflowPolicy = LogConfig.getLogConfig().getQueueOverflowPolicy();
         consumerThread.start();
+        consumerStarted = true;
     }
 
     private void initJavaConsole() {
@@ -237,10 +278,68 @@ public class OutputController implements BasicOutputController {
         this.inOutErrController = Assert.requireNonNull(inOutErrController, "inOutErrController");
     }
 
+    /**
+     * Debug messages are consumed if debugging is enabled or if they are shown in the java console.
+     * Until the consumer is started the configuration may not be loaded yet, so all messages are
+     * queued and the debug messages are filtered when they are consumed.
+     */
     @Override
-    public synchronized void log(MessageWithHeader l) {
-        messageQue.add(l);
-        this.notifyAll();
+    public boolean isDebugEnabled() {
+        return !consumerStarted || javaConsoleInitialized || JNLPRuntime.isDebug();
+    }
+
+    @Override
+    public void log(MessageWithHeader l) {
+        if (messageQue.offer(l) || offerToFullQueue(l)) {
+            queuedMessages.incrementAndGet();
+            if (consumerWaiting.get() && consumerWaiting.compareAndSet(true, false)) {
+                LockSupport.unpark(consumerThread);
+            }
+        } else {
+            droppedMessages.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return false if the message has been dropped
+     */
+    private boolean offerToFullQueue(final MessageWithHeader message) {
+        // nobody takes the messages before the consumer is started and the draining thread must not wait for itself
+        final boolean canWait = consumerStarted && drainingThread != Thread.currentThread();
+        final MessageQueueOverflowPolicy policy = canWait ? overflowPolicy : MessageQueueOverflowPolicy.DROP_OLDEST;
+
+        if (policy == MessageQueueOverflowPolicy.DROP_DEBUG && message.getHeader().level == DEBUG) {
+            return false;
+        }
+        while (!messageQue.offer(message)) {
+            if (policy == MessageQueueOverflowPolicy.DROP_OLDEST) {
+                if (messageQue.poll() != null) {
+                    droppedMessages.incrementAndGet();
+                }
+            } else {
+                LockSupport.unpark(consumerThread);
+                LockSupport.parkNanos(this, FULL_QUEUE_WAIT_NANOS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of messages which have been queued since this controller was created
+     */
+    public long getQueuedMessageCount() {
+        return queuedMessages.get();
+    }
+
+    /**
+     * @return the number of messages which have been dropped as the queue was full
+     */
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    void setOverflowPolicy(MessageQueueOverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
     }
 
     private static class FileLogHolder {
@@ -40,19 +40,30 @@ public class OutputControllerLoggerFactory implements LoggerFactoryImpl {
             this.outputController = outputController;
         }
 
+        @Override
+        public boolean isDebugEnabled() {
+            return outputController.isDebugEnabled();
+        }
+
         @Override
         public void debug(final String msg) {
-            log(DEBUG, msg, null);
+            if (isDebugEnabled()) {
+                log(DEBUG, msg, null);
+            }
         }
 
         @Override
         public void debug(final String msg, final Object... arguments) {
-            log(DEBUG, expand(msg, arguments), null);
+            if (isDebugEnabled()) {
+                log(DEBUG, expand(msg, arguments), null);
+            }
         }
 
         @Override
         public void debug(final String msg, final Throwable t) {
-            log(DEBUG, msg, t);
+            if (isDebugEnabled()) {
+                log(DEBUG, msg, t);
+            }
         }
 
         @Override
@@ -0,0 +1,148 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PrioritizedParallelExecutorTest {
+
+    private ExecutorService executorService;
+    private PrioritizedParallelExecutor executor;
+
+    @Before
+    public void setup() {
+        executorService = DaemonThreadPoolProvider.createCachedDaemonThreadPool();
+        executor = new PrioritizedParallelExecutor(executorService);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyListIsRejected() {
+        executor.getSuccessfulResultWithHighestPriority(Arrays.asList());
+    }
+
+    @Test
+    public void candidatesAreExecutedConcurrently() throws Exception {
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        final List<Callable<String>> callables = Arrays.asList(
+                awaitOthers(allStarted, "a"),
+                awaitOthers(allStarted, "b"),
+                awaitOthers(allStarted, "c")
+        );
+
+        final Future<String> result = executor.getSuccessfulResultWithHighestPriority(callables);
+
+        assertEquals("a", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void highestPrioritySuccessWinsEvenIfSlower() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(
+                delayed(200, "slow-high"),
+                delayed(0, "fast-low")
+        );
+
+        final Future<String> result = executor.getSuccessfulResultWithHighestPriority(callables);
+
+        assertEquals("slow-high", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void lowerPriorityWinsIfHigherPriorityFails() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(
+                failing(100, "first"),
+                delayed(0, "second"),
+                delayed(0, "third")
+        );
+
+        final Future<String> result = executor.getSuccessfulResultWithHighestPriority(callables);
+
+        assertEquals("second", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void lowerPriorityCandidatesAreCanceledOnSuccess() throws Exception {
+        final AtomicBoolean lowPriorityFinished = new AtomicBoolean(false);
+        final CountDownLatch lowPriorityStarted = new CountDownLatch(1);
+        final List<Callable<String>> callables = Arrays.asList(
+                () -> {
+                    lowPriorityStarted.await(5, TimeUnit.SECONDS);
+                    return "high";
+                },
+                () -> {
+                    lowPriorityStarted.countDown();
+                    Thread.sleep(5000);
+                    lowPriorityFinished.set(true);
+                    return "low";
+                }
+        );
+
+        final long start = System.currentTimeMillis();
+        final Future<String> result = executor.getSuccessfulResultWithHighestPriority(callables);
+
+        assertEquals("high", result.get(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start < 4000);
+        Thread.sleep(100);
+        assertTrue(!lowPriorityFinished.get());
+    }
+
+    @Test
+    public void allFailingCandidatesCompleteExceptionally() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(
+                failing(0, "first"),
+                failing(50, "second")
+        );
+
+        final Future<String> result = executor.getSuccessfulResultWithHighestPriority(callables);
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("first"));
+            assertTrue(e.getCause().getMessage().contains("second"));
+        }
+    }
+
+    private static Callable<String> awaitOthers(CountDownLatch latch, String value) {
+        return () -> {
+            latch.countDown();
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("not executed concurrently");
+            }
+            return value;
+        };
+    }
+
+    private static Callable<String> delayed(long millis, String value) {
+        return () -> {
+            Thread.sleep(millis);
+            return value;
+        };
+    }
+
+    private static Callable<String> failing(long millis, String message) {
+        return () -> {
+            Thread.sleep(millis);
+            throw new RuntimeException(message);
+        };
+    }
+}
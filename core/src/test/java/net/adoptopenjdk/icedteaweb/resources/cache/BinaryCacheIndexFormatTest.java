@@ -0,0 +1,119 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BinaryCacheIndexFormatTest {
+
+    private static final CacheIndexEntry ENTRY_1 = new CacheIndexEntry("1/11", 1234, new CacheKey(url("https://test.com"), VersionId.fromString("1.1")));
+    private static final CacheIndexEntry ENTRY_2 = new CacheIndexEntry("2/22", 3456, new CacheKey(url("https://foo.com/a::b.jar"), null));
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+    private CacheIndexFormat format;
+
+    @Before
+    public void setup() throws IOException {
+        file = temporaryFolder.newFile();
+        format = CacheIndexFormat.BINARY;
+    }
+
+    @Test
+    public void emptyFileContainsNoEntries() throws IOException {
+        assertEquals(0, load().size());
+    }
+
+    @Test
+    public void appendedActionsAreApplied() throws IOException {
+        format.append(file, asList(CacheAction.createAddActionFor(ENTRY_1), CacheAction.createAddActionFor(ENTRY_2)));
+        format.append(file, asList(CacheAction.createAccessActionFor(ENTRY_1.getId(), 5678), CacheAction.createRemoveActionFor(ENTRY_2.getId())));
+
+        final CacheIndexEntries entries = load();
+
+        assertEquals(1, entries.size());
+        final CacheIndexEntry entry = entries.getAllEntries().get(0);
+        assertEquals(ENTRY_1.getId(), entry.getId());
+        assertEquals(5678, entry.getLastAccessed());
+        assertEquals(ENTRY_1.getCacheKey(), entry.getCacheKey());
+    }
+
+    @Test
+    public void accessCountsAreStored() throws IOException {
+        format.append(file, asList(CacheAction.createAddActionFor(ENTRY_1)));
+        format.append(file, asList(CacheAction.createAccessActionFor(ENTRY_1.getId(), 5678, 3), CacheAction.createAccessActionFor(ENTRY_1.getId(), 6789)));
+        assertEquals(4, load().getAllEntries().get(0).getAccessCount());
+
+        format.write(file, asList(CacheAction.createAddActionFor(load().getAllEntries().get(0))));
+
+        assertEquals(4, load().getAllEntries().get(0).getAccessCount());
+    }
+
+    @Test
+    public void writeReplacesTheContent() throws IOException {
+        format.append(file, asList(CacheAction.createAddActionFor(ENTRY_1)));
+        format.write(file, asList(CacheAction.createAddActionFor(ENTRY_2)));
+
+        final List<CacheIndexEntry> entries = load().getAllEntries();
+
+        assertEquals(1, entries.size());
+        assertEquals(ENTRY_2.getId(), entries.get(0).getId());
+        assertEquals(ENTRY_2.getCacheKey(), entries.get(0).getCacheKey());
+        assertNull(entries.get(0).getVersion());
+    }
+
+    @Test
+    public void incompleteBlockAtTheEndIsIgnored() throws IOException {
+        format.append(file, asList(CacheAction.createAddActionFor(ENTRY_1)));
+        final long completeLength = file.length();
+        format.append(file, asList(CacheAction.createAddActionFor(ENTRY_2)));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(completeLength + 10);
+        }
+
+        final List<CacheIndexEntry> entries = load().getAllEntries();
+        assertEquals(1, entries.size());
+        assertEquals(ENTRY_1.getId(), entries.get(0).getId());
+    }
+
+    @Test
+    public void fileInTextFormatIsIgnored() throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(CacheAction.createAddActionFor(ENTRY_1).serialize().getBytes(UTF_8));
+        }
+
+        assertEquals(0, load().size());
+    }
+
+    private CacheIndexEntries load() throws IOException {
+        final CacheIndexEntries entries = new CacheIndexEntries();
+        format.read(file, 0, entries::apply);
+        return entries;
+    }
+
+    private static URL url(final String urlString) {
+        try {
+            return new URL(urlString);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -66,6 +66,22 @@ public class CacheActionTest {
         assertEqualEntries(asList(modifiedEntry1), entries);
     }
 
+    @Test
+    public void accessCountsAreSerializedAndParsed() {
+        entries.addEntry(ENTRY_1);
+        final CacheAction accessAction = createAccessActionFor(ENTRY_1.getId(), LAST_ACCESSED_2, 3);
+        assertEquals("::i=1/11::a=" + LAST_ACCESSED_2 + "::c=3::", accessAction.serialize());
+
+        parse(accessAction.serialize()).applyTo(entries);
+        // lines written before the accesses have been counted stand for a single access
+        parse("::i=1/11::a=" + LAST_ACCESSED_2 + "::").applyTo(entries);
+        assertEquals(4, entries.getAllEntries().get(0).getAccessCount());
+
+        final String compacted = createAddActionFor(entries.getAllEntries().get(0)).serialize();
+        assertEquals("::i=1/11::l=https://test.com::v=1.1::a=" + LAST_ACCESSED_2 + "::c=4::", compacted);
+        assertEquals(4, parse(compacted).getEntry().getAccessCount());
+    }
+
     @Test
     public void doNothingShouldDoNothing() {
         entries.addEntry(ENTRY_1);
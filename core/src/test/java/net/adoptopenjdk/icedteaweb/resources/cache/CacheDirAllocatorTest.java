@@ -0,0 +1,83 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CacheDirAllocatorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheDir;
+    private CacheIndexHolder holder;
+    private CacheDirAllocator allocator;
+
+    @Before
+    public void setup() throws IOException {
+        cacheDir = temporaryFolder.newFolder();
+        holder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(new File(cacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME)));
+        allocator = new CacheDirAllocator(new DummyInfrastructureFileDescriptor(cacheDir));
+    }
+
+    @Test
+    public void slotsAreLaidOutInTwoLevels() {
+        assertEquals("0" + File.separator + "0", CacheDirAllocator.entryIdOf(0));
+        assertEquals("0" + File.separator + "249", CacheDirAllocator.entryIdOf(249));
+        assertEquals("1" + File.separator + "0", CacheDirAllocator.entryIdOf(250));
+        assertEquals("400" + File.separator + "0", CacheDirAllocator.entryIdOf(100_000));
+    }
+
+    @Test
+    public void consecutiveAllocationsReturnConsecutiveSlots() {
+        assertEquals(new File(cacheDir, CacheDirAllocator.entryIdOf(0)), allocate("a"));
+        assertEquals(new File(cacheDir, CacheDirAllocator.entryIdOf(1)), allocate("b"));
+        assertEquals(new File(cacheDir, CacheDirAllocator.entryIdOf(2)), allocate("c"));
+    }
+
+    @Test
+    public void slotsUsedInTheIndexOrOnDiskAreSkipped() {
+        assertTrue(new File(cacheDir, CacheDirAllocator.entryIdOf(1)).mkdirs());
+        holder.runSynchronized(idx -> idx.createEntry(key("x"), CacheDirAllocator.entryIdOf(0)));
+
+        assertEquals(new File(cacheDir, CacheDirAllocator.entryIdOf(2)), allocate("a"));
+    }
+
+    @Test
+    public void slotsOfRemovedEntriesAreReused() {
+        for (int i = 0; i < 300; i++) {
+            allocate("r" + i);
+        }
+        holder.runSynchronized(idx -> idx.getAllEntries().forEach(idx::removeEntry));
+        for (int i = 0; i < 300; i++) {
+            new File(cacheDir, CacheDirAllocator.entryIdOf(i)).delete();
+        }
+
+        assertEquals(new File(cacheDir, CacheDirAllocator.entryIdOf(0)), allocate("new"));
+    }
+
+    private File allocate(String name) {
+        return holder.getSynchronized(idx -> {
+            final File dir = allocator.allocate(idx);
+            idx.createEntry(key(name), dir.getParentFile().getName() + File.separator + dir.getName());
+            return dir;
+        });
+    }
+
+    private static CacheKey key(String name) {
+        try {
+            return new CacheKey(new URL("http://example.com/" + name + ".jar"), null);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
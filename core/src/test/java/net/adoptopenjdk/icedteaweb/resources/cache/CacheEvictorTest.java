@@ -0,0 +1,241 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheEvictorTest {
+
+    private static final long NOW = 10_000_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void leastRecentlyUsedEvictsOldestEntries() {
+        final List<CacheEvictionCandidate> candidates = asList(
+                candidate("1/1", "a.com", 100, 5000),
+                candidate("1/2", "a.com", 100, 1000),
+                candidate("1/3", "b.com", 100, 3000)
+        );
+
+        final List<CacheEvictionCandidate> victims = select(candidates, CacheEvictionPolicy.LEAST_RECENTLY_USED, 200, -1);
+
+        assertIds(asList("1/2"), victims);
+    }
+
+    @Test
+    public void leastFrequentlyUsedEvictsRarelyUsedEntries() {
+        final List<CacheEvictionCandidate> candidates = asList(
+                candidate("1/1", "a.com", 100, 5000, 0),
+                candidate("1/2", "a.com", 100, 1000, 9),
+                candidate("1/3", "b.com", 100, 3000, 0)
+        );
+
+        final List<CacheEvictionCandidate> victims = select(candidates, CacheEvictionPolicy.LEAST_FREQUENTLY_USED, 100, -1);
+
+        assertIds(asList("1/3", "1/1"), victims);
+    }
+
+    @Test
+    public void sizeWeightedEvictsLargeOldEntries() {
+        final List<CacheEvictionCandidate> candidates = asList(
+                candidate("1/1", "a.com", 1000, NOW - 100),
+                candidate("1/2", "a.com", 10, NOW - 5000),
+                candidate("1/3", "b.com", 500, NOW - 1000)
+        );
+
+        final List<CacheEvictionCandidate> victims = select(candidates, CacheEvictionPolicy.SIZE_WEIGHTED, 1100, -1);
+
+        assertIds(asList("1/3"), victims);
+    }
+
+    @Test
+    public void domainQuotaIsEnforced() {
+        final List<CacheEvictionCandidate> candidates = asList(
+                candidate("1/1", "a.com", 100, 5000),
+                candidate("1/2", "a.com", 100, 4000),
+                candidate("1/3", "a.com", 100, 3000),
+                candidate("1/4", "b.com", 100, 1000)
+        );
+
+        final List<CacheEvictionCandidate> victims = select(candidates, CacheEvictionPolicy.LEAST_RECENTLY_USED, -1, 200);
+
+        assertIds(asList("1/3"), victims);
+    }
+
+    @Test
+    public void protectedEntriesAreNotEvictedButCount() {
+        final List<CacheEvictionCandidate> candidates = asList(
+                candidate("1/1", "a.com", 100, 5000),
+                candidate("1/2", "a.com", 100, 1000),
+                candidate("1/3", "b.com", 100, 3000)
+        );
+
+        final List<CacheEvictionCandidate> victims = CacheEvictor.selectVictims(candidates, CacheEvictionPolicy.LEAST_RECENTLY_USED,
+                200, -1, c -> c.getEntry().getId().equals("1/2"), NOW);
+
+        assertIds(asList("1/3"), victims);
+    }
+
+    @Test
+    public void evictionReducesCacheToLowWaterMark() throws IOException {
+        final File cacheDir = temporaryFolder.newFolder();
+        final CacheIndexHolder holder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(new File(cacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME)));
+        final List<CacheIndexEntry> deleted = new ArrayList<>();
+        final CacheEvictor evictor = new CacheEvictor(holder, e -> new File(cacheDir, e.getId()).length(), deleted::add, () -> true,
+                CacheEvictionPolicy.LEAST_RECENTLY_USED, 1000, 90, 50, -1);
+
+        final CacheKey key1 = new CacheKey(url("http://example.com/1.jar"), null);
+        final CacheKey key2 = new CacheKey(url("http://example.com/2.jar"), null);
+        final CacheKey key3 = new CacheKey(url("http://example.com/3.jar"), null);
+        holder.runSynchronized(idx -> {
+            idx.createEntry(key1, "1");
+            idx.createEntry(key2, "2");
+            idx.createEntry(key3, "3");
+            idx.getAllEntries().forEach(e -> idx.markAccessed(e, Long.parseLong(e.getId())));
+        });
+        for (String id : asList("1", "2", "3")) {
+            Files.write(new File(cacheDir, id).toPath(), new byte[400]);
+        }
+
+        final List<CacheIndexEntry> victims = evictor.evict();
+
+        assertEquals(asList("1", "2"), victims.stream().map(CacheIndexEntry::getId).collect(Collectors.toList()));
+        assertEquals(victims, deleted);
+        assertEquals(400, evictor.getTotalSize());
+        assertEquals(2, evictor.getEvictedEntryCount());
+        assertEquals(800, evictor.getEvictedBytes());
+        assertEquals(1, (int) holder.getSynchronized(idx -> idx.getAllEntries().size()));
+    }
+
+    @Test
+    public void nothingIsEvictedWhileDeletionIsNotAllowed() throws IOException {
+        final File cacheDir = temporaryFolder.newFolder();
+        final CacheIndexHolder holder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(new File(cacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME)));
+        final List<CacheIndexEntry> deleted = new ArrayList<>();
+        final CacheEvictor evictor = new CacheEvictor(holder, e -> new File(cacheDir, e.getId()).length(), deleted::add, () -> false,
+                CacheEvictionPolicy.LEAST_RECENTLY_USED, 100, 90, 50, -1);
+
+        final CacheKey key = new CacheKey(url("http://example.com/1.jar"), null);
+        holder.runSynchronized(idx -> idx.markAccessed(idx.createEntry(key, "1"), 1));
+        Files.write(new File(cacheDir, "1").toPath(), new byte[400]);
+
+        assertTrue(evictor.evict().isEmpty());
+        assertTrue(deleted.isEmpty());
+        assertEquals(1, (int) holder.getSynchronized(idx -> idx.getAllEntries().size()));
+    }
+
+    @Test
+    public void entriesUsedByThisJvmAreNotEvicted() throws IOException {
+        final File cacheDir = temporaryFolder.newFolder();
+        final CacheIndexHolder holder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(new File(cacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME)));
+        final CacheEvictor evictor = new CacheEvictor(holder, e -> new File(cacheDir, e.getId()).length(), e -> {}, () -> true,
+                CacheEvictionPolicy.LEAST_RECENTLY_USED, 100, 90, 50, -1);
+
+        final CacheKey key = new CacheKey(url("http://example.com/1.jar"), null);
+        final CacheIndexEntry entry = holder.getSynchronized(idx -> {
+            final CacheIndexEntry e = idx.createEntry(key, "1");
+            idx.markAccessed(e, 1);
+            return e;
+        });
+        Files.write(new File(cacheDir, "1").toPath(), new byte[400]);
+        evictor.recordAccess(entry);
+
+        assertTrue(evictor.evict().isEmpty());
+        assertEquals(400, evictor.getTotalSize());
+    }
+
+    @Test
+    public void derivedFilesOfUsedEntriesAreCounted() throws IOException {
+        final File cacheDir = temporaryFolder.newFolder();
+        final CacheIndexHolder holder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(new File(cacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME)));
+        final List<String> measured = new ArrayList<>();
+        final CacheEvictor evictor = new CacheEvictor(holder, e -> {
+            measured.add(e.getId());
+            return CacheImpl.sizeOfEntry(new File(cacheDir, e.getId()));
+        }, e -> {}, () -> true, CacheEvictionPolicy.LEAST_RECENTLY_USED, 1000, 90, 50, -1);
+
+        final CacheKey key1 = new CacheKey(url("http://example.com/1.jar"), null);
+        final CacheKey key2 = new CacheKey(url("http://example.com/2.jar"), null);
+        final List<CacheIndexEntry> entries = holder.getSynchronized(idx -> {
+            idx.markAccessed(idx.createEntry(key1, "1"), 1);
+            idx.markAccessed(idx.createEntry(key2, "2"), 1);
+            return idx.getAllEntries();
+        });
+        final File cacheFile = new File(cacheDir, "1");
+        Files.write(cacheFile.toPath(), new byte[400]);
+        Files.write(new File(cacheDir, "2").toPath(), new byte[100]);
+        assertTrue(evictor.evict().isEmpty());
+        assertEquals(500, evictor.getTotalSize());
+        assertEquals(2, measured.size());
+
+        // files derived from the cache file are written after the entry has been added
+        entries.stream().filter(e -> e.getId().equals("1")).forEach(evictor::recordAccess);
+        final File nativeDir = new File(cacheDir, "1.native");
+        assertTrue(nativeDir.mkdir());
+        Files.write(new File(nativeDir, "libnative.so").toPath(), new byte[700]);
+        measured.clear();
+
+        assertEquals(asList("2"), evictor.evict().stream().map(CacheIndexEntry::getId).collect(Collectors.toList()));
+        assertEquals(1100, evictor.getTotalSize());
+        // entries which are not used by this JVM are not measured again
+        assertEquals(asList("1"), measured);
+    }
+
+    @Test
+    public void totalSizeIsTrackedIncrementally() {
+        final CacheEvictor evictor = new CacheEvictor(null, e -> 0, e -> {}, () -> true,
+                CacheEvictionPolicy.LEAST_RECENTLY_USED, -1, 90, 50, -1);
+        final CacheIndexEntry entry1 = new CacheIndexEntry("1/1", 1, new CacheKey(url("http://example.com/1.jar"), null));
+        final CacheIndexEntry entry2 = new CacheIndexEntry("1/2", 1, new CacheKey(url("http://example.com/2.jar"), null));
+
+        evictor.entryAdded(entry1, 100);
+        evictor.entryAdded(entry2, 50);
+        assertEquals(150, evictor.getTotalSize());
+
+        evictor.entryRemoved(entry1);
+        assertEquals(50, evictor.getTotalSize());
+        assertFalse(evictor.isUsed(entry1));
+    }
+
+    private static List<CacheEvictionCandidate> select(List<CacheEvictionCandidate> candidates, CacheEvictionPolicy policy, long targetSize, long domainQuota) {
+        return CacheEvictor.selectVictims(candidates, policy, targetSize, domainQuota, c -> false, NOW);
+    }
+
+    private static CacheEvictionCandidate candidate(String id, String domain, long size, long lastAccessed) {
+        return candidate(id, domain, size, lastAccessed, 0);
+    }
+
+    private static CacheEvictionCandidate candidate(String id, String domain, long size, long lastAccessed, int accessCount) {
+        final CacheIndexEntry entry = new CacheIndexEntry(id, lastAccessed, new CacheKey(url("http://" + domain + "/" + id), null), accessCount);
+        return new CacheEvictionCandidate(entry, size);
+    }
+
+    private static void assertIds(List<String> expectedIds, List<CacheEvictionCandidate> actual) {
+        assertEquals(expectedIds, actual.stream().map(c -> c.getEntry().getId()).collect(Collectors.toList()));
+    }
+
+    private static URL url(final String urlString) {
+        try {
+            return new URL(urlString);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
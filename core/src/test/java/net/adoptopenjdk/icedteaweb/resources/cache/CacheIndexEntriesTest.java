@@ -0,0 +1,139 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheIndexEntriesTest {
+
+    private static final URL URL_1 = url("https://test.com/a.jar");
+    private static final URL URL_2 = url("https://foo.com/b.jar");
+
+    private static final CacheIndexEntry ENTRY_1 = new CacheIndexEntry("1/1", 100, new CacheKey(URL_1, null));
+    private static final CacheIndexEntry ENTRY_2 = new CacheIndexEntry("1/2", 200, new CacheKey(URL_2, null));
+    private static final CacheIndexEntry ENTRY_3 = new CacheIndexEntry("1/3", 300, new CacheKey(URL_1, VersionId.fromString("1.0")));
+    private static final CacheIndexEntry ENTRY_4 = new CacheIndexEntry("1/4", 400, new CacheKey(URL_1, VersionId.fromString("2.0")));
+
+    private CacheIndexEntries entries;
+
+    @Before
+    public void setup() {
+        entries = new CacheIndexEntries();
+    }
+
+    @Test
+    public void entriesAreOrderedByLastAccessed() {
+        entries.addEntry(ENTRY_3);
+        entries.addEntry(ENTRY_1);
+        entries.addEntry(ENTRY_4);
+        entries.addEntry(ENTRY_2);
+
+        assertIds(asList("1/4", "1/3", "1/2", "1/1"), entries.getAllEntries());
+    }
+
+    @Test
+    public void markAccessedMovesEntryToFront() {
+        entries.addEntry(ENTRY_1);
+        entries.addEntry(ENTRY_2);
+        entries.addEntry(ENTRY_3);
+
+        entries.markAccessed(ENTRY_1, 500);
+
+        final List<CacheIndexEntry> result = entries.getAllEntries();
+        assertIds(asList("1/1", "1/3", "1/2"), result);
+        assertEquals(500, result.get(0).getLastAccessed());
+    }
+
+    @Test
+    public void markAccessedWithOlderTimeRestoresOrder() {
+        entries.addEntry(ENTRY_1);
+        entries.addEntry(ENTRY_2);
+        entries.addEntry(ENTRY_3);
+
+        entries.markAccessed(ENTRY_3, 150);
+
+        assertIds(asList("1/2", "1/3", "1/1"), entries.getAllEntries());
+    }
+
+    @Test
+    public void markAccessedOfUnknownEntryDoesNothing() {
+        entries.addEntry(ENTRY_1);
+
+        assertFalse(entries.markAccessed(ENTRY_2, 500));
+        assertIds(asList("1/1"), entries.getAllEntries());
+    }
+
+    @Test
+    public void findEntryUsesLocationAndVersion() {
+        entries.addEntry(ENTRY_1);
+        entries.addEntry(ENTRY_2);
+        entries.addEntry(ENTRY_3);
+
+        assertEquals("1/1", entries.findEntry(new CacheKey(URL_1, null)).get().getId());
+        assertEquals("1/3", entries.findEntry(new CacheKey(URL_1, VersionId.fromString("1.0"))).get().getId());
+        assertFalse(entries.findEntry(new CacheKey(URL_2, VersionId.fromString("1.0"))).isPresent());
+    }
+
+    @Test
+    public void findAllEntriesOfLocation() {
+        entries.addEntry(ENTRY_1);
+        entries.addEntry(ENTRY_2);
+        entries.addEntry(ENTRY_3);
+        entries.addEntry(ENTRY_4);
+
+        assertEquals(3, entries.findAllEntries(URL_1).size());
+        assertEquals(1, entries.findAllEntries(URL_2).size());
+
+        final Set<CacheIndexEntry> versioned = entries.findAllEntries(URL_1, VersionString.fromString("1.0+"));
+        assertEquals(2, versioned.size());
+        assertTrue(versioned.contains(ENTRY_3));
+        assertTrue(versioned.contains(ENTRY_4));
+    }
+
+    @Test
+    public void removedEntriesAreNoLongerFound() {
+        entries.addEntry(ENTRY_1);
+        entries.addEntry(ENTRY_3);
+
+        entries.removeEntry(ENTRY_1);
+
+        assertFalse(entries.findEntry(new CacheKey(URL_1, null)).isPresent());
+        assertEquals(1, entries.findAllEntries(URL_1).size());
+        assertIds(asList("1/3"), entries.getAllEntries());
+    }
+
+    @Test
+    public void accessedEntryIsFoundWithNewAccessTime() {
+        entries.addEntry(ENTRY_1);
+
+        entries.markAccessed(ENTRY_1, 999);
+
+        assertEquals(999, entries.findEntry(new CacheKey(URL_1, null)).get().getLastAccessed());
+    }
+
+    private static void assertIds(List<String> expectedIds, List<CacheIndexEntry> actual) {
+        assertEquals(expectedIds.size(), actual.size());
+        for (int i = 0; i < expectedIds.size(); i++) {
+            assertEquals(expectedIds.get(i), actual.get(i).getId());
+        }
+    }
+
+    private static URL url(final String urlString) {
+        try {
+            return new URL(urlString);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
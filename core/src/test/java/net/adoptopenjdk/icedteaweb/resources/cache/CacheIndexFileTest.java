@@ -1,6 +1,7 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.lockingfile.LockableFile;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -11,7 +12,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
@@ -38,6 +41,7 @@ public class CacheIndexFileTest {
 
     private CacheIndexFile cacheFile;
     private File physicalFile;
+    private List<Long> readOffsets;
 
     @Rule
     public TemporaryFolder temporaryFolder = new TemporaryFolder();
@@ -45,7 +49,8 @@ public class CacheIndexFileTest {
     @Before
     public void setup() throws IOException {
         physicalFile = temporaryFolder.newFile("cache_file");
-        cacheFile = new CacheIndexFile(physicalFile);
+        readOffsets = new ArrayList<>();
+        cacheFile = new CacheIndexFile(LockableFile.getInstance(physicalFile), new RecordingFormat(readOffsets));
     }
 
     @Test(expected = IllegalStateException.class)
@@ -321,7 +326,7 @@ public class CacheIndexFileTest {
             cacheFile.unlock();
         }
 
-        assertFileContent(physicalFile, "::i=1/11::l=https://test.com::v=1.1::a=5678::");
+        assertFileContent(physicalFile, "::i=1/11::l=https://test.com::v=1.1::a=5678::c=1::");
     }
 
     @Test
@@ -359,6 +364,81 @@ public class CacheIndexFileTest {
         assertFalse(cacheFile.isDirty());
     }
 
+    @Test
+    public void actionsAppendedByOtherWriterAreLoadedIncrementally() throws Exception {
+        loadFile("::i=1/11::l=https://test.com::v=1.1::a=1234::\n");
+        final long loadedLength = physicalFile.length();
+
+        final CacheIndexFile otherWriter = new CacheIndexFile(physicalFile);
+        try {
+            otherWriter.lock();
+            otherWriter.load();
+            otherWriter.addEntry(ENTRY_2);
+            otherWriter.persistChanges();
+        } finally {
+            otherWriter.unlock();
+        }
+
+        reload();
+
+        assertEquals(asList(0L, loadedLength), readOffsets);
+        assertEquals(2, cacheFile.getAllEntries().size());
+    }
+
+    @Test
+    public void compactionByOtherWriterCausesFullReload() throws Exception {
+        loadFile(
+                "::i=1/11::l=https://test.com::v=1.1::a=1234::",
+                "::i=1/11::a=3456::\n"
+        );
+
+        final CacheIndexFile otherWriter = new CacheIndexFile(physicalFile);
+        try {
+            otherWriter.lock();
+            otherWriter.load();
+            otherWriter.addEntry(ENTRY_2);
+            otherWriter.markAccessed(ENTRY_1, LAST_ACCESSED_3);
+            otherWriter.requestCompression();
+            otherWriter.persistChanges();
+        } finally {
+            otherWriter.unlock();
+        }
+
+        reload();
+
+        assertEquals(asList(0L, 0L), readOffsets);
+        final List<CacheIndexEntry> result = cacheFile.getAllEntries();
+        assertEquals(2, result.size());
+        assertEquals(CACHE_ID_1, result.get(0).getId());
+        assertEquals(LAST_ACCESSED_3, result.get(0).getLastAccessed());
+    }
+
+    @Test
+    public void ownChangesAreNotReadAgain() throws Exception {
+        loadFile();
+        cacheFile.addEntry(ENTRY_1);
+
+        try {
+            cacheFile.lock();
+            cacheFile.persistChanges();
+        } finally {
+            cacheFile.unlock();
+        }
+        reload();
+
+        assertEquals(asList(0L, physicalFile.length()), readOffsets);
+        assertEquals(1, cacheFile.getAllEntries().size());
+    }
+
+    private void reload() throws IOException {
+        try {
+            cacheFile.lock();
+            cacheFile.load();
+        } finally {
+            cacheFile.unlock();
+        }
+    }
+
     private void loadFile(String... lines) throws IOException {
         try (FileOutputStream out = new FileOutputStream(physicalFile)) {
             out.write(String.join("\n", lines).getBytes(UTF_8));
@@ -389,6 +469,35 @@ public class CacheIndexFileTest {
         assertArrayEquals(expectedLines, actualLines);
     }
 
+    private static class RecordingFormat implements CacheIndexFormat {
+        private final List<Long> readOffsets;
+
+        private RecordingFormat(List<Long> readOffsets) {
+            this.readOffsets = readOffsets;
+        }
+
+        @Override
+        public String getFileName() {
+            return TEXT.getFileName();
+        }
+
+        @Override
+        public long read(File file, long offset, Consumer<CacheAction> consumer) throws IOException {
+            readOffsets.add(offset);
+            return TEXT.read(file, offset, consumer);
+        }
+
+        @Override
+        public void append(File file, List<CacheAction> actions) throws IOException {
+            TEXT.append(file, actions);
+        }
+
+        @Override
+        public void write(File file, List<CacheAction> actions) throws IOException {
+            TEXT.write(file, actions);
+        }
+    }
+
     private static URL url(final String urlString) {
         try {
             return new URL(urlString);
@@ -36,7 +36,6 @@ package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
-import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -50,6 +49,8 @@ import java.net.URL;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class CacheIndexHolderTest {
@@ -133,6 +134,78 @@ public class CacheIndexHolderTest {
         assertEquals(entry.get().getId(), entryId);
     }
 
+    @Test
+    public void indexFileStateChangesWhenOtherHolderChangesIndex() {
+        holder.runSynchronized(idx -> idx.createEntry(key, entryId));
+        final CacheIndexHolder.IndexFileState before = holder.getIndexFileState();
+
+        holder.runSynchronized(idx -> idx.findEntry(key));
+        assertEquals(before, holder.getIndexFileState());
+
+        // e.g. another JVM replacing the entry by a newer download
+        final CacheIndexHolder otherHolder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(recentlyUsedFile));
+        otherHolder.runSynchronized(idx -> {
+            idx.removeEntry(key);
+            idx.createEntry(key, "1-2");
+        });
+
+        assertNotEquals(before, holder.getIndexFileState());
+    }
+
+    @Test
+    public void textIndexIsMigratedToBinaryIndex() {
+        holder.runSynchronized(idx -> idx.createEntry(key, entryId));
+
+        final CacheIndexHolder binaryHolder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(recentlyUsedFile), CacheIndexFormat.BINARY);
+        final Optional<CacheIndexEntry> entry = binaryHolder.getSynchronized(idx -> idx.findEntry(key));
+
+        assertTrue(entry.isPresent());
+        assertEquals(entryId, entry.get().getId());
+        assertTrue(new File(recentlyUsedFile.getParentFile(), ConfigurationConstants.BINARY_CACHE_INDEX_FILE_NAME).isFile());
+        assertFalse(recentlyUsedFile.exists());
+    }
+
+    @Test
+    public void binaryIndexIsMigratedToTextIndex() {
+        final CacheIndexHolder binaryHolder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(recentlyUsedFile), CacheIndexFormat.BINARY);
+        binaryHolder.runSynchronized(idx -> idx.createEntry(key, entryId));
+
+        final Optional<CacheIndexEntry> entry = holder.getSynchronized(idx -> idx.findEntry(key));
+
+        assertTrue(entry.isPresent());
+        assertEquals(entryId, entry.get().getId());
+        assertFalse(new File(recentlyUsedFile.getParentFile(), ConfigurationConstants.BINARY_CACHE_INDEX_FILE_NAME).exists());
+    }
+
+    @Test
+    public void indexIsKeptIfMigrationFails() {
+        holder.runSynchronized(idx -> idx.createEntry(key, entryId));
+        final File binaryIndex = new File(recentlyUsedFile.getParentFile(), ConfigurationConstants.BINARY_CACHE_INDEX_FILE_NAME);
+        // the migrated index cannot be written
+        assertTrue(new File(binaryIndex.getPath() + ".migrating", "blocked").mkdirs());
+
+        final CacheIndexHolder binaryHolder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(recentlyUsedFile), CacheIndexFormat.BINARY);
+        final Optional<CacheIndexEntry> entry = binaryHolder.getSynchronized(idx -> idx.findEntry(key));
+
+        assertTrue(entry.isPresent());
+        assertEquals(entryId, entry.get().getId());
+        assertTrue(recentlyUsedFile.isFile());
+        assertFalse(binaryIndex.exists());
+    }
+
+    @Test
+    public void indexMigratedByOtherHolderIsNotMigratedBack() {
+        holder.runSynchronized(idx -> idx.createEntry(key, entryId));
+
+        final CacheIndexHolder binaryHolder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(recentlyUsedFile), CacheIndexFormat.BINARY);
+        binaryHolder.runSynchronized(idx -> idx.createEntry(new CacheKey(url, VersionId.fromString("2")), "1-2"));
+        final Optional<CacheIndexEntry> entry = holder.getSynchronized(idx -> idx.findEntry(new CacheKey(url, VersionId.fromString("2"))));
+
+        assertTrue(entry.isPresent());
+        assertTrue(new File(recentlyUsedFile.getParentFile(), ConfigurationConstants.BINARY_CACHE_INDEX_FILE_NAME).isFile());
+        assertFalse(recentlyUsedFile.exists());
+    }
+
     private void fillCacheIndexFile() {
         // fill cache index file
         holder.runSynchronized(idx -> {
@@ -142,23 +215,4 @@ public class CacheIndexHolderTest {
             }
         });
     }
-
-    private static class DummyInfrastructureFileDescriptor extends InfrastructureFileDescriptor {
-        private final File backend;
-
-        private DummyInfrastructureFileDescriptor(File backend) {
-            super();
-            this.backend = backend;
-        }
-
-        @Override
-        public File getFile() {
-            return backend;
-        }
-
-        @Override
-        public String getFullPath() {
-            return backend.getAbsolutePath();
-        }
-    }
 }
@@ -0,0 +1,94 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentAddressedStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File root;
+    private ContentAddressedStore store;
+
+    @Before
+    public void setup() throws IOException {
+        root = temporaryFolder.newFolder();
+        Assume.assumeTrue(ContentAddressedStore.isSupported(root));
+        store = new ContentAddressedStore(root);
+    }
+
+    @Test
+    public void identicalFilesShareTheirStorage() throws IOException {
+        final File first = newFile("0/1/a.jar", "content");
+        final File second = newFile("0/2/b.jar", "content");
+
+        assertFalse(store.store(first));
+        assertTrue(store.store(second));
+
+        assertTrue(Files.isSameFile(first.toPath(), second.toPath()));
+        assertArrayEquals("content".getBytes(UTF_8), Files.readAllBytes(second.toPath()));
+        assertEquals(1, store.getStoredBlobCount());
+        assertEquals(1, store.getDeduplicatedFileCount());
+        assertEquals(7, store.getSavedBytes());
+    }
+
+    @Test
+    public void sharedBlobIsCountedOnce() throws IOException {
+        final File first = newFile("0/1/a.jar", "content!");
+        final File second = newFile("0/2/b.jar", "content!");
+        assertEquals(8, ContentAddressedStore.sharedLength(first));
+
+        store.store(first);
+        assertEquals(8, ContentAddressedStore.sharedLength(first));
+        store.store(second);
+
+        assertEquals(4, ContentAddressedStore.sharedLength(first));
+        assertEquals(8, CacheImpl.sizeOfEntry(first) + CacheImpl.sizeOfEntry(second));
+    }
+
+    @Test
+    public void differentFilesAreNotShared() throws IOException {
+        final File first = newFile("0/1/a.jar", "content");
+        final File second = newFile("0/2/a.jar", "other content");
+
+        assertFalse(store.store(first));
+        assertFalse(store.store(second));
+
+        assertFalse(Files.isSameFile(first.toPath(), second.toPath()));
+    }
+
+    @Test
+    public void blobsAreDeletedWhenNoLongerReferenced() throws IOException {
+        final File first = newFile("0/1/a.jar", "content");
+        final File second = newFile("0/2/b.jar", "content");
+        store.store(first);
+        store.store(second);
+
+        assertTrue(first.delete());
+        assertEquals(0, store.collectGarbage());
+
+        assertTrue(second.delete());
+        assertEquals(1, store.collectGarbage());
+    }
+
+    private File newFile(String path, String content) throws IOException {
+        final File file = new File(root, path);
+        assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+        return file;
+    }
+}
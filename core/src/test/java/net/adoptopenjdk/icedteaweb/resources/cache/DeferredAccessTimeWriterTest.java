@@ -0,0 +1,100 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+public class DeferredAccessTimeWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File recentlyUsedFile;
+    private CacheIndexHolder holder;
+    private CacheIndexEntry entry1;
+    private CacheIndexEntry entry2;
+
+    @Before
+    public void setup() throws IOException {
+        final File cacheDir = temporaryFolder.newFolder();
+        recentlyUsedFile = new File(cacheDir, ConfigurationConstants.CACHE_INDEX_FILE_NAME);
+        holder = new CacheIndexHolder(new DummyInfrastructureFileDescriptor(recentlyUsedFile));
+
+        final CacheKey key1 = new CacheKey(new URL("http://example.com/a.jar"), null);
+        final CacheKey key2 = new CacheKey(new URL("http://example.com/b.jar"), null);
+        entry1 = holder.getSynchronized(idx -> idx.createEntry(key1, "1/1"));
+        entry2 = holder.getSynchronized(idx -> idx.createEntry(key2, "1/2"));
+    }
+
+    @Test
+    public void accessesAreNotWrittenBeforeFlush() throws IOException {
+        final DeferredAccessTimeWriter writer = new DeferredAccessTimeWriter(holder, 60_000, 100);
+        final int linesBefore = countLines();
+
+        writer.recordAccess(entry1, 5000);
+        writer.recordAccess(entry2, 6000);
+
+        assertEquals(linesBefore, countLines());
+        assertEquals(2, writer.getPendingCount());
+        assertEquals(0, writer.getFlushCount());
+    }
+
+    @Test
+    public void flushWritesCoalescedAccessesInOneUpdate() throws IOException {
+        final DeferredAccessTimeWriter writer = new DeferredAccessTimeWriter(holder, 60_000, 100);
+        final int linesBefore = countLines();
+
+        writer.recordAccess(entry1, 5000);
+        writer.recordAccess(entry1, 7000);
+        writer.recordAccess(entry2, 6000);
+        writer.flush();
+
+        assertEquals(linesBefore + 2, countLines());
+        assertEquals(1, writer.getFlushCount());
+        assertEquals(3, writer.getRecordedAccessCount());
+        assertEquals(2, writer.getWrittenAccessCount());
+        assertEquals(0, writer.getPendingCount());
+
+        final List<CacheIndexEntry> entries = holder.getSynchronized(CacheIndex::getAllEntries);
+        assertEquals("1/1", entries.get(0).getId());
+        assertEquals(7000, entries.get(0).getLastAccessed());
+        assertEquals(2, entries.get(0).getAccessCount());
+        assertEquals(1, entries.get(1).getAccessCount());
+    }
+
+    @Test
+    public void reachingTheThresholdFlushes() {
+        final DeferredAccessTimeWriter writer = new DeferredAccessTimeWriter(holder, 60_000, 2);
+
+        writer.recordAccess(entry1, 5000);
+        assertEquals(0, writer.getFlushCount());
+
+        writer.recordAccess(entry2, 6000);
+        assertEquals(1, writer.getFlushCount());
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    public void flushWithoutPendingAccessesDoesNothing() {
+        final DeferredAccessTimeWriter writer = new DeferredAccessTimeWriter(holder, 60_000, 100);
+
+        writer.flush();
+
+        assertEquals(0, writer.getFlushCount());
+    }
+
+    private int countLines() throws IOException {
+        return new String(Files.readAllBytes(recentlyUsedFile.toPath()), UTF_8).split("\\R").length;
+    }
+}
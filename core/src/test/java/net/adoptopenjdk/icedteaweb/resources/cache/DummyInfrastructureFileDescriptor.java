@@ -0,0 +1,27 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.sourceforge.jnlp.config.InfrastructureFileDescriptor;
+
+import java.io.File;
+
+/**
+ * Infrastructure file which is backed by a given file, e.g. in a temporary folder of a test.
+ */
+class DummyInfrastructureFileDescriptor extends InfrastructureFileDescriptor {
+    private final File backend;
+
+    DummyInfrastructureFileDescriptor(File backend) {
+        super();
+        this.backend = backend;
+    }
+
+    @Override
+    public File getFile() {
+        return backend;
+    }
+
+    @Override
+    public String getFullPath() {
+        return backend.getAbsolutePath();
+    }
+}
@@ -0,0 +1,101 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StagedDownloadTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void contentIsWrittenToStagingFile() throws Exception {
+        final byte[] content = "some content".getBytes();
+        final File stagingFile = temporaryFolder.newFile();
+        final StagedDownload download = new StagedDownload(new URL("http://localhost/test.jar"));
+
+        final InputStream in = new ByteArrayInputStream(content);
+        download.stage(in, in, stagingFile, -1);
+
+        assertArrayEquals(content, Files.readAllBytes(stagingFile.toPath()));
+    }
+
+    @Test
+    public void rawContentOfKnownSizeIsTransferredToStagingFile() throws Exception {
+        final byte[] content = new byte[200_000];
+        new Random(42).nextBytes(content);
+        final File stagingFile = temporaryFolder.newFile();
+        final StagedDownload download = new StagedDownload(new URL("http://localhost/test.jar"));
+
+        final InputStream in = new ByteArrayInputStream(content);
+        download.stage(in, in, stagingFile, content.length);
+
+        assertArrayEquals(content, Files.readAllBytes(stagingFile.toPath()));
+    }
+
+    @Test
+    public void stagingFileIsTruncatedIfContentIsShorterThanExpected() throws Exception {
+        final byte[] content = "some content".getBytes();
+        final File stagingFile = temporaryFolder.newFile();
+        final StagedDownload download = new StagedDownload(new URL("http://localhost/test.jar"));
+
+        final InputStream in = new ByteArrayInputStream(content);
+        download.stage(in, in, stagingFile, 1000);
+
+        assertArrayEquals(content, Files.readAllBytes(stagingFile.toPath()));
+    }
+
+    @Test
+    public void unpackedContentIsCopiedToStagingFile() throws Exception {
+        final byte[] content = "some content".getBytes();
+        final File stagingFile = temporaryFolder.newFile();
+        final StagedDownload download = new StagedDownload(new URL("http://localhost/test.jar"));
+
+        final InputStream raw = new ByteArrayInputStream(new byte[1000]);
+        download.stage(raw, new ByteArrayInputStream(content), stagingFile, 1000);
+
+        assertArrayEquals(content, Files.readAllBytes(stagingFile.toPath()));
+    }
+
+    @Test
+    public void abortedDownloadFails() throws Exception {
+        final File stagingFile = temporaryFolder.newFile();
+        final StagedDownload download = new StagedDownload(new URL("http://localhost/test.jar"));
+        download.abort();
+
+        try {
+            final InputStream in = new ByteArrayInputStream(new byte[10]);
+            download.stage(in, in, stagingFile, -1);
+            fail("aborted download must not succeed");
+        } catch (InterruptedIOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void discardDeletesStagingFile() throws Exception {
+        final File stagingFile = temporaryFolder.newFile();
+        final StagedDownload download = new StagedDownload(new URL("http://localhost/test.jar"));
+        final InputStream in = new ByteArrayInputStream(new byte[10]);
+        download.stage(in, in, stagingFile, -1);
+        assertTrue(stagingFile.exists());
+
+        download.discard();
+
+        assertFalse(stagingFile.exists());
+    }
+}
@@ -0,0 +1,114 @@
+package net.sourceforge.jnlp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClassDataSharingArchiveTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File mainJar;
+
+    @Before
+    public void setup() throws IOException {
+        mainJar = new File(temporaryFolder.newFolder("1", "2"), "main.jar");
+        Files.write(mainJar.toPath(), new byte[]{1, 2, 3});
+    }
+
+    @Test
+    public void missingArchiveIsRecorded() {
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(mainJar, "key");
+
+        final List<String> vmArgs = archive.getVmArgs();
+
+        assertEquals(1, vmArgs.size());
+        assertTrue(vmArgs.get(0).startsWith("-XX:ArchiveClassesAtExit=" + archive.getArchive().getPath() + "."));
+    }
+
+    @Test
+    public void existingArchiveIsUsed() throws IOException {
+        final File existing = new File(mainJar.getPath() + ".key" + ClassDataSharingArchive.ARCHIVE_SUFFIX);
+        Files.write(existing.toPath(), new byte[]{4, 5, 6});
+
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(mainJar, "key");
+
+        assertEquals(Collections.singletonList("-XX:SharedArchiveFile=" + existing.getPath()), archive.getVmArgs());
+    }
+
+    @Test
+    public void recordingReplacesOutdatedArchives() throws IOException {
+        final File outdated = new File(mainJar.getPath() + ".old" + ClassDataSharingArchive.ARCHIVE_SUFFIX);
+        Files.write(outdated.toPath(), new byte[]{4, 5, 6});
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(mainJar, "key");
+
+        Files.write(recordingOf(archive).toPath(), new byte[]{7, 8, 9});
+        archive.launchFinished();
+
+        assertArrayEquals(new byte[]{7, 8, 9}, Files.readAllBytes(archive.getArchive().toPath()));
+        assertFalse(outdated.exists());
+        assertTrue(mainJar.exists());
+        assertEquals(Arrays.asList("main.jar", archive.getArchive().getName()), sortedNames(mainJar.getParentFile()));
+    }
+
+    @Test
+    public void emptyRecordingIsDiscarded() throws IOException {
+        final ClassDataSharingArchive archive = new ClassDataSharingArchive(mainJar, "key");
+
+        Files.write(recordingOf(archive).toPath(), new byte[0]);
+        archive.launchFinished();
+
+        assertFalse(archive.getArchive().exists());
+        assertEquals(Collections.singletonList("main.jar"), sortedNames(mainJar.getParentFile()));
+    }
+
+    @Test
+    public void sharingOptionsOfApplicationArePreserved() {
+        assertTrue(ClassDataSharingArchive.hasSharingOptions(Arrays.asList("-Xmx1g", "-Xshare:off")));
+        assertTrue(ClassDataSharingArchive.hasSharingOptions(Collections.singletonList("-XX:SharedArchiveFile=app.jsa")));
+        assertFalse(ClassDataSharingArchive.hasSharingOptions(Collections.singletonList("-Xmx1g")));
+    }
+
+    @Test
+    public void javaMajorVersionIsParsed() {
+        assertEquals(8, ClassDataSharingArchive.javaMajorVersion("1.8"));
+        assertEquals(11, ClassDataSharingArchive.javaMajorVersion("11"));
+        assertEquals(17, ClassDataSharingArchive.javaMajorVersion("17.0"));
+        assertEquals(-1, ClassDataSharingArchive.javaMajorVersion("unknown"));
+    }
+
+    @Test
+    public void keyDependsOnEntriesAndJvm() throws Exception {
+        final String key = ClassDataSharingArchive.keyOf("app", "jvm", Arrays.asList("1/2", "3/4"));
+
+        assertEquals(key, ClassDataSharingArchive.keyOf("app", "jvm", Arrays.asList("1/2", "3/4")));
+        assertNotEquals(key, ClassDataSharingArchive.keyOf("app", "jvm", Arrays.asList("1/2", "3/5")));
+        assertNotEquals(key, ClassDataSharingArchive.keyOf("app", "other jvm", Arrays.asList("1/2", "3/4")));
+    }
+
+    private static File recordingOf(final ClassDataSharingArchive archive) {
+        final String arg = archive.getVmArgs().get(0);
+        return new File(arg.substring(arg.indexOf('=') + 1));
+    }
+
+    private static List<String> sortedNames(final File dir) {
+        final String[] names = dir.list();
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+}
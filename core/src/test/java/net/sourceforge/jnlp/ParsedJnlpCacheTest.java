@@ -0,0 +1,105 @@
+package net.sourceforge.jnlp;
+
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNode;
+import net.adoptopenjdk.icedteaweb.xmlparser.XMLParser;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.MALFORMED;
+import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.NORMAL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParsedJnlpCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheRoot;
+    private ParsedJnlpCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheRoot = temporaryFolder.newFolder("cache");
+        cache = new ParsedJnlpCache(cacheRoot);
+    }
+
+    @Test
+    public void storedTreeIsUsedForUnchangedFile() throws Exception {
+        final File jnlp = jnlpFile("<jnlp><information><title>Stored</title></information></jnlp>");
+        cache.write(jnlp, NORMAL, parse(jnlp));
+
+        final XmlNode stored = cache.read(jnlp, NORMAL);
+
+        assertNotNull(stored);
+        assertEquals("Stored", stored.getChildren("information").get(0).getChildren("title").get(0).getNodeValue());
+    }
+
+    @Test
+    public void storedTreeIsNotUsedForChangedFile() throws Exception {
+        final File jnlp = jnlpFile("<jnlp><information><title>Stored</title></information></jnlp>");
+        cache.write(jnlp, NORMAL, parse(jnlp));
+
+        Files.write(jnlp.toPath(), "<jnlp><information><title>Changed title</title></information></jnlp>".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(cache.read(jnlp, NORMAL));
+    }
+
+    @Test
+    public void storedTreeIsNotUsedForOtherParser() throws Exception {
+        final File jnlp = jnlpFile("<jnlp/>");
+        cache.write(jnlp, NORMAL, parse(jnlp));
+
+        assertNull(cache.read(jnlp, MALFORMED));
+    }
+
+    @Test
+    public void missingTreeIsNotFound() throws Exception {
+        assertNull(cache.read(jnlpFile("<jnlp/>"), NORMAL));
+    }
+
+    @Test
+    public void treeOfFileOutsideOfCacheIsNotStored() throws Exception {
+        final File jnlp = new File(temporaryFolder.newFolder("elsewhere"), "app.jnlp");
+        Files.write(jnlp.toPath(), "<jnlp/>".getBytes(StandardCharsets.UTF_8));
+
+        cache.write(jnlp, NORMAL, parse(jnlp));
+
+        assertFalse(ParsedJnlpCache.parsedFileOf(jnlp).exists());
+        assertNull(cache.read(jnlp, NORMAL));
+    }
+
+    @Test
+    public void treeIsStoredNextToFileInCacheEntry() throws Exception {
+        final File jnlp = jnlpFile("<jnlp/>");
+
+        cache.write(jnlp, NORMAL, parse(jnlp));
+
+        assertTrue(new File(jnlp.getPath() + ParsedJnlpCache.PARSED_SUFFIX).isFile());
+    }
+
+    private File jnlpFile(final String content) throws Exception {
+        final File entryDir = new File(cacheRoot, "1/2");
+        assertTrue(entryDir.isDirectory() || entryDir.mkdirs());
+        final File file = new File(entryDir, "app.jnlp");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static XmlNode parse(final File file) throws Exception {
+        try (InputStream in = new FileInputStream(file)) {
+            return new XMLParser().getRootNode(in);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.sourceforge.jnlp.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachedNativeLibrariesTest {
+
+    private static final long LONG_AGO = 1_000_000_000_000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheRoot;
+    private CachedNativeLibraries libraries;
+
+    @Before
+    public void setup() throws IOException {
+        cacheRoot = temporaryFolder.newFolder("cache");
+        libraries = new CachedNativeLibraries(cacheRoot);
+    }
+
+    @Test
+    public void onlyJarsInCacheEntryAreCached() throws IOException {
+        assertTrue(libraries.isCached(createJar(new File(cacheRoot, "1/2"), "native content")));
+        assertFalse(libraries.isCached(createJar(temporaryFolder.newFolder("elsewhere"), "native content")));
+        assertFalse(libraries.isCached(createJar(new File(cacheRoot, "1"), "native content")));
+    }
+
+    @Test
+    public void librariesAreExtractedNextToJar() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "native content");
+
+        final File directory = extract(jar);
+
+        assertEquals(new File(jar.getPath() + CachedNativeLibraries.DIRECTORY_SUFFIX), directory);
+        assertArrayEquals("native content".getBytes(), Files.readAllBytes(new File(directory, "libtest.so").toPath()));
+        assertTrue(new File(directory, CachedNativeLibraries.CHECKSUMS_FILE_NAME).isFile());
+    }
+
+    @Test
+    public void unchangedLibraryIsReused() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "native content");
+        final File library = new File(extract(jar), "libtest.so");
+        assertTrue(library.setLastModified(LONG_AGO));
+
+        extract(jar);
+
+        assertEquals(LONG_AGO, library.lastModified());
+    }
+
+    @Test
+    public void changedLibraryIsExtractedAgain() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "native content");
+        final File library = new File(extract(jar), "libtest.so");
+
+        createJar(new File(cacheRoot, "1/2"), "changed native content");
+        extract(jar);
+
+        assertArrayEquals("changed native content".getBytes(), Files.readAllBytes(library.toPath()));
+    }
+
+    @Test
+    public void modifiedLibraryIsExtractedAgain() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "native content");
+        final File library = new File(extract(jar), "libtest.so");
+        Files.write(library.toPath(), "truncated".getBytes());
+
+        extract(jar);
+
+        assertArrayEquals("native content".getBytes(), Files.readAllBytes(library.toPath()));
+    }
+
+    @Test
+    public void tamperedLibraryOfSameSizeIsExtractedAgain() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "native content");
+        final File library = new File(extract(jar), "libtest.so");
+        Files.write(library.toPath(), "tampered data!".getBytes());
+
+        extract(jar);
+
+        assertArrayEquals("native content".getBytes(), Files.readAllBytes(library.toPath()));
+    }
+
+    private File extract(final File jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            final List<JarEntry> entries = Collections.singletonList(jarFile.getJarEntry("lib/libtest.so"));
+            return libraries.extract(jar, jarFile, entries);
+        }
+    }
+
+    private static File createJar(final File dir, final String libraryContent) throws IOException {
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+        final File jar = new File(dir, "native.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("lib/libtest.so"));
+            out.write(libraryContent.getBytes());
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,91 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.xmlparser.ParseException;
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.ParserSettings;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExtensionFilesTest {
+
+    private static final String CODEBASE = "http://localhost/";
+
+    private final Map<String, String> extensionsByFile = new HashMap<>();
+    private final Map<String, AtomicInteger> loadCounts = new ConcurrentHashMap<>();
+
+    @Test
+    public void wholeTreeIsFetchedOncePerLocation() throws Exception {
+        extensionsByFile.put("a.jnlp", "c.jnlp");
+        extensionsByFile.put("b.jnlp", "c.jnlp a.jnlp");
+        extensionsByFile.put("c.jnlp", "a.jnlp");
+
+        try (ExtensionFiles files = new ExtensionFiles(this::load, 4)) {
+            files.prefetch(file("root.jnlp", "a.jnlp b.jnlp").getResources().getExtensions());
+
+            // the extensions of a file are known once the file has been fetched
+            files.get(new URL(CODEBASE + "a.jnlp"), null);
+            final JNLPFile c = files.get(new URL(CODEBASE + "c.jnlp"), null);
+            assertEquals(1, c.getResources().getExtensions().length);
+            files.get(new URL(CODEBASE + "b.jnlp"), null);
+
+            assertEquals(3, files.size());
+        }
+
+        assertEquals(1, loadCounts.get("a.jnlp").get());
+        assertEquals(1, loadCounts.get("b.jnlp").get());
+        assertEquals(1, loadCounts.get("c.jnlp").get());
+    }
+
+    @Test
+    public void fileWhichIsNotPartOfTheTreeIsNotFetched() throws Exception {
+        try (ExtensionFiles files = new ExtensionFiles(this::load, 4)) {
+            files.prefetch(file("root.jnlp", "a.jnlp").getResources().getExtensions());
+
+            assertNull(files.get(new URL(CODEBASE + "other.jnlp"), null));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void failureIsReportedWhenFileIsTaken() throws Exception {
+        try (ExtensionFiles files = new ExtensionFiles((location, version) -> {
+            throw new IOException("not available");
+        }, 4)) {
+            files.prefetch(file("root.jnlp", "a.jnlp").getResources().getExtensions());
+
+            files.get(new URL(CODEBASE + "a.jnlp"), null);
+        }
+    }
+
+    private JNLPFile load(final URL location, final VersionString version) throws IOException, ParseException {
+        final String name = location.getPath().substring(1);
+        loadCounts.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+        return file(name, extensionsByFile.getOrDefault(name, ""));
+    }
+
+    private static JNLPFile file(final String name, final String extensions) throws IOException, ParseException {
+        final StringBuilder jnlp = new StringBuilder();
+        jnlp.append("<jnlp spec='1.0' codebase='" + CODEBASE + "' href='" + name + "'>\n");
+        jnlp.append("<information><title>" + name + "</title><vendor>test</vendor></information>\n");
+        jnlp.append("<resources>\n");
+        for (String extension : extensions.split(" ")) {
+            if (!extension.isEmpty()) {
+                jnlp.append("<extension href='" + extension + "'/>\n");
+            }
+        }
+        jnlp.append("</resources>\n");
+        jnlp.append("<component-desc/>\n");
+        jnlp.append("</jnlp>");
+        return new JNLPFile(new ByteArrayInputStream(jnlp.toString().getBytes()), new URL(CODEBASE), new ParserSettings(false, false, false));
+    }
+}
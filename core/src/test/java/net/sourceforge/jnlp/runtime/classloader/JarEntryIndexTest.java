@@ -0,0 +1,138 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.adoptopenjdk.icedteaweb.client.parts.dialogs.security.appletextendedsecurity.AppletSecurityLevel;
+import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
+import net.adoptopenjdk.icedteaweb.testing.mock.DummyJNLPFileWithJar;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import net.sourceforge.jnlp.util.JarScan;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class JarEntryIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void missingEntryOfIndexedJarsIsDefinitelyMissing() throws MalformedURLException {
+        final JarEntryIndex index = new JarEntryIndex();
+        final URL location = new URL("http://example.com/a.jar");
+        index.addJar(location, asList("com/example/", "com/example/A.class", "res.txt"));
+        index.locationAdded(location);
+
+        assertFalse(index.isDefinitelyMissing("com/example/A.class"));
+        assertFalse(index.isDefinitelyMissing("res.txt"));
+        assertFalse(index.isDefinitelyMissing("com/example"));
+        assertTrue(index.isDefinitelyMissing("com/example/B.class"));
+        assertEquals(1, index.getSkippedLookupCount());
+    }
+
+    @Test
+    public void unindexedLocationMakesIndexInconclusive() throws MalformedURLException {
+        final JarEntryIndex index = new JarEntryIndex();
+        index.addJar(new URL("http://example.com/a.jar"), asList("com/example/A.class"));
+        index.locationAdded(new URL("http://example.com/a.jar"));
+        index.locationAdded(new URL("http://example.com/b.jar"));
+
+        assertFalse(index.isConclusive());
+        assertFalse(index.isDefinitelyMissing("com/example/B.class"));
+        assertEquals(0, index.getSkippedLookupCount());
+    }
+
+    @Test
+    public void indexingLocationAfterAddingItMakesIndexConclusive() throws MalformedURLException {
+        final JarEntryIndex index = new JarEntryIndex();
+        final URL location = new URL("http://example.com/a.jar");
+        index.locationAdded(location);
+        assertFalse(index.isConclusive());
+
+        index.addJar(location, asList("com/example/A.class"));
+
+        assertTrue(index.isConclusive());
+        assertTrue(index.isDefinitelyMissing("com/example/B.class"));
+    }
+
+    @Test
+    public void mergedIndexContainsEntriesAndLocationsOfBoth() throws MalformedURLException {
+        final JarEntryIndex index = new JarEntryIndex();
+        index.addJar(new URL("http://example.com/a.jar"), asList("A.class"));
+        final JarEntryIndex other = new JarEntryIndex();
+        other.addJar(new URL("http://example.com/b.jar"), asList("B.class"));
+        other.locationAdded(new URL("http://example.com/c.jar"));
+
+        index.addAll(other);
+
+        assertEquals(2, index.size());
+        assertFalse(index.isConclusive());
+
+        index.addJar(new URL("http://example.com/c.jar"), asList("C.class"));
+        assertFalse(index.isDefinitelyMissing("B.class"));
+        assertTrue(index.isDefinitelyMissing("D.class"));
+    }
+
+    @Test
+    public void jarWithManifestClassPathIsNotIndexable() throws IOException {
+        final File dir = temporaryFolder.newFolder();
+
+        assertTrue(JarEntryIndex.isIndexable(JarScan.of(createJar(new File(dir, "plain.jar"), null, "A.class"))));
+        assertFalse(JarEntryIndex.isIndexable(JarScan.of(createJar(new File(dir, "app.jar"), "library.jar", "A.class"))));
+    }
+
+    @Test
+    public void jarsOnManifestClassPathAreSearched() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        createJar(new File(dir, "library.jar"), null, "library.txt");
+        // the library jar is only referenced by the manifest of the application jar, not by the JNLP file
+        final File jarLocation = createJar(new File(dir, "app.jar"), "library.jar", "app.txt");
+
+        final DeploymentConfiguration config = JNLPRuntime.getConfiguration();
+        final String securityLevel = config.getProperty(ConfigurationConstants.KEY_SECURITY_LEVEL);
+        final String promptUser = config.getProperty(ConfigurationConstants.KEY_SECURITY_PROMPT_USER);
+        try {
+            config.setProperty(ConfigurationConstants.KEY_SECURITY_LEVEL, AppletSecurityLevel.ALLOW_UNSIGNED.toChars());
+            config.setProperty(ConfigurationConstants.KEY_SECURITY_PROMPT_USER, Boolean.toString(false));
+
+            final JNLPClassLoader classLoader = new JNLPClassLoader(new DummyJNLPFileWithJar(jarLocation), UpdatePolicy.ALWAYS);
+
+            assertNotNull(classLoader.findResource("library.txt"));
+            assertTrue(classLoader.findResources("library.txt").hasMoreElements());
+        } finally {
+            config.setProperty(ConfigurationConstants.KEY_SECURITY_LEVEL, securityLevel);
+            config.setProperty(ConfigurationConstants.KEY_SECURITY_PROMPT_USER, promptUser);
+        }
+    }
+
+    private static File createJar(final File jar, final String classPath, final String entryName) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            out.putNextEntry(new JarEntry(entryName));
+            out.write(entryName.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
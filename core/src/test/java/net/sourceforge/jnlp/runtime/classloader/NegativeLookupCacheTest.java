@@ -0,0 +1,85 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NegativeLookupCacheTest {
+
+    @Test
+    public void missingNameIsRemembered() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+
+        assertFalse(cache.isKnownAbsentClass("com.example.Missing"));
+        cache.classNotFound("com.example.Missing", cache.currentGeneration());
+
+        assertTrue(cache.isKnownAbsentClass("com.example.Missing"));
+        assertFalse(cache.isKnownAbsentResource("com.example.Missing"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void changedClassPathForgetsRememberedNames() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+        cache.resourceNotFound("missing.txt", cache.currentGeneration());
+        assertTrue(cache.isKnownAbsentResource("missing.txt"));
+
+        cache.classPathChanged();
+
+        assertFalse(cache.isKnownAbsentResource("missing.txt"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    @Test
+    public void changedClassPathOfOtherLoaderKeepsRememberedNames() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+        final NegativeLookupCache otherCache = new NegativeLookupCache(10);
+        cache.classNotFound("com.example.Missing", cache.currentGeneration());
+
+        otherCache.classPathChanged();
+
+        assertTrue(cache.isKnownAbsentClass("com.example.Missing"));
+        assertEquals(0, cache.getInvalidationCount());
+    }
+
+    @Test
+    public void nameSearchedWhileClassPathChangedIsNotRemembered() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+        final long searchGeneration = cache.currentGeneration();
+
+        cache.classPathChanged();
+        cache.classNotFound("com.example.Missing", searchGeneration);
+
+        assertFalse(cache.isKnownAbsentClass("com.example.Missing"));
+    }
+
+    @Test
+    public void leastRecentlyLookedUpNameIsForgotten() {
+        final NegativeLookupCache cache = new NegativeLookupCache(2);
+        final long generation = cache.currentGeneration();
+        cache.classNotFound("A", generation);
+        cache.classNotFound("B", generation);
+        assertTrue(cache.isKnownAbsentClass("A"));
+
+        cache.classNotFound("C", generation);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isKnownAbsentClass("A"));
+        assertFalse(cache.isKnownAbsentClass("B"));
+        assertTrue(cache.isKnownAbsentClass("C"));
+    }
+
+    @Test
+    public void zeroCapacityDisablesCache() {
+        final NegativeLookupCache cache = new NegativeLookupCache(0);
+        cache.classNotFound("A", cache.currentGeneration());
+
+        assertFalse(cache.isKnownAbsentClass("A"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+}
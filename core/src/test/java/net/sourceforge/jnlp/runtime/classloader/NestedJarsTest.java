@@ -0,0 +1,98 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NestedJarsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File outerJar;
+    private byte[] nestedContent;
+
+    @Before
+    public void setup() throws IOException {
+        nestedContent = new byte[300 * 1024];
+        new Random(42).nextBytes(nestedContent);
+        outerJar = temporaryFolder.newFile("outer.jar");
+        writeOuterJar(nestedContent);
+    }
+
+    @Test
+    public void nestedJarIsExtractedOnRequest() throws Exception {
+        final NestedJars nestedJars = new NestedJars(outerJar);
+        assertFalse(nestedJars.isExtracted("lib/nested.jar"));
+
+        final File extracted = nestedJars.extract("lib/nested.jar");
+
+        assertEquals(new File(outerJar.getPath() + NestedJars.DIRECTORY_SUFFIX, "lib/nested.jar"), extracted);
+        assertArrayEquals(nestedContent, Files.readAllBytes(extracted.toPath()));
+        assertTrue(nestedJars.isExtracted("lib/nested.jar"));
+        assertFalse(nestedJars.isExtracted("lib/other.jar"));
+    }
+
+    @Test
+    public void extractedJarIsReusedWhileOuterJarIsUnchanged() throws Exception {
+        final File extracted = new NestedJars(outerJar).extract("lib/nested.jar");
+        final long extractedAt = extracted.lastModified();
+
+        final NestedJars nextLaunch = new NestedJars(outerJar);
+
+        assertTrue(nextLaunch.isExtracted("lib/nested.jar"));
+        assertEquals(extracted, nextLaunch.extract("lib/nested.jar"));
+        assertEquals(extractedAt, extracted.lastModified());
+    }
+
+    @Test
+    public void extractedJarIsReplacedWhenOuterJarChanged() throws Exception {
+        new NestedJars(outerJar).extract("lib/nested.jar");
+
+        final byte[] changedContent = Arrays.copyOf(nestedContent, 1000);
+        writeOuterJar(changedContent);
+        assertTrue(outerJar.setLastModified(outerJar.lastModified() + 10_000));
+        final NestedJars nextLaunch = new NestedJars(outerJar);
+
+        assertFalse(nextLaunch.isExtracted("lib/nested.jar"));
+        final File extracted = nextLaunch.extract("lib/nested.jar");
+        assertArrayEquals(changedContent, Files.readAllBytes(extracted.toPath()));
+    }
+
+    @Test
+    public void nameWithParentReferenceStaysInDirectory() throws Exception {
+        final NestedJars nestedJars = new NestedJars(outerJar);
+
+        final File file = nestedJars.fileOf("../../evil.jar");
+
+        assertEquals(new File(outerJar.getPath() + NestedJars.DIRECTORY_SUFFIX), file.getParentFile());
+        assertNotEquals("evil.jar", file.getName());
+    }
+
+    private void writeOuterJar(final byte[] content) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(outerJar))) {
+            out.putNextEntry(new JarEntry("lib/nested.jar"));
+            out.write(content);
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("Main.class"));
+            out.write(new byte[]{1, 2, 3});
+            out.closeEntry();
+        }
+    }
+}
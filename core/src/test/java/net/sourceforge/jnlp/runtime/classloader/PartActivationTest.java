@@ -0,0 +1,294 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.adoptopenjdk.icedteaweb.client.parts.dialogs.security.appletextendedsecurity.AppletSecurityLevel;
+import net.adoptopenjdk.icedteaweb.jnlp.element.EntryPoint;
+import net.adoptopenjdk.icedteaweb.jnlp.element.application.ApplicationDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.ResourcesDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
+import net.adoptopenjdk.icedteaweb.testing.mock.DummyJNLPFileWithJar;
+import net.sourceforge.jnlp.JNLPFile;
+import net.sourceforge.jnlp.LaunchException;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.DeploymentConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static net.sourceforge.jnlp.runtime.JNLPRuntime.getConfiguration;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PartActivationTest {
+
+    private static final String[] PARTS = {"a", "b", "c", "d", "e", "f", "g", "h"};
+    private static final int JARS_PER_PART = 2;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private String securityLevel;
+    private String promptUser;
+    private String backgroundActivation;
+
+    private File mainJar;
+    private final List<JARDesc> lazyJars = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        final DeploymentConfiguration config = getConfiguration();
+        securityLevel = config.getProperty(ConfigurationConstants.KEY_SECURITY_LEVEL);
+        promptUser = config.getProperty(ConfigurationConstants.KEY_SECURITY_PROMPT_USER);
+        backgroundActivation = config.getProperty(ConfigurationConstants.KEY_BACKGROUND_PART_ACTIVATION);
+        config.setProperty(ConfigurationConstants.KEY_SECURITY_LEVEL, AppletSecurityLevel.ALLOW_UNSIGNED.toChars());
+        config.setProperty(ConfigurationConstants.KEY_SECURITY_PROMPT_USER, Boolean.toString(false));
+        config.setProperty(ConfigurationConstants.KEY_BACKGROUND_PART_ACTIVATION, Boolean.toString(true));
+
+        final File dir = temporaryFolder.newFolder();
+        mainJar = createJar(new File(dir, "main.jar"), "main.txt");
+        for (String part : PARTS) {
+            for (int i = 0; i < JARS_PER_PART; i++) {
+                final String name = part + i;
+                final URL location = createJar(new File(dir, name + ".jar"), name + ".txt").toURI().toURL();
+                lazyJars.add(new JARDesc(location, VersionString.fromString("1"), part, true, false, false, false));
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        final DeploymentConfiguration config = getConfiguration();
+        config.setProperty(ConfigurationConstants.KEY_SECURITY_LEVEL, securityLevel);
+        config.setProperty(ConfigurationConstants.KEY_SECURITY_PROMPT_USER, promptUser);
+        config.setProperty(ConfigurationConstants.KEY_BACKGROUND_PART_ACTIVATION, backgroundActivation);
+    }
+
+    @Test
+    public void lazyPartsAreNotActivatedUpFront() throws Exception {
+        final CountingClassLoader classLoader = new CountingClassLoader(new LazyPartsJNLPFile());
+
+        assertNotNull(classLoader.findResource("main.txt"));
+        for (JARDesc jar : lazyJars) {
+            assertEquals(0, classLoader.activationsOf(jar));
+        }
+    }
+
+    @Test
+    public void backgroundActivationActivatesEveryLazyPart() throws Exception {
+        final CountingClassLoader classLoader = new CountingClassLoader(new LazyPartsJNLPFile());
+
+        classLoader.activateLazyPartsInBackground();
+        classLoader.awaitActivationOf(lazyJars.size());
+
+        for (JARDesc jar : lazyJars) {
+            assertEquals(jar.getLocation().toString(), 1, classLoader.activationsOf(jar));
+        }
+        for (String part : PARTS) {
+            assertNotNull(classLoader.findResource(part + "0.txt"));
+        }
+    }
+
+    @Test
+    public void backgroundActivationIsDisabledByConfiguration() throws Exception {
+        getConfiguration().setProperty(ConfigurationConstants.KEY_BACKGROUND_PART_ACTIVATION, Boolean.toString(false));
+        final CountingClassLoader classLoader = new CountingClassLoader(new LazyPartsJNLPFile());
+
+        classLoader.activateLazyPartsInBackground();
+        Thread.sleep(200);
+
+        for (JARDesc jar : lazyJars) {
+            assertEquals(0, classLoader.activationsOf(jar));
+        }
+    }
+
+    @Test
+    public void classMissRacingWithBackgroundActivationDoesNotActivatePartTwice() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            final CountingClassLoader classLoader = new CountingClassLoader(new LazyPartsJNLPFile());
+            final int missingThreads = 4;
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < missingThreads; i++) {
+                final String missingClass = "com.example.Missing" + i;
+                final Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        classLoader.loadClass(missingClass);
+                        fail(missingClass + " should not be found");
+                    } catch (ClassNotFoundException expected) {
+                        // every lazy part has been searched
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            classLoader.activateLazyPartsInBackground();
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            }
+            classLoader.awaitActivationOf(lazyJars.size());
+
+            for (JARDesc jar : lazyJars) {
+                assertEquals(jar.getLocation().toString(), 1, classLoader.activationsOf(jar));
+            }
+            assertNull(classLoader.findResource("missing.txt"));
+        }
+    }
+
+    @Test
+    public void classMissIsNotBlockedByActivationInBackground() throws Exception {
+        final CountDownLatch backgroundActivationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseBackgroundActivation = new CountDownLatch(1);
+        final CountingClassLoader classLoader = new CountingClassLoader(new LazyPartsJNLPFile()) {
+            @Override
+            void activateJars(final List<JARDesc> jars) {
+                if (Thread.currentThread().getName().equals("ITW-BackgroundPartActivation") && backgroundActivationStarted.getCount() > 0) {
+                    backgroundActivationStarted.countDown();
+                    try {
+                        // e.g. a prompt which is answered later
+                        releaseBackgroundActivation.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.activateJars(jars);
+            }
+        };
+
+        classLoader.activateLazyPartsInBackground();
+        assertTrue(backgroundActivationStarted.await(30, TimeUnit.SECONDS));
+
+        // the background activation takes the first part
+        assertNotNull(classLoader.findResource(PARTS[PARTS.length - 1] + "0.txt"));
+        assertEquals(0, classLoader.activationsOf(lazyJars.get(0)));
+
+        releaseBackgroundActivation.countDown();
+        classLoader.awaitActivationOf(lazyJars.size());
+        for (JARDesc jar : lazyJars) {
+            assertEquals(jar.getLocation().toString(), 1, classLoader.activationsOf(jar));
+        }
+    }
+
+    @Test
+    public void partContainingMainClassIsLeftToActivationOnDemand() throws Exception {
+        createJar(new File(lazyJars.get(0).getLocation().toURI()), "a0.txt", "app/Main.class");
+        final CountingClassLoader classLoader = new CountingClassLoader(new LazyPartsJNLPFile() {
+            @Override
+            public EntryPoint getEntryPointDesc() {
+                return new ApplicationDesc("app.Main", new String[0]);
+            }
+        });
+
+        classLoader.activateLazyPartsInBackground();
+        classLoader.awaitActivationOf(lazyJars.size() - JARS_PER_PART);
+        Thread.sleep(200);
+
+        for (JARDesc jar : lazyJars) {
+            assertEquals(jar.getLocation().toString(), PARTS[0].equals(jar.getPart()) ? 0 : 1, classLoader.activationsOf(jar));
+        }
+
+        assertNotNull(classLoader.findResource("a0.txt"));
+        assertEquals(1, classLoader.activationsOf(lazyJars.get(0)));
+    }
+
+    private static File createJar(final File jar, final String... entryNames) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (String entryName : entryNames) {
+                out.putNextEntry(new JarEntry(entryName));
+                out.write(entryName.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    /* A JNLP file with an eager main jar and several lazy parts of two jars each. */
+    private class LazyPartsJNLPFile extends DummyJNLPFileWithJar {
+
+        LazyPartsJNLPFile() throws IOException {
+            super(0, mainJar);
+        }
+
+        @Override
+        public ResourcesDesc getResources() {
+            final ResourcesDesc resources = super.getResources();
+            for (JARDesc jar : lazyJars) {
+                resources.addResource(jar);
+            }
+            return resources;
+        }
+
+        @Override
+        public ResourcesDesc[] getResourcesDescs() {
+            return new ResourcesDesc[] { getResources() };
+        }
+    }
+
+    /* Counts how often each jar is activated. */
+    private static class CountingClassLoader extends JNLPClassLoader {
+
+        private final Map<URL, AtomicInteger> activations = new ConcurrentHashMap<>();
+
+        CountingClassLoader(final JNLPFile file) throws LaunchException {
+            super(file, UpdatePolicy.ALWAYS);
+        }
+
+        @Override
+        void activateJars(final List<JARDesc> jars) {
+            super.activateJars(jars);
+            if (activations == null) {
+                // the main jar is activated by the constructor of the super class
+                return;
+            }
+            synchronized (activations) {
+                for (JARDesc jar : jars) {
+                    activations.computeIfAbsent(jar.getLocation(), location -> new AtomicInteger()).incrementAndGet();
+                }
+                activations.notifyAll();
+            }
+        }
+
+        int activationsOf(final JARDesc jar) {
+            final AtomicInteger count = activations.get(jar.getLocation());
+            return count == null ? 0 : count.get();
+        }
+
+        void awaitActivationOf(final int lazyJars) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            synchronized (activations) {
+                while (activations.size() < lazyJars) {
+                    final long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        fail("Only " + activations.size() + " of " + lazyJars + " lazy jars have been activated");
+                    }
+                    activations.wait(remaining);
+                }
+            }
+        }
+    }
+}
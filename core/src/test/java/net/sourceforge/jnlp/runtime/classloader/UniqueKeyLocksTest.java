@@ -0,0 +1,86 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UniqueKeyLocksTest {
+
+    @Test
+    public void lockIsRemovedOnceReleased() {
+        final UniqueKeyLocks locks = new UniqueKeyLocks();
+
+        try (UniqueKeyLocks.Held ignored = locks.lock("app")) {
+            assertEquals(1, locks.size());
+        }
+
+        assertEquals(0, locks.size());
+        assertEquals(1, locks.getAcquisitionCount());
+        assertEquals(0, locks.getContendedAcquisitionCount());
+    }
+
+    @Test
+    public void lockIsReentrant() {
+        final UniqueKeyLocks locks = new UniqueKeyLocks();
+
+        try (UniqueKeyLocks.Held outer = locks.lock("app")) {
+            try (UniqueKeyLocks.Held inner = locks.lock("app")) {
+                assertEquals(1, locks.size());
+            }
+            assertEquals(1, locks.size());
+        }
+
+        assertEquals(0, locks.size());
+        assertEquals(2, locks.getAcquisitionCount());
+    }
+
+    @Test
+    public void differentKeysDoNotBlockEachOther() throws Exception {
+        final UniqueKeyLocks locks = new UniqueKeyLocks();
+        final AtomicBoolean locked = new AtomicBoolean();
+
+        try (UniqueKeyLocks.Held ignored = locks.lock("first")) {
+            final Thread other = new Thread(() -> {
+                try (UniqueKeyLocks.Held held = locks.lock("second")) {
+                    locked.set(true);
+                }
+            });
+            other.start();
+            other.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertTrue(locked.get());
+        assertEquals(0, locks.getContendedAcquisitionCount());
+    }
+
+    @Test
+    public void waitingThreadIsCountedAsContended() throws Exception {
+        final UniqueKeyLocks locks = new UniqueKeyLocks();
+        final AtomicBoolean locked = new AtomicBoolean();
+        final Thread other;
+
+        try (UniqueKeyLocks.Held ignored = locks.lock("app")) {
+            other = new Thread(() -> {
+                try (UniqueKeyLocks.Held held = locks.lock("app")) {
+                    locked.set(true);
+                }
+            });
+            other.start();
+            while (locks.getContendedAcquisitionCount() < 1) {
+                Thread.sleep(10);
+            }
+            assertFalse(locked.get());
+        }
+        other.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertTrue(locked.get());
+        assertEquals(1, locks.getContendedAcquisitionCount());
+        assertTrue(locks.getWaitNanos() > 0);
+        assertEquals(0, locks.size());
+    }
+}
@@ -34,17 +34,30 @@ statement from your version.
 
 package net.sourceforge.jnlp.tools;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
 import java.security.CodeSigner;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
+import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.adoptopenjdk.icedteaweb.testing.tools.CodeSignerCreator;
 import net.sourceforge.jnlp.tools.JarCertVerifier.VerifyResult;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
 import static org.junit.Assert.assertFalse;
@@ -52,6 +65,9 @@ import static org.junit.Assert.assertTrue;
 
 public class JarCertVerifierTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testIsMetaInfFile() {
         final String METAINF = "META-INF";
@@ -526,4 +542,37 @@ public class JarCertVerifierTest {
                 jcv.getCertsList().contains(alphaSigner.getSignerCertPath()));
     }
 
+    @Test
+    public void testManyJarsAreVerifiedConcurrently() throws Exception {
+        final Map<URL, File> jarFiles = new LinkedHashMap<>();
+        final List<JARDesc> jars = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final File jarFile = temporaryFolder.newFile("unsigned" + i + ".jar");
+            try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile), new Manifest())) {
+                out.putNextEntry(new JarEntry("entry" + i));
+                out.write(new byte[1000]);
+                out.closeEntry();
+            }
+            final URL location = jarFile.toURI().toURL();
+            jarFiles.put(location, jarFile);
+            jars.add(new JARDesc(location, null, null, false, false, false, false));
+        }
+        final ResourceTracker tracker = new ResourceTracker() {
+            @Override
+            public File getCacheFile(URL location) {
+                return jarFiles.get(location);
+            }
+        };
+
+        JarCertVerifier jcv = new JarCertVerifier(null);
+        jcv.add(jars, tracker);
+
+        final Set<String> expectedPaths = new HashSet<>();
+        for (File jarFile : jarFiles.values()) {
+            expectedPaths.add(jarFile.getCanonicalFile().getAbsolutePath());
+        }
+        Assert.assertEquals("Every jar has been verified.", expectedPaths, jcv.getJarSignableEntries().keySet());
+        Assert.assertEquals("Unsigned jars have no signers.", 0, jcv.getCertsList().size());
+        assertTrue("Every jar has one signable entry.", jcv.getJarSignableEntries().values().stream().allMatch(count -> count == 1));
+    }
 }
@@ -0,0 +1,170 @@
+package net.sourceforge.jnlp.tools;
+
+import net.adoptopenjdk.icedteaweb.os.OsUtil;
+import net.adoptopenjdk.icedteaweb.testing.tools.CodeSignerCreator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.CodeSigner;
+import java.security.cert.CertPath;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VerificationResultCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheRoot;
+    private File keyFile;
+    private VerificationResultCache cache;
+    private AtomicInteger verifications;
+
+    @Before
+    public void setup() throws IOException {
+        cacheRoot = temporaryFolder.newFolder("cache");
+        keyFile = new File(temporaryFolder.newFolder("security"), "verification.key");
+        cache = new VerificationResultCache(cacheRoot, keyFile);
+        verifications = new AtomicInteger();
+    }
+
+    @Test
+    public void signersOfUnchangedJarAreRemembered() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "content");
+        final JarSigners unsigned = new JarSigners(true, 3, Collections.emptyMap(), Collections.emptyMap());
+
+        cache.getOrCompute(jar, verifier(unsigned));
+        final JarSigners remembered = cache.getOrCompute(jar, verifier(unsigned));
+
+        assertEquals(1, verifications.get());
+        assertTrue(new File(jar.getPath() + VerificationResultCache.RECORD_SUFFIX).isFile());
+        assertTrue(remembered.hasManifest());
+        assertEquals(3, remembered.getNumSignableEntries());
+        assertTrue(remembered.getSignCount().isEmpty());
+    }
+
+    @Test
+    public void changedJarIsVerifiedAgain() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "content");
+        final JarSigners unsigned = new JarSigners(true, 3, Collections.emptyMap(), Collections.emptyMap());
+
+        cache.getOrCompute(jar, verifier(unsigned));
+        Files.write(jar.toPath(), "other content".getBytes());
+        cache.getOrCompute(jar, verifier(unsigned));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void jarOutsideOfCacheEntryIsAlwaysVerified() throws IOException {
+        final File jar = createJar(temporaryFolder.newFolder("elsewhere"), "content");
+        final JarSigners unsigned = new JarSigners(false, 1, Collections.emptyMap(), Collections.emptyMap());
+
+        cache.getOrCompute(jar, verifier(unsigned));
+        cache.getOrCompute(jar, verifier(unsigned));
+
+        assertEquals(2, verifications.get());
+        assertNull(cache.entryIdOf(jar));
+        assertFalse(new File(jar.getPath() + VerificationResultCache.RECORD_SUFFIX).exists());
+    }
+
+    @Test
+    public void signersAndTimestampsAreRestored() throws Exception {
+        final File jar = createJar(new File(cacheRoot, "3/4"), "content");
+        final CodeSigner signer = CodeSignerCreator.getOneCodeSigner("CN=Test Signer, O=IcedTea", new Date(), 365);
+        final CertPath certPath = signer.getSignerCertPath();
+        final JarSigners signed = new JarSigners(true, 5, Collections.singletonMap(certPath, 5), Collections.singletonMap(certPath, signer));
+
+        cache.getOrCompute(jar, verifier(signed));
+        final JarSigners remembered = cache.getOrCompute(jar, verifier(signed));
+
+        assertEquals(1, verifications.get());
+        assertEquals(Collections.singletonMap(certPath, 5), remembered.getSignCount());
+        final CodeSigner rememberedSigner = remembered.getCodeSigners().get(certPath);
+        assertEquals(signer.getTimestamp().getTimestamp(), rememberedSigner.getTimestamp().getTimestamp());
+        assertEquals(signer.getTimestamp().getSignerCertPath(), rememberedSigner.getTimestamp().getSignerCertPath());
+    }
+
+    @Test
+    public void recordOfOtherEntryIsIgnored() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "content");
+        final JarSigners unsigned = new JarSigners(true, 3, Collections.emptyMap(), Collections.emptyMap());
+        cache.getOrCompute(jar, verifier(unsigned));
+
+        final File otherJar = createJar(new File(cacheRoot, "1/3"), "content");
+        Files.copy(new File(jar.getPath() + VerificationResultCache.RECORD_SUFFIX).toPath(),
+                new File(otherJar.getPath() + VerificationResultCache.RECORD_SUFFIX).toPath());
+        cache.getOrCompute(otherJar, verifier(unsigned));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void forgedRecordIsIgnored() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "content");
+        final JarSigners unsigned = new JarSigners(true, 3, Collections.emptyMap(), Collections.emptyMap());
+        // e.g. written by someone who can write to the cache but cannot read the key
+        final File otherKeyFile = new File(temporaryFolder.newFolder("other"), "verification.key");
+        new VerificationResultCache(cacheRoot, otherKeyFile).getOrCompute(jar, verifier(unsigned));
+
+        cache.getOrCompute(jar, verifier(unsigned));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void tamperedRecordIsIgnored() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "content");
+        final JarSigners unsigned = new JarSigners(true, 3, Collections.emptyMap(), Collections.emptyMap());
+        cache.getOrCompute(jar, verifier(unsigned));
+
+        final File recordFile = new File(jar.getPath() + VerificationResultCache.RECORD_SUFFIX);
+        final byte[] record = Files.readAllBytes(recordFile.toPath());
+        record[record.length / 2] ^= 1;
+        Files.write(recordFile.toPath(), record);
+        cache.getOrCompute(jar, verifier(unsigned));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void keyIsOnlyAccessibleByOwner() throws IOException {
+        final File jar = createJar(new File(cacheRoot, "1/2"), "content");
+        cache.getOrCompute(jar, verifier(new JarSigners(true, 3, Collections.emptyMap(), Collections.emptyMap())));
+
+        assertTrue(keyFile.isFile());
+        if (!OsUtil.isWindows()) {
+            final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(keyFile.toPath());
+            assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE), permissions);
+        }
+    }
+
+    private Supplier<JarSigners> verifier(final JarSigners result) {
+        return () -> {
+            verifications.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static File createJar(final File dir, final String content) throws IOException {
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+        final File jar = new File(dir, "test.jar");
+        Files.write(jar.toPath(), content.getBytes());
+        return jar;
+    }
+}
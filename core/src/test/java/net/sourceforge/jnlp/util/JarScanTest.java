@@ -0,0 +1,109 @@
+package net.sourceforge.jnlp.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JarScanTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void scanContainsEntriesNestedJarsAndManifest() throws IOException {
+        final File jar = createJar("Main", "lib/", "lib/a.jar", "lib/empty.jar", "Main.class");
+
+        final JarScan scan = JarScan.of(jar);
+
+        assertEquals(Arrays.asList("META-INF/MANIFEST.MF", "lib/", "lib/a.jar", "lib/empty.jar", "Main.class"), scan.getEntryNames());
+        assertEquals(Collections.singletonList("lib/a.jar"), scan.getNestedJars());
+        assertEquals("Main", scan.getMainAttribute(Attributes.Name.MAIN_CLASS));
+        assertNull(scan.getJarIndex());
+        assertFalse(scan.isMultiRelease());
+    }
+
+    @Test
+    public void scanIsRememberedWhileJarIsUnchanged() throws IOException {
+        final File jar = createJar("Main", "Main.class");
+
+        final JarScan first = JarScan.of(jar);
+
+        assertSame(first, JarScan.of(jar));
+    }
+
+    @Test
+    public void changedJarIsScannedAgain() throws IOException {
+        final File jar = createJar("Main", "Main.class");
+        final JarScan first = JarScan.of(jar);
+
+        createJar("Other", "Other.class", "Another.class");
+        assertTrue(jar.setLastModified(jar.lastModified() + 10_000));
+        final JarScan second = JarScan.of(jar);
+
+        assertNotSame(first, second);
+        assertEquals("Other", second.getMainAttribute(Attributes.Name.MAIN_CLASS));
+    }
+
+    @Test
+    public void rememberedScanIsUsed() throws IOException {
+        final File jar = createJar("Main", "Main.class");
+        try (JarFile jarFile = new JarFile(jar)) {
+            JarScan.remember(jar, jarFile, Collections.singletonList(new JarEntry("Remembered.class")));
+        }
+
+        assertEquals(Collections.singletonList("Remembered.class"), JarScan.of(jar).getEntryNames());
+    }
+
+    @Test
+    public void manifestIsCopied() throws IOException {
+        final File jar = createJar("Main", "Main.class");
+        final JarScan scan = JarScan.of(jar);
+
+        scan.getManifest().getMainAttributes().put(Attributes.Name.MAIN_CLASS, "Changed");
+
+        assertEquals("Main", scan.getMainAttribute(Attributes.Name.MAIN_CLASS));
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidJarIsRejected() throws IOException {
+        final File jar = temporaryFolder.newFile("invalid.jar");
+        Files.write(jar.toPath(), new byte[]{0x50, 0x4b, 0x03, 0x04, 1, 2, 3});
+
+        JarScan.of(jar);
+    }
+
+    private File createJar(final String mainClass, final String... entries) throws IOException {
+        final File jar = new File(temporaryFolder.getRoot(), "test.jar");
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            for (String entry : entries) {
+                out.putNextEntry(new JarEntry(entry));
+                if (!entry.endsWith("/") && !entry.contains("empty")) {
+                    out.write(new byte[]{1, 2, 3});
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
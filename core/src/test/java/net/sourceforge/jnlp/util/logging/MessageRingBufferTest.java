@@ -0,0 +1,121 @@
+package net.sourceforge.jnlp.util.logging;
+
+import net.sourceforge.jnlp.util.logging.headers.Header;
+import net.sourceforge.jnlp.util.logging.headers.JavaMessage;
+import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MessageRingBufferTest {
+
+    @Test
+    public void messagesAreTakenInOrder() {
+        final MessageRingBuffer buffer = new MessageRingBuffer(4);
+
+        for (int round = 0; round < 3; round++) {
+            assertTrue(buffer.offer(msg("one")));
+            assertTrue(buffer.offer(msg("two")));
+            assertEquals(2, buffer.size());
+
+            assertEquals("one", buffer.poll().getMessage());
+            assertEquals("two", buffer.poll().getMessage());
+            assertNull(buffer.poll());
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void fullBufferRejectsMessages() {
+        final MessageRingBuffer buffer = new MessageRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(msg("message " + i)));
+        }
+
+        assertFalse(buffer.offer(msg("too much")));
+        assertEquals(4, buffer.size());
+
+        assertEquals("message 0", buffer.poll().getMessage());
+        assertTrue(buffer.offer(msg("next")));
+    }
+
+    @Test
+    public void messagesAreDrainedInBatches() {
+        final MessageRingBuffer buffer = new MessageRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(msg("message " + i));
+        }
+        final List<MessageWithHeader> drained = new ArrayList<>();
+
+        assertEquals(3, buffer.drain(drained::add, 3));
+        assertEquals(2, buffer.drain(drained::add, 3));
+        assertEquals(0, buffer.drain(drained::add, 3));
+
+        assertEquals(5, drained.size());
+        assertEquals("message 4", drained.get(4).getMessage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePowerOfTwo() {
+        new MessageRingBuffer(6);
+    }
+
+    @Test
+    public void messagesOfConcurrentWritersAreTakenOnceInOrderPerWriter() throws Exception {
+        final MessageRingBuffer buffer = new MessageRingBuffer(64);
+        final int writerCount = 4;
+        final int messagesPerWriter = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            final int writer = w;
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < messagesPerWriter; i++) {
+                    final MessageWithHeader message = msg(writer + ":" + i);
+                    while (!buffer.offer(message)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+
+        final int[] next = new int[writerCount];
+        final AtomicInteger taken = new AtomicInteger();
+        start.countDown();
+        while (taken.get() < writerCount * messagesPerWriter) {
+            buffer.drain(message -> {
+                final String[] parts = message.getMessage().split(":");
+                final int writer = Integer.parseInt(parts[0]);
+                assertEquals(next[writer]++, Integer.parseInt(parts[1]));
+                taken.incrementAndGet();
+            }, 16);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertTrue(buffer.isEmpty());
+        for (int w = 0; w < writerCount; w++) {
+            assertEquals(messagesPerWriter, next[w]);
+        }
+    }
+
+    private static MessageWithHeader msg(final String message) {
+        return new JavaMessage(new Header(OutputControllerLevel.INFO, false), message);
+    }
+}
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.DEBUG;
+import static net.sourceforge.jnlp.util.logging.OutputControllerLevel.INFO;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
@@ -58,4 +59,44 @@ public class OutputControllerLoggerTest {
         assertThat(msg.getStackTrace(), containsString("Ex Msg"));
         assertThat(msg.getStackTrace(), containsString(getClass().getName()));
     }
+
+    @Test
+    public void debugMessageWithArrayAsOnlyArgument() {
+        sut.debug("message {} {}", (Object) new String[]{"ONE", "TWO"});
+        assertThat(loggedMessages, hasSize(1));
+        assertThat(loggedMessages.get(0).getMessage(), is("message ONE TWO"));
+    }
+
+    @Test
+    public void debugMessagesAreNotCreatedWhileDebugIsDisabled() {
+        final BasicOutputController outputController = new BasicOutputController() {
+            @Override
+            public void log(MessageWithHeader l) {
+                loggedMessages.add(l);
+            }
+
+            @Override
+            public boolean isDebugEnabled() {
+                return false;
+            }
+        };
+        final Logger logger = new OutputControllerLoggerFactory().getLogger(getClass(), outputController);
+        final Object argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("argument of a debug message must not be formatted");
+            }
+        };
+
+        logger.debug("message");
+        logger.debug("message {}", argument);
+        logger.debug("message {} {}", argument, argument);
+        logger.debug("message {} {} {}", argument, argument, argument);
+        logger.debug("message", new RuntimeException("Ex Msg"));
+        logger.info("message {}", "INFO");
+
+        assertThat(logger.isDebugEnabled(), is(false));
+        assertThat(loggedMessages, hasSize(1));
+        assertThat(loggedMessages.get(0).getHeader().level, is(INFO));
+    }
 }
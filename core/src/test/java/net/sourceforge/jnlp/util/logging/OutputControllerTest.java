@@ -119,6 +119,30 @@ public class OutputControllerTest {
         LogConfig.getLogConfig().setDebugEnabled(true);
     }
 
+    @Test
+    public void isDroppingOldestMessagesBeforeConsumerIsStarted() throws Exception {
+        ByteArrayOutputStream os1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+        OutputController oc = new OutputController(os1, os2);
+        LogConfig.getLogConfig().setLogToFile(false);
+        LogConfig.getLogConfig().setLogToStreams(true);
+        LogConfig.getLogConfig().setLogToSysLog(false);
+        // nobody takes the messages yet, so logging must not wait whatever the policy is
+        oc.setOverflowPolicy(MessageQueueOverflowPolicy.BLOCK);
+        oc.log(msg(OutputControllerLevel.INFO, line1));
+        for (int i = 1; i < OutputController.MESSAGE_QUEUE_CAPACITY; i++) {
+            oc.log(msg(OutputControllerLevel.INFO, line2));
+        }
+        oc.log(msg(OutputControllerLevel.INFO, line3));
+        oc.flush();
+
+        Assert.assertEquals(OutputController.MESSAGE_QUEUE_CAPACITY + 1, oc.getQueuedMessageCount());
+        Assert.assertEquals(1, oc.getDroppedMessageCount());
+        Assert.assertFalse((os1.toString(UTF_8).contains(line1)));
+        Assert.assertTrue((os1.toString(UTF_8).contains(line3)));
+        Assert.assertTrue((os2.toString(UTF_8).contains("1 log messages have been dropped")));
+    }
+
     private MessageWithHeader msg(OutputControllerLevel level, String msg) {
         return new JavaMessage(new Header(level, false), msg);
     }
@@ -66,7 +66,7 @@ public class ParseException extends Exception {
                 + " "
                 + Translator.R("TAGSOUPtail")
                 + " ";
-        if (used == ParserType.NORMAL) {
+        if (used == ParserType.NORMAL || used == ParserType.STREAMING) {
             //warn about xml mode
             return Translator.R("TAGSOUPnotUsed", CommandLineOptions.XML.getOption()) + tail;
         }
@@ -17,5 +17,5 @@
 package net.adoptopenjdk.icedteaweb.xmlparser;
 
 public enum ParserType {
-    MALFORMED, NORMAL
+    MALFORMED, NORMAL, STREAMING
 }
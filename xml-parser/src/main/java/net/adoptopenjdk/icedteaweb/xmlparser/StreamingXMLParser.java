@@ -0,0 +1,116 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.STREAMING;
+
+/**
+ * An {@link XMLParser} for well-formed XML which builds the tree while reading the input.
+ * <p>
+ * The comments are skipped while reading like the {@link XMLParser} does, but neither the sanitized
+ * document nor a DOM is held in memory. The nodes have the same names, attributes and values as the
+ * nodes of the {@link XMLParser}. External entities and DTDs are not loaded.
+ */
+public class StreamingXMLParser extends XMLParser {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingXMLParser.class);
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    @Override
+    public XmlNode getRootNode(final InputStream input) throws ParseException {
+        LOG.info("Using StreamingXMLParser");
+        ParseException.setUsed(STREAMING);
+        try {
+            final Reader sanitized = XMLSanitizer.stripComments(new BufferedReader(new XmlStreamReader(input)));
+            final XMLStreamReader reader = createReader(sanitized);
+            try {
+                while (reader.next() != START_ELEMENT) {
+                    if (reader.getEventType() == END_DOCUMENT) {
+                        throw new ParseException("No root element.");
+                    }
+                }
+                return readElement(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (ParseException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new ParseException("Invalid XML document syntax.", ex);
+        }
+    }
+
+    /**
+     * Reads the element the reader is positioned at, up to and including its end tag.
+     */
+    private static XmlNodeSnapshot readElement(final XMLStreamReader reader) throws XMLStreamException {
+        final String name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+
+        final List<XmlNodeSnapshot> children = new ArrayList<>();
+        final StringBuilder text = new StringBuilder();
+        while (true) {
+            switch (reader.next()) {
+                case START_ELEMENT:
+                    children.add(readElement(reader));
+                    break;
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    // only used by leaf nodes, like the text content of a DOM element
+                    if (children.isEmpty()) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case END_ELEMENT:
+                    return new XmlNodeSnapshot(name, children.isEmpty() ? text.toString() : "", attributes, children);
+                default:
+                    // processing instructions do not contribute to the tree
+            }
+        }
+    }
+
+    private static String qualifiedName(final String prefix, final String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private static XMLStreamReader createReader(final Reader input) throws XMLStreamException {
+        // the factory is not guaranteed to be thread-safe, the readers are only used by one thread
+        synchronized (INPUT_FACTORY) {
+            return INPUT_FACTORY.createXMLStreamReader(input);
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setXMLResolver((publicId, systemId, baseUri, namespace) -> new ByteArrayInputStream(new byte[0]));
+        return factory;
+    }
+}
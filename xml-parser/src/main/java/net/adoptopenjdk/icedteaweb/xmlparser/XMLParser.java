@@ -41,6 +41,7 @@ import org.xml.sax.InputSource;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.InputStream;
 import java.io.StringReader;
 
@@ -57,6 +58,8 @@ public class XMLParser {
 
     public static final String CODEBASE = "codebase";
 
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
     /**
      * Parses input from an InputStream and returns a Node representing the
      * root of the parse tree.
@@ -65,13 +68,12 @@ public class XMLParser {
      * @return a {@link XmlNode} representing the root of the parsed XML
      * @throws ParseException if parsing fails
      */
-    public final XmlNode getRootNode(final InputStream input) throws ParseException {
+    public XmlNode getRootNode(final InputStream input) throws ParseException {
         try {
             final String sanitizedXml = XMLSanitizer.sanitizeXml(new XmlStreamReader(input));
             final String processedXml = preprocessXml(sanitizedXml);
             final InputSource xmlInputStream = new InputSource(new StringReader(processedXml));
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+            DocumentBuilder dBuilder = newDocumentBuilder();
             Document doc = dBuilder.parse(xmlInputStream);
             return new XmlNodeImpl(doc.getDocumentElement());
         } catch (Exception ex) {
@@ -79,6 +81,13 @@ public class XMLParser {
         }
     }
 
+    private static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+        // the factory is not guaranteed to be thread-safe, the builders are only used by one thread
+        synchronized (DOCUMENT_BUILDER_FACTORY) {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        }
+    }
+
     public String preprocessXml(final String original) throws ParseException {
         LOG.info("Using XMLParser");
         ParseException.setUsed(NORMAL);
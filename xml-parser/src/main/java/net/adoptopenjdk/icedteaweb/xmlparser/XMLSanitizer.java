@@ -16,6 +16,7 @@
 
 package net.adoptopenjdk.icedteaweb.xmlparser;
 
+import java.io.IOException;
 import java.io.Reader;
 
 class XMLSanitizer {
@@ -30,26 +31,85 @@ class XMLSanitizer {
     static String sanitizeXml(final Reader in) {
         try {
             final StringBuilder result = new StringBuilder();
-            final char[] buffer = new char[4];
-            int charInBuffer = 0;
-            boolean inComment = false;
+            final Reader sanitized = stripComments(in);
+            final char[] buffer = new char[8192];
+            int read;
+            while ((read = sanitized.read(buffer, 0, buffer.length)) != -1) {
+                result.append(buffer, 0, read);
+            }
+            return result.toString().trim();
+        } catch (final Exception e) {
+            throw new RuntimeException("Error in XML", e);
+        }
+    }
+
+    /**
+     * Wraps a reader of an xml file so that the comments and the leading white space are
+     * skipped while reading, without reading the whole file up front.
+     *
+     * @param in The reader of the containing the xml.
+     * @return A reader of the sanitized xml
+     */
+    static Reader stripComments(final Reader in) {
+        return new CommentStrippingReader(in);
+    }
+
+    private static class CommentStrippingReader extends Reader {
 
+        private final Reader in;
+        private final char[] buffer = new char[4];
+        private int charInBuffer = 0;
+        private boolean inComment = false;
+        private boolean endOfInput = false;
+        private boolean leading = true;
+
+        private CommentStrippingReader(final Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int count = 0;
+            while (count < len) {
+                final int ch = nextChar();
+                if (ch == -1) {
+                    break;
+                }
+                if (leading && ch <= ' ') {
+                    continue;
+                }
+                leading = false;
+                cbuf[off + count++] = (char) ch;
+            }
+            return count == 0 ? -1 : count;
+        }
+
+        private int nextChar() throws IOException {
             while (true) {
+                if (endOfInput) {
+                    // write buffered content
+                    if (inComment || charInBuffer == 0) {
+                        return -1;
+                    }
+                    return shift();
+                }
+
                 // fill the buffer
                 for (; charInBuffer < 4; charInBuffer++) {
                     final int ch = in.read();
                     if (ch == -1) {
                         // end of input stream
-                        // write buffered content and flush
-                        if (!inComment) {
-                            for (int i = 0; i < charInBuffer; i++) {
-                                result.append(buffer[i]);
-                            }
-                        }
-                        return result.toString().trim();
+                        endOfInput = true;
+                        break;
                     }
                     buffer[charInBuffer] = (char) ch;
                 }
+                if (endOfInput) {
+                    continue;
+                }
 
                 // at this point the buffer is always full
                 if (inComment) {
@@ -60,12 +120,8 @@ class XMLSanitizer {
                         charInBuffer = 1;
                         inComment = false;
                     } else {
-                        // shift buffer content one to the left
-                        // and drop buffer[0]
-                        buffer[0] = buffer[1];
-                        buffer[1] = buffer[2];
-                        buffer[2] = buffer[3];
-                        charInBuffer--;
+                        // drop buffer[0]
+                        shift();
                     }
                 } else {
                     // jnlp files from a MFSys25  contain '<?-- JViewerVersion 3.30a -->' therefore we must treat ! and ? equally
@@ -75,18 +131,30 @@ class XMLSanitizer {
                         charInBuffer = 0;
                         inComment = true;
                     } else {
-                        // shift buffer content one to the left
-                        // and write out buffer[0]
-                        result.append(buffer[0]);
-                        buffer[0] = buffer[1];
-                        buffer[1] = buffer[2];
-                        buffer[2] = buffer[3];
-                        charInBuffer--;
+                        // write out buffer[0]
+                        return shift();
                     }
                 }
             }
-        } catch (final Exception e) {
-            throw new RuntimeException("Error in XML", e);
+        }
+
+        /**
+         * Shifts the buffer content one to the left.
+         *
+         * @return the char which has been at buffer[0]
+         */
+        private char shift() {
+            final char first = buffer[0];
+            buffer[0] = buffer[1];
+            buffer[1] = buffer[2];
+            buffer[2] = buffer[3];
+            charInBuffer--;
+            return first;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
         }
     }
 }
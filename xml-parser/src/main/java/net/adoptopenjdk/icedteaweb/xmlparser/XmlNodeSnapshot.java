@@ -0,0 +1,174 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of a parsed {@link XmlNode} tree which does not hold on to a DOM.
+ * It is also the tree built by the {@link StreamingXMLParser}.
+ * <p>
+ * A tree can be written to a binary stream and read back without parsing the XML again.
+ * Nodes behave like the nodes of the parser they are copied from: attributes which are not
+ * present are empty and only leaf nodes have a value.
+ */
+public final class XmlNodeSnapshot implements XmlNode, Comparable<XmlNode> {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final String name;
+    private final String value;
+    private final Map<String, String> attributes;
+    private final List<XmlNode> children;
+    private XmlNode nextSibling;
+
+    XmlNodeSnapshot(final String name, final String value, final Map<String, String> attributes, final List<XmlNodeSnapshot> children) {
+        this.name = name;
+        this.value = value;
+        this.attributes = attributes;
+        this.children = Collections.unmodifiableList(new ArrayList<>(children));
+        for (int i = 0; i < children.size() - 1; i++) {
+            children.get(i).nextSibling = children.get(i + 1);
+        }
+    }
+
+    /**
+     * Writes a tree to a stream.
+     *
+     * @param root the root of the tree
+     * @param out  the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void write(final XmlNode root, final DataOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        writeNode(root, out);
+    }
+
+    /**
+     * Reads a tree which has been written by {@link #write(XmlNode, DataOutput)}.
+     *
+     * @param in the stream to read from
+     * @return the root of the tree
+     * @throws IOException if reading fails or the stream has been written in another format
+     */
+    public static XmlNodeSnapshot read(final DataInput in) throws IOException {
+        final int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        return readNode(in);
+    }
+
+    private static void writeNode(final XmlNode node, final DataOutput out) throws IOException {
+        final XmlNode[] children = node.getChildNodes();
+        final List<String> attributeNames = node.getAttributeNames();
+
+        writeString(node.getNodeName(), out);
+        writeString(children.length == 0 ? node.getNodeValue() : "", out);
+        out.writeInt(attributeNames.size());
+        for (String attribute : attributeNames) {
+            writeString(attribute, out);
+            writeString(node.getAttribute(attribute), out);
+        }
+        out.writeInt(children.length);
+        for (XmlNode child : children) {
+            writeNode(child, out);
+        }
+    }
+
+    private static XmlNodeSnapshot readNode(final DataInput in) throws IOException {
+        final String name = readString(in);
+        final String value = readString(in);
+        final int attributeCount = in.readInt();
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(readString(in), readString(in));
+        }
+        final int childCount = in.readInt();
+        final List<XmlNodeSnapshot> children = new ArrayList<>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            children.add(readNode(in));
+        }
+        return new XmlNodeSnapshot(name, value, attributes, children);
+    }
+
+    private static void writeString(final String value, final DataOutput out) throws IOException {
+        final byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public XmlNode getFirstChild() {
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    @Override
+    public XmlNode getNextSibling() {
+        return nextSibling;
+    }
+
+    @Override
+    public String getNodeValue() {
+        return value;
+    }
+
+    @Override
+    public XmlNode[] getChildNodes() {
+        return children.toArray(new XmlNode[0]);
+    }
+
+    @Override
+    public List<String> getAttributeNames() {
+        return new ArrayList<>(attributes.keySet());
+    }
+
+    @Override
+    public String getAttribute(final String name) {
+        return attributes.getOrDefault(name, "");
+    }
+
+    @Override
+    public List<XmlNode> getChildren(final String name) {
+        return children.stream()
+                .filter(c -> Objects.equals(c.getNodeName(), name))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getNodeName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "XmlNode" + " - " + name;
+    }
+
+    @Override
+    public int compareTo(final XmlNode o) {
+        final String nameB = Optional.ofNullable(o)
+                .map(XmlNode::getNodeName)
+                .orElse("");
+        return name.compareTo(nameB);
+    }
+}
@@ -1,6 +1,7 @@
 package net.adoptopenjdk.icedteaweb.xmlparser;
 
 import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.MALFORMED;
+import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.STREAMING;
 
 public class XmlParserFactory {
 
@@ -9,6 +10,9 @@ public class XmlParserFactory {
      */
     public static XMLParser getParser(ParserType parserToUse) {
         ParseException.setUsed(parserToUse);
-        return parserToUse == MALFORMED ? new MalformedXMLParser() : new XMLParser();
+        if (parserToUse == MALFORMED) {
+            return new MalformedXMLParser();
+        }
+        return parserToUse == STREAMING ? new StreamingXMLParser() : new XMLParser();
     }
 }
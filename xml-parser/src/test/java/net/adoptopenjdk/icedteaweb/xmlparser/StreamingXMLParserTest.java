@@ -0,0 +1,107 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingXMLParserTest {
+
+    private static final String SMALL_JNLP = "\n  <?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<!-- leading comment -->\n" +
+            "<jnlp spec=\"1.0+\" codebase=\"http://localhost/\" href=\"small.jnlp\" xmlns:ext=\"http://localhost/ext\">\n" +
+            "  <information>\n" +
+            "    <title>Small &amp; simple</title>\n" +
+            "    <vendor><![CDATA[Vendor <inc>]]></vendor>\n" +
+            "    <?-- JViewerVersion 3.30a -->\n" +
+            "    <description kind=\"short\">  line one\n line two  </description>\n" +
+            "    <offline-allowed/>\n" +
+            "  </information>\n" +
+            "  <ext:custom ext:name=\"value\">text<!-- inner comment --> more</ext:custom>\n" +
+            "  <resources>\n" +
+            "    <j2se version=\"1.8+\"/>\n" +
+            "    <jar href=\"main.jar\" main=\"true\"/>\n" +
+            "    <property name=\"key\" value=\"a &lt; b\"/>\n" +
+            "  </resources>\n" +
+            "  <application-desc main-class=\"Main\"><argument>arg</argument></application-desc>\n" +
+            "</jnlp>\n";
+
+    @Test
+    public void treeOfSmallDescriptorIsSameAsOfDomParser() throws Exception {
+        assertSameTree(parse(new XMLParser(), SMALL_JNLP), parse(new StreamingXMLParser(), SMALL_JNLP));
+    }
+
+    @Test
+    public void treeOfLargeDescriptorIsSameAsOfDomParser() throws Exception {
+        final String jnlp = largeJnlp(5000);
+
+        final XmlNode root = parse(new StreamingXMLParser(), jnlp);
+
+        assertSameTree(parse(new XMLParser(), jnlp), root);
+        assertEquals(5000, root.getChildren("resources").get(0).getChildren("jar").size());
+    }
+
+    @Test(expected = ParseException.class)
+    public void malformedXmlIsRejected() throws Exception {
+        parse(new StreamingXMLParser(), "<jnlp><information></jnlp>");
+    }
+
+    @Test(expected = ParseException.class)
+    public void documentWithoutRootElementIsRejected() throws Exception {
+        parse(new StreamingXMLParser(), "<!-- nothing -->");
+    }
+
+    @Test
+    public void factoryReturnsStreamingParser() {
+        assertEquals(StreamingXMLParser.class, XmlParserFactory.getParser(ParserType.STREAMING).getClass());
+    }
+
+    static String largeJnlp(final int jarCount) {
+        final StringBuilder jnlp = new StringBuilder();
+        jnlp.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        jnlp.append("<jnlp spec=\"1.0+\" codebase=\"http://localhost/\" href=\"large.jnlp\">\n");
+        jnlp.append("  <information><title>Large</title><vendor>test</vendor></information>\n");
+        jnlp.append("  <resources>\n");
+        for (int i = 0; i < jarCount; i++) {
+            jnlp.append("    <!-- jar ").append(i).append(" -->\n");
+            jnlp.append("    <jar href=\"lib/library-").append(i).append(".jar\" size=\"").append(1000 + i).append("\" download=\"lazy\" part=\"part-").append(i % 10).append("\"/>\n");
+        }
+        jnlp.append("  </resources>\n");
+        jnlp.append("  <application-desc main-class=\"Main\"/>\n");
+        jnlp.append("</jnlp>\n");
+        return jnlp.toString();
+    }
+
+    private static XmlNode parse(final XMLParser parser, final String xml) throws ParseException {
+        return parser.getRootNode(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertSameTree(final XmlNode expected, final XmlNode actual) {
+        assertEquals(expected.getNodeName(), actual.getNodeName());
+        assertEquals(attributes(expected), attributes(actual));
+
+        final XmlNode[] expectedChildren = expected.getChildNodes();
+        final XmlNode[] actualChildren = actual.getChildNodes();
+        assertEquals(expected.getNodeName(), expectedChildren.length, actualChildren.length);
+        if (expectedChildren.length == 0) {
+            assertEquals(expected.getNodeName(), expected.getNodeValue(), actual.getNodeValue());
+        }
+        for (int i = 0; i < expectedChildren.length; i++) {
+            assertSameTree(expectedChildren[i], actualChildren[i]);
+        }
+    }
+
+    private static Map<String, String> attributes(final XmlNode node) {
+        final Map<String, String> result = new HashMap<>();
+        final List<String> names = node.getAttributeNames();
+        for (String name : names) {
+            result.put(name, node.getAttribute(name));
+        }
+        return result;
+    }
+}
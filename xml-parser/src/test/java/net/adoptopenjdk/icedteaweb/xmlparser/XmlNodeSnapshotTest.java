@@ -0,0 +1,68 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class XmlNodeSnapshotTest {
+
+    private static final String XML = "<jnlp spec='1.0' href='app.jnlp'>" +
+            "<information><title>Title ä</title><vendor>Vendor</vendor></information>" +
+            "<resources><jar href='a.jar' main='true'/><jar href='b.jar'/></resources>" +
+            "</jnlp>";
+
+    @Test
+    public void writtenTreeIsReadBackUnchanged() throws Exception {
+        final XmlNode parsed = new XMLParser().getRootNode(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)));
+
+        final XmlNode read = writeAndRead(parsed);
+
+        assertSameTree(parsed, read);
+    }
+
+    @Test
+    public void siblingsAreLinked() throws Exception {
+        final XmlNode read = writeAndRead(new XMLParser().getRootNode(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8))));
+
+        final XmlNode resources = read.getChildren("resources").get(0);
+        final XmlNode firstJar = resources.getFirstChild();
+        assertEquals("a.jar", firstJar.getAttribute("href"));
+        assertEquals("b.jar", firstJar.getNextSibling().getAttribute("href"));
+        assertNull(firstJar.getNextSibling().getNextSibling());
+        assertEquals("", firstJar.getNextSibling().getAttribute("main"));
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFormatIsRejected() throws Exception {
+        XmlNodeSnapshot.read(new DataInputStream(new ByteArrayInputStream(new byte[]{0, 0, 0, 42})));
+    }
+
+    private static XmlNode writeAndRead(final XmlNode root) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        XmlNodeSnapshot.write(root, new DataOutputStream(bytes));
+        return XmlNodeSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static void assertSameTree(final XmlNode expected, final XmlNode actual) {
+        assertEquals(expected.getNodeName(), actual.getNodeName());
+        assertEquals(expected.getNodeValue(), actual.getNodeValue());
+        assertEquals(expected.getAttributeNames(), actual.getAttributeNames());
+        for (String attribute : expected.getAttributeNames()) {
+            assertEquals(expected.getAttribute(attribute), actual.getAttribute(attribute));
+        }
+        final XmlNode[] expectedChildren = expected.getChildNodes();
+        final XmlNode[] actualChildren = actual.getChildNodes();
+        assertEquals(expectedChildren.length, actualChildren.length);
+        for (int i = 0; i < expectedChildren.length; i++) {
+            assertSameTree(expectedChildren[i], actualChildren[i]);
+        }
+    }
+}